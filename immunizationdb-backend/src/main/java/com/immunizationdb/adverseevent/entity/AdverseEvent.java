@@ -22,7 +22,8 @@ import java.util.UUID;
 public class AdverseEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "adverse_events_seq")
+    @SequenceGenerator(name = "adverse_events_seq", sequenceName = "adverse_events_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "patient_id", nullable = false)
@@ -2,11 +2,13 @@ package com.immunizationdb.appointment.repository;
 
 import com.immunizationdb.appointment.entity.Appointment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -41,9 +43,26 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
     );
     
     List<Appointment> findByAppointmentDateAndSmsSentFalse(LocalDate appointmentDate);
-}
-
-
-
-
 
+    /**
+     * Create a scheduled appointment with a caller-chosen id; does nothing if the id already exists
+     * @return 1 if the appointment was created, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO appointments (id, patient_id, facility_id, vaccine_name, dose_number, " +
+            "appointment_date, status, notes, sms_sent, created_at, created_by) " +
+            "VALUES (:id, :patientId, :facilityId, :vaccineName, :doseNumber, CAST(:appointmentDate AS DATE), " +
+            "'SCHEDULED', :notes, false, :createdAt, :createdBy) ON CONFLICT (id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(
+            @Param("id") UUID id,
+            @Param("patientId") UUID patientId,
+            @Param("facilityId") String facilityId,
+            @Param("vaccineName") String vaccineName,
+            @Param("doseNumber") Integer doseNumber,
+            @Param("appointmentDate") LocalDate appointmentDate,
+            @Param("notes") String notes,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("createdBy") Long createdBy
+    );
+}
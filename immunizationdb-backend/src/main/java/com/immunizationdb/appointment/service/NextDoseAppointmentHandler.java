@@ -0,0 +1,64 @@
+package com.immunizationdb.appointment.service;
+
+import com.immunizationdb.appointment.repository.AppointmentRepository;
+import com.immunizationdb.outbox.service.OutboxHandler;
+import com.immunizationdb.patient.repository.PatientRepository;
+import com.immunizationdb.reporting.event.VaccinationRecordedMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Creates the follow-up appointment planned when a dose was recorded, under the id already returned to the nurse.
+ * The patient is checked again on delivery, since they may have been deleted after the dose was recorded.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NextDoseAppointmentHandler implements OutboxHandler<VaccinationRecordedMessage> {
+
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRepository patientRepository;
+
+    @Override
+    public String eventType() {
+        return VaccinationRecordedMessage.TYPE;
+    }
+
+    @Override
+    public String name() {
+        return "next-dose-appointment";
+    }
+
+    @Override
+    public Class<VaccinationRecordedMessage> payloadType() {
+        return VaccinationRecordedMessage.class;
+    }
+
+    @Override
+    public void handle(VaccinationRecordedMessage message) {
+        if (message.getNextAppointmentId() == null) {
+            return;
+        }
+        int nextDoseNumber = message.getDoseNumber() + 1;
+        if (patientRepository.findByIdAndDeletedFalse(message.getPatientId()).isEmpty()) {
+            log.warn("Skipped next-dose appointment {}: patient {} not found",
+                    message.getNextAppointmentId(), message.getPatientId());
+            return;
+        }
+        appointmentRepository.insertIfAbsent(
+                message.getNextAppointmentId(),
+                message.getPatientId(),
+                message.getFacilityId(),
+                message.getVaccineName(),
+                nextDoseNumber,
+                message.getNextAppointmentDate(),
+                String.format("Auto-scheduled for %s dose %d", message.getVaccineName(), nextDoseNumber),
+                LocalDateTime.now(),
+                message.getNurseId());
+        log.info("Auto-created appointment for next dose: {} dose {} on {}",
+                message.getVaccineName(), nextDoseNumber, message.getNextAppointmentDate());
+    }
+}
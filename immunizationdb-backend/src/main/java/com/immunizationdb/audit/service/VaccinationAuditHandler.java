@@ -0,0 +1,52 @@
+package com.immunizationdb.audit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immunizationdb.audit.entity.AuditLog;
+import com.immunizationdb.audit.repository.AuditLogRepository;
+import com.immunizationdb.outbox.service.OutboxHandler;
+import com.immunizationdb.reporting.event.VaccinationRecordedMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes an audit log entry for every recorded vaccination, attributed to the nurse who recorded it
+ */
+@Component
+@RequiredArgsConstructor
+public class VaccinationAuditHandler implements OutboxHandler<VaccinationRecordedMessage> {
+
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String eventType() {
+        return VaccinationRecordedMessage.TYPE;
+    }
+
+    @Override
+    public String name() {
+        return "audit-log";
+    }
+
+    @Override
+    public Class<VaccinationRecordedMessage> payloadType() {
+        return VaccinationRecordedMessage.class;
+    }
+
+    @Override
+    public void handle(VaccinationRecordedMessage message) {
+        try {
+            auditLogRepository.save(AuditLog.builder()
+                    .userId(message.getNurseId())
+                    .action("VACCINATION_RECORDED")
+                    .entityType("VACCINATION")
+                    .entityId(message.aggregateId())
+                    .newValue(objectMapper.writeValueAsString(message))
+                    .createdAt(message.getRecordedAt())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize audit entry: " + e.getMessage(), e);
+        }
+    }
+}
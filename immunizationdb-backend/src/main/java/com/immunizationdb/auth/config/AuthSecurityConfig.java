@@ -2,6 +2,7 @@ package com.immunizationdb.auth.config;
 
 import com.immunizationdb.auth.repository.UserRepository;
 import com.immunizationdb.auth.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -51,6 +52,10 @@ public class AuthSecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses finish in an async dispatch of a request that was already authorized;
+                        // the stateless JWT context is not carried into it
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // Public endpoints (without /api prefix since context path is already /api)
                         .requestMatchers(
                                 "/auth/login",
@@ -96,8 +101,9 @@ public class AuthSecurityConfig {
             "https://donjunior01.github.io"
         )); 
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With",
+            "Idempotency-Key"));
+        configuration.setExposedHeaders(List.of("Authorization", "X-Total-Count", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
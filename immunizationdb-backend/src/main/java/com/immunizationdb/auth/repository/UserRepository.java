@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +31,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     void updateLockedStatus(@Param("userId") Long userId, @Param("locked") boolean locked);
 
     List<User> findByFacilityIdAndDeletedFalseAndActiveTrue(String facilityId);
+
+    @Query("SELECT u.id, u.fullName FROM User u WHERE u.id IN :ids")
+    List<Object[]> findNamesByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.immunizationdb.auth.security;
+
+import com.immunizationdb.auth.entity.Role;
+import com.immunizationdb.auth.entity.User;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Which facility's data the current user may read
+ */
+public final class FacilityScope {
+
+    private FacilityScope() {
+    }
+
+    /**
+     * Facility a request may read: government officials get the requested facility, or null for national figures;
+     * everyone else is pinned to their own facility
+     */
+    public static String resolve(String requestedFacilityId) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (user.getRole() == Role.GOVERNMENT_OFFICIAL) {
+            return requestedFacilityId != null && !requestedFacilityId.isBlank() ? requestedFacilityId : null;
+        }
+        if (user.getFacilityId() == null) {
+            throw new RuntimeException("User is not assigned to a facility");
+        }
+        return user.getFacilityId();
+    }
+}
@@ -2,6 +2,7 @@ package com.immunizationdb.campaign.repository;
 
 import com.immunizationdb.campaign.entity.Campaign;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -38,6 +39,14 @@ public interface CampaignRepository extends JpaRepository<Campaign, Long> {
         @Param("currentDate") LocalDate currentDate
     );
 
+    @Query("SELECT COUNT(c) FROM Campaign c WHERE c.facilityId = :facilityId " +
+           "AND :currentDate BETWEEN c.startDate AND c.endDate " +
+           "AND c.status = 'ACTIVE'")
+    Long countActiveCampaignsByFacility(
+        @Param("facilityId") String facilityId,
+        @Param("currentDate") LocalDate currentDate
+    );
+
     @Query("SELECT c FROM Campaign c WHERE c.endDate < :currentDate " +
            "AND c.status != 'COMPLETED' AND c.status != 'CANCELLED'")
     List<Campaign> findExpiredCampaigns(@Param("currentDate") LocalDate currentDate);
@@ -45,4 +54,23 @@ public interface CampaignRepository extends JpaRepository<Campaign, Long> {
     @Query("SELECT c FROM Campaign c WHERE c.startDate >= :startDate " +
            "ORDER BY c.startDate ASC")
     List<Campaign> findUpcomingCampaigns(@Param("startDate") LocalDate startDate);
+
+    /**
+     * Count one dose towards every active campaign for the vaccine that covers the facility on the day it was given:
+     * the facility's own campaigns, campaigns for its district and national campaigns
+     * @return Number of campaigns updated
+     */
+    @Modifying
+    @Query(value = "UPDATE campaigns c SET vaccinated_count = COALESCE(c.vaccinated_count, 0) + 1, " +
+           "updated_at = CURRENT_TIMESTAMP " +
+           "WHERE c.status = 'ACTIVE' AND UPPER(c.vaccine_name) = UPPER(:vaccineName) " +
+           "AND CAST(:dateAdministered AS DATE) BETWEEN c.start_date AND c.end_date " +
+           "AND (c.facility_id = :facilityId OR (c.facility_id IS NULL AND (c.district_id IS NULL " +
+           "OR c.district_id = (SELECT f.district_id FROM facilities f WHERE f.id = :facilityId))))",
+           nativeQuery = true)
+    int incrementVaccinatedCount(
+        @Param("vaccineName") String vaccineName,
+        @Param("facilityId") String facilityId,
+        @Param("dateAdministered") LocalDate dateAdministered
+    );
 }
@@ -0,0 +1,43 @@
+package com.immunizationdb.campaign.service;
+
+import com.immunizationdb.campaign.repository.CampaignRepository;
+import com.immunizationdb.outbox.service.OutboxHandler;
+import com.immunizationdb.reporting.event.VaccinationRecordedMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts each recorded dose towards the active campaigns that cover it
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignProgressHandler implements OutboxHandler<VaccinationRecordedMessage> {
+
+    private final CampaignRepository campaignRepository;
+
+    @Override
+    public String eventType() {
+        return VaccinationRecordedMessage.TYPE;
+    }
+
+    @Override
+    public String name() {
+        return "campaign-progress";
+    }
+
+    @Override
+    public Class<VaccinationRecordedMessage> payloadType() {
+        return VaccinationRecordedMessage.class;
+    }
+
+    @Override
+    public void handle(VaccinationRecordedMessage message) {
+        int updated = campaignRepository.incrementVaccinatedCount(
+                message.getVaccineName(), message.getFacilityId(), message.getDateAdministered());
+        if (updated > 0) {
+            log.debug("Vaccination {} counted towards {} campaigns", message.getVaccinationId(), updated);
+        }
+    }
+}
@@ -5,8 +5,10 @@ import com.immunizationdb.campaign.dto.CreateCampaignRequest;
 import com.immunizationdb.campaign.dto.CampaignResponse;
 import com.immunizationdb.campaign.entity.Campaign;
 import com.immunizationdb.campaign.repository.CampaignRepository;
+import com.immunizationdb.reporting.event.FacilityDataChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +23,7 @@ import java.util.stream.Collectors;
 public class CampaignService {
 
     private final CampaignRepository campaignRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CampaignResponse createCampaign(CreateCampaignRequest request) {
@@ -93,6 +96,9 @@ public class CampaignService {
         campaign.setStatus(status);
         Campaign updated = campaignRepository.save(campaign);
         log.info("Campaign {} status updated to {}", campaignId, status);
+        // District and national campaigns have no facility, so every dashboard is invalidated
+        eventPublisher.publishEvent(new FacilityDataChangedEvent(
+                updated.getFacilityId(), FacilityDataChangedEvent.Source.CAMPAIGN));
         return mapToResponse(updated);
     }
 
@@ -23,7 +23,6 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.UUID;
 
 @Configuration
 @RequiredArgsConstructor
@@ -53,26 +52,40 @@ public class DatabaseSeeder {
             // Seed additional users (3 default users already exist in migration)
             seedAdditionalUsers(userRepository);
 
-            // Seed patients
-            List<Patient> patients = seedPatients(patientRepository);
-            log.info("Seeded {} patients", patients.size());
-
-            // Seed vaccine batches
-            List<VaccineBatch> batches = seedVaccineBatches(vaccineBatchRepository);
-            log.info("Seeded {} vaccine batches", batches.size());
-
-            // Seed vaccinations
-            List<Vaccination> vaccinations = seedVaccinations(vaccinationRepository, patients, batches);
-            log.info("Seeded {} vaccinations", vaccinations.size());
-
-            // Seed campaigns
-            List<Campaign> campaigns = seedCampaigns(campaignRepository);
-            log.info("Seeded {} campaigns", campaigns.size());
+            seedRecords(patientRepository, vaccineBatchRepository, vaccinationRepository, campaignRepository);
 
             log.info("Database seeding completed successfully!");
         };
     }
 
+    /**
+     * Insert the seed patients, vaccine batches, vaccinations and campaigns.
+     * Also driven by InsertThroughputBenchmark, which rolls it back.
+     * @return Number of rows inserted
+     */
+    public int seedRecords(PatientRepository patientRepository,
+                           VaccineBatchRepository vaccineBatchRepository,
+                           VaccinationRepository vaccinationRepository,
+                           CampaignRepository campaignRepository) {
+        // Seed patients
+        List<Patient> patients = seedPatients(patientRepository);
+        log.info("Seeded {} patients", patients.size());
+
+        // Seed vaccine batches
+        List<VaccineBatch> batches = seedVaccineBatches(vaccineBatchRepository);
+        log.info("Seeded {} vaccine batches", batches.size());
+
+        // Seed vaccinations
+        List<Vaccination> vaccinations = seedVaccinations(vaccinationRepository, patients, batches);
+        log.info("Seeded {} vaccinations", vaccinations.size());
+
+        // Seed campaigns
+        List<Campaign> campaigns = seedCampaigns(campaignRepository);
+        log.info("Seeded {} campaigns", campaigns.size());
+
+        return patients.size() + batches.size() + vaccinations.size() + campaigns.size();
+    }
+
     private void seedAdditionalUsers(UserRepository userRepository) {
         List<User> additionalUsers = new ArrayList<>();
         
@@ -149,8 +162,8 @@ public class DatabaseSeeder {
             LocalDate dateOfBirth = LocalDate.now().minusYears(random.nextInt(15)).minusDays(random.nextInt(365));
             String facilityId = facilities[random.nextInt(facilities.length)];
 
+            // Leave the id to the generator: an assigned id turns save() into a SELECT + INSERT merge per row
             Patient patient = Patient.builder()
-                    .id(UUID.randomUUID())
                     .fullName(fullName)
                     .dateOfBirth(dateOfBirth)
                     .gender(gender)
@@ -264,6 +277,7 @@ public class DatabaseSeeder {
                         .doseNumber(i + 1)
                         .dateAdministered(vaccinationDate)
                         .facilityId(patient.getFacilityId())
+                        .administrationSite("LEFT_ARM")
                         .notes("Routine immunization dose " + (i + 1))
                         .createdAt(LocalDateTime.now().minusDays(random.nextInt(180)))
                         .build();
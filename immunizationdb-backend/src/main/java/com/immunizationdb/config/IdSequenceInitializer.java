@@ -0,0 +1,76 @@
+package com.immunizationdb.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aligns the pooled id sequences with existing data when Flyway is disabled (V13 does the same).
+ * Hibernate creates each sequence starting at 1, which would collide with rows inserted under IDENTITY ids,
+ * and it never replaces the IDENTITY default that plain SQL inserts still use.
+ * Runs after all singletons (including the EntityManagerFactory schema update) and before the web server starts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    /**
+     * Must match the allocationSize of the entities' @SequenceGenerator
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES_BY_TABLE = Map.of(
+            "vaccinations", "vaccinations_seq",
+            "stock_movements", "stock_movements_seq",
+            "sms_logs", "sms_logs_seq",
+            "offline_sync_queue", "offline_sync_queue_seq",
+            "vaccine_batches", "vaccine_batches_seq",
+            "adverse_events", "adverse_events_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        SEQUENCES_BY_TABLE.forEach((table, sequence) -> {
+            try {
+                alignSequence(table, sequence);
+                replaceIdentityDefault(table, sequence);
+            } catch (Exception e) {
+                log.error("Failed to prepare id sequence {} for table {}", sequence, table, e);
+            }
+        });
+    }
+
+    private void alignSequence(String table, String sequence) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " INCREMENT BY " + ALLOCATION_SIZE);
+
+        // With pooled-lo, ids up to last_value + 49 may already be in use once the sequence has been called
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long nextValue = jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN is_called THEN last_value + " + ALLOCATION_SIZE + " ELSE last_value END FROM " + sequence,
+                Long.class);
+        if (maxId != null && nextValue != null && nextValue <= maxId) {
+            jdbcTemplate.queryForObject("SELECT setval(?, ?, false)", Long.class, sequence, maxId + 1);
+            log.info("Advanced id sequence {} to {} to clear existing {} rows", sequence, maxId + 1, table);
+        }
+    }
+
+    private void replaceIdentityDefault(String table, String sequence) {
+        List<String> identity = jdbcTemplate.queryForList(
+                "SELECT is_identity FROM information_schema.columns WHERE table_name = ? AND column_name = 'id'",
+                String.class, table);
+        if (identity.isEmpty() || !"YES".equals(identity.get(0))) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " OWNED BY " + table + ".id");
+        log.info("Replaced IDENTITY default on {}.id with sequence {}", table, sequence);
+    }
+}
@@ -0,0 +1,39 @@
+package com.immunizationdb.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads whose result is cached against the primary.
+ * With replica routing on, a read-only transaction may read a replica that lags by up to
+ * app.datasource.replica.max-lag-seconds; a cache filled from such a read after an eviction would keep the stale
+ * value until the next eviction. The load then runs in its own read-write transaction, which routes to the primary.
+ */
+@Component
+public class PrimaryReads {
+
+    private final boolean replicaEnabled;
+    private final TransactionTemplate primaryTransaction;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager,
+                        @Value("${app.datasource.replica.enabled:false}") boolean replicaEnabled) {
+        this.replicaEnabled = replicaEnabled;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T load(Supplier<T> loader) {
+        boolean onPrimary = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!replicaEnabled || onPrimary) {
+            return loader.get();
+        }
+        return primaryTransaction.execute(status -> loader.get());
+    }
+}
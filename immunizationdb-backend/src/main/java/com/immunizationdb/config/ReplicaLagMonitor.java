@@ -0,0 +1,145 @@
+package com.immunizationdb.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Owns the read-replica connection pool and decides whether the replica is fit to serve reads.
+ * Replication lag is probed on a fixed delay; while the replica is unreachable or lags more than
+ * app.datasource.replica.max-lag-seconds, read-only transactions fall back to the primary.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Zero while the replica streams from the primary and has replayed everything it received, so an idle primary
+    // does not look like lag. A replica that stopped streaming reports the age of its last replayed transaction,
+    // which passes max-lag-seconds once it has been disconnected that long; -1 (unknown) if it never replayed any.
+    // Reading pg_stat_wal_receiver.status needs the pg_monitor role (or superuser) for the replica user.
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+            "AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), -1) END";
+
+    private final DataSource replicaDataSource;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final double maxLagSeconds;
+
+    private volatile double lagSeconds = -1;
+    private volatile boolean reachable = true;
+
+    @Autowired
+    public ReplicaLagMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username}") String username,
+            @Value("${app.datasource.replica.password}") String password,
+            @Value("${app.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${app.datasource.replica.minimum-idle:2}") int minimumIdle,
+            @Value("${app.datasource.replica.connection-timeout:5000}") long connectionTimeout,
+            @Value("${app.datasource.replica.max-lag-seconds:30}") double maxLagSeconds) {
+        this(meterRegistry, createPool(meterRegistry, url, username, password, maximumPoolSize, minimumIdle,
+                connectionTimeout), maxLagSeconds);
+        log.info("Read replica routing enabled: {} (max lag {}s, pool size {})", url, maxLagSeconds, maximumPoolSize);
+    }
+
+    private ReplicaLagMonitor(MeterRegistry meterRegistry, HikariDataSource pool, double maxLagSeconds) {
+        this(meterRegistry, pool, new JdbcTemplate(pool), maxLagSeconds);
+        replicaJdbcTemplate.setQueryTimeout(5);
+    }
+
+    /**
+     * Lag is read through replicaJdbcTemplate; tests pass a stand-in for both
+     */
+    ReplicaLagMonitor(MeterRegistry meterRegistry, DataSource replicaDataSource, JdbcTemplate replicaJdbcTemplate,
+                      double maxLagSeconds) {
+        this.replicaDataSource = replicaDataSource;
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.maxLagSeconds = maxLagSeconds;
+
+        Gauge.builder("datasource.replica.lag.seconds", this, monitor -> monitor.lagSeconds)
+                .description("Replication lag of the read replica, -1 when unknown")
+                .register(meterRegistry);
+    }
+
+    private static HikariDataSource createPool(MeterRegistry meterRegistry, String url, String username,
+                                               String password, int maximumPoolSize, int minimumIdle,
+                                               long connectionTimeout) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica-pool");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(minimumIdle);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+        config.setReadOnly(true);
+        // Do not fail startup when the replica is down - reads simply stay on the primary
+        config.setInitializationFailTimeout(-1);
+        config.setMetricRegistry(meterRegistry);
+        return new HikariDataSource(config);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}", initialDelay = 0)
+    public void checkLag() {
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            lagSeconds = lag != null ? lag : -1;
+            if (!reachable) {
+                log.info("Read replica is reachable again (lag {}s)", lagSeconds);
+            }
+            reachable = true;
+        } catch (Exception e) {
+            if (reachable) {
+                log.warn("Read replica lag check failed, routing reads to primary: {}", e.getMessage());
+            }
+            markUnreachable();
+        }
+    }
+
+    /**
+     * Reason the replica cannot serve reads right now, or null when it can
+     */
+    public String unavailableReason() {
+        if (!reachable) {
+            return "unreachable";
+        }
+        if (lagSeconds < 0) {
+            return "unknown_lag";
+        }
+        return lagSeconds > maxLagSeconds ? "lag" : null;
+    }
+
+    public void markUnreachable() {
+        reachable = false;
+        lagSeconds = -1;
+    }
+
+    public DataSource getReplicaDataSource() {
+        return replicaDataSource;
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        if (replicaDataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.immunizationdb.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the connection is fetched only after the
+ * transaction's read-only flag has been bound.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final MeterRegistry meterRegistry;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Map<String, Counter> fallbacks = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.meterRegistry = meterRegistry;
+        this.primaryConnections = routeCounter(meterRegistry, "primary");
+        this.replicaConnections = routeCounter(meterRegistry, "replica");
+
+        setTargetDataSources(Map.of(
+                Route.PRIMARY, primary,
+                Route.REPLICA, replicaLagMonitor.getReplicaDataSource()));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return Route.PRIMARY;
+        }
+        String reason = replicaLagMonitor.unavailableReason();
+        if (reason != null) {
+            fallback(reason);
+            return Route.PRIMARY;
+        }
+        replicaConnections.increment();
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            return target.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            log.warn("Could not get a replica connection, falling back to primary: {}", e.getMessage());
+            replicaLagMonitor.markUnreachable();
+            fallback("connection_failure");
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void fallback(String reason) {
+        primaryConnections.increment();
+        fallbacks.computeIfAbsent(reason, r -> Counter.builder("datasource.routing.fallbacks")
+                .tag("reason", r)
+                .description("Read-only transactions routed to the primary because the replica was unfit")
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.routing.connections")
+                .tag("route", route)
+                .description("Connections handed out per routing target")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.immunizationdb.idempotency.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecordId implements Serializable {
+    private Long userId;
+    private String idempotencyKey;
+}
@@ -0,0 +1,120 @@
+package com.immunizationdb.idempotency.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immunizationdb.auth.entity.User;
+import com.immunizationdb.idempotency.service.IdempotencyService;
+import com.immunizationdb.idempotency.service.IdempotencyService.IdempotencyException;
+import com.immunizationdb.idempotency.service.IdempotencyService.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes POSTs to the configured write endpoints safe to retry: a request carrying an Idempotency-Key header runs
+ * once per user and key, and retries get the stored response with an Idempotent-Replayed header.
+ * Runs after Spring Security, so the user is known; requests without the header are passed through untouched.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.paths:/vaccinations,/vaccinations/batch,/inventory/stock/receive,/inventory/stock/adjust," +
+            "/v1/stock/receive,/v1/stock/adjust}")
+    private List<String> paths;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !paths.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            // Security rejects the request anyway; nothing to key it on
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH || !key.chars().allMatch(c -> c > 0x20 && c < 0x7f)) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " printable ASCII characters");
+            return;
+        }
+
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+        String fingerprint = IdempotencyService.fingerprint(
+                request.getMethod(), request.getServletPath(), cachedRequest.getBody());
+
+        // The body reaches the client only once the key is completed or released, so an immediate retry sees it
+        ContentCachingResponseWrapper capture = new ContentCachingResponseWrapper(response);
+        StoredResponse result;
+        try {
+            result = idempotencyService.execute(user.getId(), key, fingerprint, () -> {
+                filterChain.doFilter(cachedRequest, capture);
+                return new StoredResponse(capture.getStatus(), capture.getContentType(),
+                        capture.getContentAsByteArray(), fingerprint, false);
+            });
+        } catch (IdempotencyException e) {
+            writeError(response, e.getStatus().value(), e.getMessage());
+            return;
+        } catch (IOException | ServletException | RuntimeException e) {
+            capture.copyBodyToResponse();
+            throw e;
+        } catch (Exception e) {
+            capture.copyBodyToResponse();
+            throw new ServletException(e);
+        }
+
+        if (result.replayed()) {
+            log.info("Replayed stored response for Idempotency-Key {} of user {}", key, user.getId());
+            response.setStatus(result.status());
+            if (result.contentType() != null) {
+                response.setContentType(result.contentType());
+            }
+            response.setHeader(REPLAYED_HEADER, "true");
+            response.setContentLength(result.body().length);
+            response.getOutputStream().write(result.body());
+        } else {
+            capture.copyBodyToResponse();
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+}
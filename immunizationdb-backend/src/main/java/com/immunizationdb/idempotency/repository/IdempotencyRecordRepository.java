@@ -0,0 +1,81 @@
+package com.immunizationdb.idempotency.repository;
+
+import com.immunizationdb.idempotency.entity.IdempotencyRecord;
+import com.immunizationdb.idempotency.entity.IdempotencyRecordId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecordId> {
+
+    /**
+     * Claim a key for a request that is about to run; an expired record under the key is replaced.
+     * The claim's created_at identifies it in {@link #complete} and {@link #release}.
+     * @return 1 if the key was claimed, 0 if a live record already holds it
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys AS k " +
+           "(user_id, idempotency_key, request_fingerprint, created_at, expires_at) " +
+           "VALUES (:userId, :key, :fingerprint, :now, :expiresAt) " +
+           "ON CONFLICT (user_id, idempotency_key) DO UPDATE SET " +
+           "request_fingerprint = EXCLUDED.request_fingerprint, status_code = NULL, content_type = NULL, " +
+           "response_body = NULL, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+           "WHERE k.expires_at < EXCLUDED.created_at",
+           nativeQuery = true)
+    int claim(
+        @Param("userId") Long userId,
+        @Param("key") String key,
+        @Param("fingerprint") String fingerprint,
+        @Param("now") LocalDateTime now,
+        @Param("expiresAt") LocalDateTime expiresAt
+    );
+
+    /**
+     * Take over a claim whose request never finished, e.g. because the instance running it stopped
+     * @return 1 if taken over, 0 if the claim changed meanwhile
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord k SET k.createdAt = :now, k.expiresAt = :expiresAt " +
+           "WHERE k.userId = :userId AND k.idempotencyKey = :key AND k.statusCode IS NULL AND k.createdAt = :claimedAt")
+    int takeOver(
+        @Param("userId") Long userId,
+        @Param("key") String key,
+        @Param("claimedAt") LocalDateTime claimedAt,
+        @Param("now") LocalDateTime now,
+        @Param("expiresAt") LocalDateTime expiresAt
+    );
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord k SET k.statusCode = :statusCode, k.contentType = :contentType, " +
+           "k.responseBody = :responseBody " +
+           "WHERE k.userId = :userId AND k.idempotencyKey = :key AND k.statusCode IS NULL AND k.createdAt = :claimedAt")
+    int complete(
+        @Param("userId") Long userId,
+        @Param("key") String key,
+        @Param("claimedAt") LocalDateTime claimedAt,
+        @Param("statusCode") Integer statusCode,
+        @Param("contentType") String contentType,
+        @Param("responseBody") String responseBody
+    );
+
+    /**
+     * Drop a claim whose request failed, so the key can be used again
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord k WHERE k.userId = :userId AND k.idempotencyKey = :key " +
+           "AND k.statusCode IS NULL AND k.createdAt = :claimedAt")
+    int release(
+        @Param("userId") Long userId,
+        @Param("key") String key,
+        @Param("claimedAt") LocalDateTime claimedAt
+    );
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
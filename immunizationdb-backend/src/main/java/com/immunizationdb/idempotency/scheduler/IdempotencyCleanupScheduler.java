@@ -0,0 +1,31 @@
+package com.immunizationdb.idempotency.scheduler;
+
+import com.immunizationdb.idempotency.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyCleanupScheduler {
+
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Scheduled job runs every hour
+     * Deletes stored responses whose Idempotency-Key has expired
+     */
+    @Scheduled(cron = "0 45 * * * ?") // Every hour at minute 45
+    public void purgeExpiredKeys() {
+        try {
+            int deleted = idempotencyService.purgeExpired();
+            if (deleted > 0) {
+                log.info("Purged {} expired idempotency keys", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge expired idempotency keys", e);
+        }
+    }
+}
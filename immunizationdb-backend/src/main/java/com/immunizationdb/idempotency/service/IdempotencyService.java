@@ -0,0 +1,219 @@
+package com.immunizationdb.idempotency.service;
+
+import com.immunizationdb.idempotency.entity.IdempotencyRecord;
+import com.immunizationdb.idempotency.entity.IdempotencyRecordId;
+import com.immunizationdb.idempotency.repository.IdempotencyRecordRepository;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a request at most once per (user, Idempotency-Key) and answers retries with the stored response.
+ * Concurrent duplicates on this instance wait for the first one through an in-memory single-flight map;
+ * the idempotency_keys row claimed before the request runs covers duplicates arriving at other instances.
+ * Only successful responses are stored. A failed request releases its key, so the client can retry it.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // A claim older than this whose request never finished may be taken over by a retry
+    @Value("${idempotency.in-progress-timeout-seconds:120}")
+    private long inProgressTimeoutSeconds;
+
+    @Value("${idempotency.wait-timeout-seconds:30}")
+    private long waitTimeoutSeconds;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * SHA-256 of a request, used to reject a key reused for a different request
+     */
+    public static String fingerprint(String method, String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Run the request unless one with the same key already succeeded, in which case its response is returned
+     * @param action Runs the request and returns its response
+     * @return The response of this request, or the stored one marked as replayed
+     * @throws IdempotencyException If the key was used for a different request or its request is still running
+     */
+    public StoredResponse execute(Long userId, String key, String fingerprint,
+                                  Callable<StoredResponse> action) throws Exception {
+        String flightKey = userId + ":" + key;
+        while (true) {
+            CompletableFuture<StoredResponse> flight = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> leader = inFlight.putIfAbsent(flightKey, flight);
+            if (leader != null) {
+                StoredResponse shared = await(leader);
+                if (shared == null) {
+                    // The first request failed and stored nothing, so this one runs for real
+                    continue;
+                }
+                return replay(shared, fingerprint);
+            }
+
+            StoredResponse response = null;
+            try {
+                response = executeClaimed(userId, key, fingerprint, action);
+                return response;
+            } finally {
+                flight.complete(response != null && response.isSuccessful() ? response : null);
+                inFlight.remove(flightKey, flight);
+            }
+        }
+    }
+
+    /**
+     * Delete records whose retry window has closed
+     * @return Number of records deleted
+     */
+    public int purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        return deleted != null ? deleted : 0;
+    }
+
+    private StoredResponse executeClaimed(Long userId, String key, String fingerprint,
+                                          Callable<StoredResponse> action) throws Exception {
+        // Claims are matched on created_at, so keep it at the database's precision
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        Integer claimed = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.claim(userId, key, fingerprint, now, expiresAt));
+
+        if (claimed == null || claimed == 0) {
+            IdempotencyRecord existing = transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.findById(new IdempotencyRecordId(userId, key)).orElse(null));
+            if (existing == null) {
+                throw new IdempotencyException(HttpStatus.CONFLICT,
+                        "A request with this Idempotency-Key is still being processed. Please retry.");
+            }
+            if (existing.getStatusCode() != null) {
+                return replay(new StoredResponse(existing.getStatusCode(), existing.getContentType(),
+                        existing.getResponseBody().getBytes(StandardCharsets.UTF_8),
+                        existing.getRequestFingerprint(), false), fingerprint);
+            }
+            if (!existing.getRequestFingerprint().equals(fingerprint)) {
+                throw keyReused();
+            }
+            Integer takenOver = existing.getCreatedAt().isBefore(now.minusSeconds(inProgressTimeoutSeconds))
+                    ? transactionTemplate.execute(status -> idempotencyRecordRepository.takeOver(
+                            userId, key, existing.getCreatedAt(), now, expiresAt))
+                    : Integer.valueOf(0);
+            if (takenOver == null || takenOver == 0) {
+                throw new IdempotencyException(HttpStatus.CONFLICT,
+                        "A request with this Idempotency-Key is still being processed. Please retry.");
+            }
+            log.warn("Taking over unfinished request for Idempotency-Key {} of user {}", key, userId);
+        }
+
+        StoredResponse response;
+        try {
+            response = action.call();
+        } catch (Exception | Error e) {
+            release(userId, key, now);
+            throw e;
+        }
+
+        if (response.isSuccessful()) {
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.complete(userId, key, now,
+                    response.status(), response.contentType(), new String(response.body(), StandardCharsets.UTF_8)));
+        } else {
+            release(userId, key, now);
+        }
+        return response;
+    }
+
+    private void release(Long userId, String key, LocalDateTime claimedAt) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyRecordRepository.release(userId, key, claimedAt));
+        } catch (Exception e) {
+            // The claim then blocks retries until the in-progress timeout lets one take it over
+            log.error("Failed to release Idempotency-Key {} of user {}", key, userId, e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> leader) throws InterruptedException {
+        try {
+            return leader.get(waitTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed. Please retry.");
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private StoredResponse replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw keyReused();
+        }
+        return new StoredResponse(stored.status(), stored.contentType(), stored.body(), stored.fingerprint(), true);
+    }
+
+    private IdempotencyException keyReused() {
+        return new IdempotencyException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "This Idempotency-Key was already used for a different request");
+    }
+
+    /**
+     * Response of a request run under an Idempotency-Key
+     * @param replayed Whether this is the stored response of an earlier request rather than a new one
+     */
+    public record StoredResponse(int status, String contentType, byte[] body, String fingerprint, boolean replayed) {
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    @Getter
+    public static class IdempotencyException extends RuntimeException {
+
+        private final HttpStatus status;
+
+        public IdempotencyException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.immunizationdb.inventory.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the inventory indexes Hibernate cannot express when Flyway is disabled (V12, V15 and V16 do the same).
+ * Hibernate adds the vaccine_key column but cannot backfill it or create partial or expression indexes.
+ * Runs after all singletons (including the EntityManagerFactory schema update) and before the web server starts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventorySchemaInitializer implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            int updated = jdbcTemplate.update(
+                    "UPDATE vaccine_batches SET vaccine_key = LOWER(TRIM(vaccine_name)) WHERE vaccine_key IS NULL");
+            if (updated > 0) {
+                log.info("Backfilled vaccine_key for {} vaccine batches", updated);
+            }
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_batch_claim " +
+                    "ON vaccine_batches(facility_id, vaccine_key, expiry_date) WHERE quantity_remaining > 0");
+        } catch (Exception e) {
+            log.error("Failed to prepare vaccine batch claim index", e);
+        }
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_stock_movement_ledger_vaccine " +
+                    "ON stock_movements(facility_id, (LOWER(TRIM(vaccine_id))), created_at, id)");
+        } catch (Exception e) {
+            log.error("Failed to prepare stock movement ledger index", e);
+        }
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_stock_alert_open " +
+                    "ON stock_alerts(batch_id, alert_type, severity) WHERE is_resolved = false");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_stock_alert_open_facility " +
+                    "ON stock_alerts(facility_id, created_at) WHERE is_resolved = false");
+        } catch (Exception e) {
+            log.error("Failed to prepare open stock alert indexes", e);
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.immunizationdb.inventory.controller;
 
+import com.immunizationdb.auth.security.FacilityScope;
 import com.immunizationdb.inventory.dto.AdjustStockRequest;
 import com.immunizationdb.inventory.dto.CreateVaccineBatchRequest;
+import com.immunizationdb.inventory.dto.InventoryStatsResponse;
 import com.immunizationdb.inventory.dto.ReceiveStockRequest;
 import com.immunizationdb.inventory.dto.StockLevelResponse;
 import com.immunizationdb.inventory.dto.VaccineBatchResponse;
 import com.immunizationdb.inventory.service.InventoryService;
+import com.immunizationdb.vaccination.service.VaccineCatalog;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,7 +27,10 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:4200")
 public class InventoryController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final InventoryService inventoryService;
+    private final VaccineCatalog vaccineCatalog;
 
     @GetMapping("/batches")
     @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
@@ -92,51 +99,35 @@ public class InventoryController {
         return ResponseEntity.ok(List.of());
     }
 
+    /**
+     * Batches below the threshold, lowest quantity first, one page at a time; X-Total-Count carries the full count.
+     * Health workers and facility managers only see their own facility; government officials may pass facilityId
+     * or leave it out for every facility.
+     */
     @GetMapping("/batches/low-stock")
     @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
     public ResponseEntity<List<VaccineBatchResponse>> getLowStockBatches(
-            @RequestParam(defaultValue = "100") int threshold) {
-        // Get all batches and filter by quantity
-        List<VaccineBatchResponse> allBatches = inventoryService.getAllBatches();
-        List<VaccineBatchResponse> lowStock = allBatches.stream()
-                .filter(b -> b.getQuantityRemaining() < threshold)
-                .collect(java.util.stream.Collectors.toList());
-        return ResponseEntity.ok(lowStock);
-    }
-
+            @RequestParam(required = false) String facilityId,
+            @RequestParam(defaultValue = "100") int threshold,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        String scope = FacilityScope.resolve(facilityId);
+        Page<VaccineBatchResponse> lowStock = inventoryService.getLowStockBatches(
+                scope, threshold, Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(lowStock.getTotalElements()))
+                .body(lowStock.getContent());
+    }
+
+    /**
+     * Dashboard counters, scoped to the caller's facility like /batches/low-stock
+     */
     @GetMapping("/stats")
     @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
-    public ResponseEntity<java.util.Map<String, Object>> getDashboardStats() {
-        List<VaccineBatchResponse> allBatches = inventoryService.getAllBatches();
-        
-        java.util.Set<String> vaccineTypes = new java.util.HashSet<>();
-        int totalDoses = 0;
-        int lowStockItems = 0;
-        int expiringSoon = 0;
-        
-        java.time.LocalDate now = java.time.LocalDate.now();
-        java.time.LocalDate thirtyDaysLater = now.plusDays(30);
-        
-        for (VaccineBatchResponse batch : allBatches) {
-            vaccineTypes.add(batch.getVaccineName());
-            totalDoses += batch.getQuantityRemaining();
-            
-            if (batch.getQuantityRemaining() < 100) {
-                lowStockItems++;
-            }
-            
-            if (batch.getExpiryDate().isAfter(now) && batch.getExpiryDate().isBefore(thirtyDaysLater)) {
-                expiringSoon++;
-            }
-        }
-        
-        java.util.Map<String, Object> stats = new java.util.HashMap<>();
-        stats.put("totalVaccineTypes", vaccineTypes.size());
-        stats.put("totalDoses", totalDoses);
-        stats.put("lowStockItems", lowStockItems);
-        stats.put("expiringSoon", expiringSoon);
-        
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<InventoryStatsResponse> getDashboardStats(
+            @RequestParam(required = false) String facilityId) {
+        String scope = FacilityScope.resolve(facilityId);
+        return ResponseEntity.ok(inventoryService.getDashboardStats(scope));
     }
 
     @GetMapping("/batches/available/{facilityId}")
@@ -175,17 +166,22 @@ public class InventoryController {
     @GetMapping("/vaccines")
     @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
     public ResponseEntity<List<java.util.Map<String, Object>>> getAllVaccines() {
-        // Return list of available vaccine types
+        // Return the active vaccine types from the catalog
         List<java.util.Map<String, Object>> vaccines = new java.util.ArrayList<>();
-        String[] vaccineNames = {"BCG", "OPV", "DTP", "Measles", "Hepatitis B", "Rotavirus", "COVID-19", "Tetanus", "Yellow Fever", "Meningitis"};
-        
-        for (String name : vaccineNames) {
-            java.util.Map<String, Object> vaccine = new java.util.HashMap<>();
+        for (VaccineCatalog.Vaccine catalogVaccine : vaccineCatalog.getActiveVaccines()) {
+            String name = catalogVaccine.name();
+            java.util.Map<String, Object> vaccine = new java.util.LinkedHashMap<>();
             vaccine.put("id", name.toLowerCase().replace(" ", "-"));
             vaccine.put("name", name);
             vaccine.put("code", name);
-            vaccine.put("isActive", true);
-            vaccine.put("maxDoses", getMaxDosesForVaccine(name));
+            vaccine.put("fullName", catalogVaccine.fullName());
+            vaccine.put("description", catalogVaccine.description());
+            vaccine.put("isActive", catalogVaccine.active());
+            vaccine.put("maxDoses", catalogVaccine.dosesRequired());
+            vaccine.put("doseIntervalDays", catalogVaccine.doseIntervalDays());
+            vaccine.put("minimumAgeDays", catalogVaccine.minimumAgeDays());
+            vaccine.put("storageTempMin", catalogVaccine.storageTempMin());
+            vaccine.put("storageTempMax", catalogVaccine.storageTempMax());
             vaccines.add(vaccine);
         }
         
@@ -205,20 +201,4 @@ public class InventoryController {
         VaccineBatchResponse response = inventoryService.adjustStock(request);
         return ResponseEntity.ok(response);
     }
-
-    private int getMaxDosesForVaccine(String vaccineName) {
-        return switch (vaccineName) {
-            case "BCG" -> 1;
-            case "OPV" -> 4;
-            case "DTP" -> 3;
-            case "Measles" -> 2;
-            case "Hepatitis B" -> 3;
-            case "Rotavirus" -> 2;
-            case "COVID-19" -> 3;
-            case "Tetanus" -> 5;
-            case "Yellow Fever" -> 1;
-            case "Meningitis" -> 1;
-            default -> 1;
-        };
-    }
 }
@@ -1,18 +1,33 @@
 package com.immunizationdb.inventory.controller;
 
 import com.immunizationdb.inventory.dto.AdjustStockRequest;
+import com.immunizationdb.inventory.dto.ConsumptionForecastResponse;
 import com.immunizationdb.inventory.dto.ReceiveStockRequest;
+import com.immunizationdb.inventory.dto.StockAlertResponse;
+import com.immunizationdb.inventory.dto.StockLedgerPage;
 import com.immunizationdb.inventory.dto.StockLevelResponse;
+import com.immunizationdb.inventory.dto.StockLevelVerificationResponse;
+import com.immunizationdb.inventory.dto.StockTransferRequest;
+import com.immunizationdb.inventory.dto.StockTransferResponse;
 import com.immunizationdb.inventory.dto.VaccineBatchResponse;
+import com.immunizationdb.inventory.service.ConsumptionForecastService;
 import com.immunizationdb.inventory.service.InventoryService;
+import com.immunizationdb.inventory.service.StockAlertService;
+import com.immunizationdb.inventory.service.StockLedgerService;
+import com.immunizationdb.inventory.service.StockLevelService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -23,28 +38,17 @@ import java.util.List;
 public class StockController {
 
     private final InventoryService inventoryService;
+    private final StockLevelService stockLevelService;
+    private final StockLedgerService stockLedgerService;
+    private final StockAlertService stockAlertService;
+    private final ConsumptionForecastService consumptionForecastService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
     public ResponseEntity<List<StockLevelResponse>> getStockLevels(
             @RequestParam(required = false) String facility_id) {
         // Support both facility_id and facilityId for backward compatibility
-        String facilityId = facility_id;
-        if (facilityId == null || facilityId.isEmpty()) {
-            // Try to get from authenticated user if not provided
-            try {
-                org.springframework.security.core.Authentication auth = 
-                    org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-                if (auth != null && auth.getPrincipal() instanceof com.immunizationdb.auth.entity.User) {
-                    com.immunizationdb.auth.entity.User user = 
-                        (com.immunizationdb.auth.entity.User) auth.getPrincipal();
-                    facilityId = user.getFacilityId();
-                }
-            } catch (Exception e) {
-                log.warn("Could not get facility ID from authenticated user", e);
-            }
-        }
-        
+        String facilityId = resolveFacilityId(facility_id);
         if (facilityId == null || facilityId.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
@@ -76,5 +80,132 @@ public class StockController {
             throw e; // Re-throw to be handled by GlobalExceptionHandler
         }
     }
-}
 
+    /**
+     * Move stock from one facility to many in a single all-or-nothing transfer
+     */
+    @PostMapping("/transfer")
+    @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<StockTransferResponse> transferStock(@Valid @RequestBody StockTransferRequest request) {
+        try {
+            StockTransferResponse response = inventoryService.transferStock(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            log.error("Error transferring stock", e);
+            throw e; // Re-throw to be handled by GlobalExceptionHandler
+        }
+    }
+
+    /**
+     * Open low-stock, expiring and expired batch alerts, newest first
+     */
+    @GetMapping("/alerts")
+    @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<List<StockAlertResponse>> getOpenAlerts(
+            @RequestParam(required = false) String facility_id) {
+        String facilityId = resolveFacilityId(facility_id);
+        if (facilityId == null || facilityId.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stockAlertService.getOpenAlerts(facilityId));
+    }
+
+    /**
+     * Smoothed daily consumption per vaccine with days of stock left and the projected stock-out date
+     */
+    @GetMapping("/forecast")
+    @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<List<ConsumptionForecastResponse>> getForecasts(
+            @RequestParam(required = false) String facility_id) {
+        String facilityId = resolveFacilityId(facility_id);
+        if (facilityId == null || facilityId.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(consumptionForecastService.getForecasts(facilityId));
+    }
+
+    /**
+     * Vaccines across all facilities flagged by the nightly check as running out before their next delivery
+     */
+    @GetMapping("/forecast/at-risk")
+    @PreAuthorize("hasRole('GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<List<ConsumptionForecastResponse>> getStockoutRisks() {
+        return ResponseEntity.ok(consumptionForecastService.getAtRisk());
+    }
+
+    /**
+     * Compare the stock level projection with the batches; rebuild=true repairs any drift found
+     */
+    @PostMapping("/levels/verify")
+    @PreAuthorize("hasRole('GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<StockLevelVerificationResponse> verifyStockLevels(
+            @RequestParam(defaultValue = "false") boolean rebuild) {
+        return ResponseEntity.ok(stockLevelService.verify(rebuild));
+    }
+
+    /**
+     * Movement ledger for a vaccine or a batch, oldest first, with the running balance after each movement.
+     * Follow nextCursor to page forward; a cursor is only valid with the same filters it was issued for.
+     */
+    @GetMapping("/ledger")
+    @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<StockLedgerPage> getLedger(
+            @RequestParam(required = false) String facility_id,
+            @RequestParam(required = false) String vaccine,
+            @RequestParam(required = false) String batch_number,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String facilityId = resolveFacilityId(facility_id);
+        if (facilityId == null || facilityId.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stockLedgerService.getPage(facilityId, vaccine, batch_number, from, to, cursor, limit));
+    }
+
+    @GetMapping("/ledger/export")
+    @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<StreamingResponseBody> exportLedger(
+            @RequestParam(required = false) String facility_id,
+            @RequestParam(required = false) String vaccine,
+            @RequestParam(required = false) String batch_number,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        String facilityId = resolveFacilityId(facility_id);
+        if (facilityId == null || facilityId.isEmpty()
+                || ((vaccine == null || vaccine.isBlank()) && (batch_number == null || batch_number.isBlank()))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> stockLedgerService.export(
+                facilityId, vaccine, batch_number, from, to, outputStream);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv"));
+        headers.setContentDispositionFormData("attachment", "stock-ledger-" + facilityId + "-"
+                + (batch_number != null && !batch_number.isBlank() ? batch_number : vaccine) + ".csv");
+
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(body);
+    }
+
+    private String resolveFacilityId(String facilityId) {
+        if (facilityId == null || facilityId.isEmpty()) {
+            // Try to get from authenticated user if not provided
+            try {
+                org.springframework.security.core.Authentication auth = 
+                    org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+                if (auth != null && auth.getPrincipal() instanceof com.immunizationdb.auth.entity.User) {
+                    com.immunizationdb.auth.entity.User user = 
+                        (com.immunizationdb.auth.entity.User) auth.getPrincipal();
+                    facilityId = user.getFacilityId();
+                }
+            } catch (Exception e) {
+                log.warn("Could not get facility ID from authenticated user", e);
+            }
+        }
+        return facilityId;
+    }
+}
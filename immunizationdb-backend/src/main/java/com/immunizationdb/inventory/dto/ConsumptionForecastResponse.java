@@ -0,0 +1,25 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionForecastResponse {
+    private String facilityId;
+    private String vaccineKey;
+    private String vaccineName;
+    private Double dailyRate; // Smoothed doses per day
+    private Integer stockOnHand;
+    private Double daysOfStock; // null when there is no recent usage
+    private LocalDate projectedStockoutDate;
+    private LocalDate lastReceivedDate;
+    private LocalDate expectedDeliveryDate;
+    private boolean atRisk; // Projected to run out before the next delivery
+}
@@ -0,0 +1,18 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryStatsResponse {
+    private String facilityId; // Null for national totals
+    private Long totalVaccineTypes;
+    private Long totalDoses;
+    private Long lowStockItems;
+    private Long expiringSoon;
+}
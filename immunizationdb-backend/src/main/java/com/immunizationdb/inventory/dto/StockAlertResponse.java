@@ -0,0 +1,23 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertResponse {
+    private Long id;
+    private String facilityId;
+    private Long batchId;
+    private String vaccineName;
+    private String alertType; // LOW_STOCK, EXPIRING_SOON, EXPIRED
+    private String severity; // MEDIUM, HIGH, CRITICAL
+    private String message;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Doses taken from one batch by a bulk stock reservation
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAllocation {
+    private Long batchId;
+    private String batchNumber;
+    private Integer quantity;
+}
@@ -0,0 +1,25 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerEntry {
+    private Long id;
+    private LocalDateTime createdAt;
+    private String movementType;
+    private String vaccineName;
+    private String batchNumber;
+    private Integer quantity;
+    private Integer change; // Signed effect on stock
+    private Long balance; // Running balance after this movement
+    private String reason;
+    private Long createdBy;
+}
@@ -0,0 +1,22 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerPage {
+    private String facilityId;
+    private String vaccineName;
+    private String batchNumber;
+    private Long openingBalance; // Balance before the first entry of this page
+    private List<StockLedgerEntry> entries;
+    private String nextCursor; // Pass back as ?cursor= for the next page; null on the last page
+    private boolean hasMore;
+}
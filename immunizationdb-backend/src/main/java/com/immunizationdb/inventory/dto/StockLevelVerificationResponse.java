@@ -0,0 +1,34 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelVerificationResponse {
+    private LocalDateTime checkedAt;
+    private boolean consistent;
+    private boolean rebuilt;
+    private List<Mismatch> mismatches;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        private String facilityId;
+        private String vaccineKey;
+        private Integer projectedQuantity; // null when the projection has no row
+        private Integer actualQuantity; // null when no usable batch exists
+        private LocalDate projectedExpiry;
+        private LocalDate actualExpiry;
+    }
+}
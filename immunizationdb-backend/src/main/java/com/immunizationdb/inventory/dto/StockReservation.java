@@ -0,0 +1,20 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Doses of one vaccine wanted at one facility by a bulk stock reservation
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+    private String facilityId;
+    private String vaccineName;
+    private Long batchId; // Batch to draw from, or null to allocate across batches by earliest expiry (FEFO)
+    private Integer quantity;
+}
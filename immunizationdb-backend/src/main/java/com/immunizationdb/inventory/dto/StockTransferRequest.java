@@ -0,0 +1,51 @@
+package com.immunizationdb.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Move doses of one or more batches from a source facility to other facilities in one transaction
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransferRequest {
+
+    // Only honoured for government officials; everyone else transfers from their own facility
+    private String sourceFacilityId;
+
+    @NotEmpty(message = "At least one transfer item is required")
+    @Size(max = 500, message = "At most 500 items can be transferred in one request")
+    @Valid
+    private List<Item> items;
+
+    private String notes;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotBlank(message = "Batch number is required")
+        private String batchNumber;
+
+        @NotBlank(message = "Destination facility ID is required")
+        private String destinationFacilityId;
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be positive")
+        private Integer quantity;
+    }
+}
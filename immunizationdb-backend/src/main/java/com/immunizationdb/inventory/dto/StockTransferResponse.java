@@ -0,0 +1,35 @@
+package com.immunizationdb.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransferResponse {
+    private String transferId; // Shared by every TRANSFER_OUT/TRANSFER_IN movement of the transfer
+    private String sourceFacilityId;
+    private Integer totalQuantity;
+    private List<Line> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private String batchNumber;
+        private String vaccineName;
+        private String destinationFacilityId;
+        private Integer quantity;
+        private Long sourceBatchId;
+        private Integer sourceRemaining;
+        private Long destinationBatchId;
+        private Integer destinationRemaining;
+        private boolean destinationBatchCreated;
+    }
+}
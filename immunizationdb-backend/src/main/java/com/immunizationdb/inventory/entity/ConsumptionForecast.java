@@ -0,0 +1,70 @@
+package com.immunizationdb.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Smoothed daily consumption of one vaccine at one facility, maintained by ConsumptionForecastService.
+ * dailyRate covers the completed days before currentDay; currentDayDoses is still being counted.
+ */
+@Entity
+@Table(name = "consumption_forecasts", indexes = {
+    @Index(name = "idx_consumption_forecast_at_risk", columnList = "at_risk")
+})
+@IdClass(ConsumptionForecastId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionForecast {
+
+    @Id
+    @Column(name = "facility_id", nullable = false, length = 50)
+    private String facilityId;
+
+    // Normalized vaccine name, see VaccineBatch.toVaccineKey
+    @Id
+    @Column(name = "vaccine_key", nullable = false, length = 100)
+    private String vaccineKey;
+
+    @Column(name = "vaccine_name", nullable = false, length = 100)
+    private String vaccineName;
+
+    @Column(name = "daily_rate", nullable = false)
+    private Double dailyRate;
+
+    @Column(name = "current_day", nullable = false)
+    private LocalDate currentDay;
+
+    @Column(name = "current_day_doses", nullable = false)
+    private Integer currentDayDoses;
+
+    @Column(name = "last_received_date")
+    private LocalDate lastReceivedDate;
+
+    // Smoothed days between deliveries; null until a second delivery has been seen
+    @Column(name = "resupply_interval_days")
+    private Double resupplyIntervalDays;
+
+    // Written by the nightly stock-out check
+    @Column(name = "projected_stockout_date")
+    private LocalDate projectedStockoutDate;
+
+    @Column(name = "expected_delivery_date")
+    private LocalDate expectedDeliveryDate;
+
+    @Column(name = "at_risk", nullable = false)
+    private Boolean atRisk;
+
+    @Column(name = "evaluated_at")
+    private LocalDateTime evaluatedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,77 @@
+package com.immunizationdb.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Batch alert raised and resolved by StockAlertService.
+ * At most one open alert exists per (batch, type, severity); see uq_stock_alert_open in V16.
+ */
+@Entity
+@Table(name = "stock_alerts", indexes = {
+    @Index(name = "idx_stock_alerts_facility", columnList = "facility_id"),
+    @Index(name = "idx_stock_alerts_resolved", columnList = "is_resolved"),
+    @Index(name = "idx_stock_alerts_created", columnList = "created_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "facility_id", nullable = false, length = 50)
+    private String facilityId;
+
+    @Column(name = "batch_id")
+    private Long batchId;
+
+    @Column(name = "vaccine_name", length = 100)
+    private String vaccineName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_type", nullable = false, length = 50)
+    private AlertType alertType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "severity", nullable = false, length = 20)
+    private Severity severity;
+
+    @Column(name = "message", nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "is_resolved", nullable = false)
+    private Boolean resolved;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    // Null when resolved automatically
+    @Column(name = "resolved_by")
+    private Long resolvedBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum AlertType {
+        LOW_STOCK,
+        EXPIRING_SOON,
+        EXPIRED,
+        OUT_OF_STOCK
+    }
+
+    public enum Severity {
+        LOW,
+        MEDIUM,
+        HIGH,
+        CRITICAL
+    }
+}
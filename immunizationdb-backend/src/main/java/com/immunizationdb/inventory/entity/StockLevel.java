@@ -0,0 +1,59 @@
+package com.immunizationdb.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Usable stock of one vaccine at one facility: batches that still hold doses and have not expired.
+ * Maintained by StockLevelService in the same transaction as every stock write, so stock screens read one row per vaccine.
+ */
+@Entity
+@Table(name = "stock_levels", indexes = {
+    @Index(name = "idx_stock_level_earliest_expiry", columnList = "earliest_expiry")
+})
+@IdClass(StockLevelId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevel {
+
+    @Id
+    @Column(name = "facility_id", nullable = false, length = 50)
+    private String facilityId;
+
+    // Normalized vaccine name, see VaccineBatch.toVaccineKey
+    @Id
+    @Column(name = "vaccine_key", nullable = false, length = 100)
+    private String vaccineKey;
+
+    @Column(name = "vaccine_name", nullable = false, length = 100)
+    private String vaccineName;
+
+    @Column(name = "total_quantity", nullable = false)
+    private Integer totalQuantity;
+
+    @Column(name = "earliest_expiry")
+    private LocalDate earliestExpiry;
+
+    @Column(name = "batch_count", nullable = false)
+    private Integer batchCount;
+
+    @Column(name = "status", nullable = false, length = 10)
+    private String status; // "GOOD", "LOW", "CRITICAL"
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,15 @@
+package com.immunizationdb.inventory.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelId implements Serializable {
+    private String facilityId;
+    private String vaccineKey;
+}
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
     @Index(name = "idx_stock_movement_vaccine", columnList = "vaccine_id"),
     @Index(name = "idx_stock_movement_batch", columnList = "batch_number"),
     @Index(name = "idx_stock_movement_type", columnList = "movement_type"),
-    @Index(name = "idx_stock_movement_created_at", columnList = "created_at")
+    @Index(name = "idx_stock_movement_created_at", columnList = "created_at"),
+    @Index(name = "idx_stock_movement_ledger_batch", columnList = "facility_id, batch_number, created_at, id")
 })
 @Data
 @Builder
@@ -23,7 +24,8 @@ import java.time.LocalDateTime;
 public class StockMovement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "facility_id", nullable = false, length = 50)
@@ -39,12 +41,17 @@ public class StockMovement {
     @Column(name = "movement_type", nullable = false, length = 20)
     private MovementType movementType;
 
+    // Always positive, except ADJUSTED which is signed (negative for a downward correction)
     @Column(nullable = false)
     private Integer quantity;
 
     @Column(columnDefinition = "TEXT")
     private String reason;
 
+    // Pairs the TRANSFER_OUT and TRANSFER_IN movements of an inter-facility transfer
+    @Column(name = "transfer_id", length = 36)
+    private String transferId;
+
     @Column(name = "created_by", nullable = false)
     private Long createdBy;
 
@@ -59,7 +66,7 @@ public class StockMovement {
     }
 
     public enum MovementType {
-        RECEIVED, USED, ADJUSTED, DAMAGED, EXPIRED
+        RECEIVED, USED, ADJUSTED, DAMAGED, EXPIRED, TRANSFER_OUT, TRANSFER_IN
     }
 }
 
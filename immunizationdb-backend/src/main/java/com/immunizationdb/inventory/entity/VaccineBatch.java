@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
 @Table(name = "vaccine_batches", 
@@ -24,7 +25,8 @@ import java.time.LocalDateTime;
 public class VaccineBatch {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vaccine_batches_seq")
+    @SequenceGenerator(name = "vaccine_batches_seq", sequenceName = "vaccine_batches_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "batch_number", nullable = false, length = 50)
@@ -33,6 +35,10 @@ public class VaccineBatch {
     @Column(name = "vaccine_name", nullable = false, length = 100)
     private String vaccineName;
 
+    // Normalized vaccine name used for batch lookups, kept in step with vaccineName
+    @Column(name = "vaccine_key", length = 100)
+    private String vaccineKey;
+
     @Column(nullable = false, length = 100)
     private String manufacturer;
 
@@ -60,6 +66,16 @@ public class VaccineBatch {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        vaccineKey = toVaccineKey(vaccineName);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        vaccineKey = toVaccineKey(vaccineName);
+    }
+
+    public static String toVaccineKey(String vaccineName) {
+        return vaccineName == null ? null : vaccineName.trim().toLowerCase(Locale.ROOT);
     }
 
     public boolean isExpired() {
@@ -0,0 +1,128 @@
+package com.immunizationdb.inventory.repository;
+
+import com.immunizationdb.inventory.entity.ConsumptionForecast;
+import com.immunizationdb.inventory.entity.ConsumptionForecastId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConsumptionForecastRepository extends JpaRepository<ConsumptionForecast, ConsumptionForecastId> {
+
+    /**
+     * Add doses used on :day to the smoothed rate in O(1).
+     * A later day first folds the day being counted into the rate and decays it over any days without usage.
+     * An earlier day (a delayed flush) adds its exact contribution, since the average is linear in the daily counts.
+     * Shared with the JDBC batch flush in ConsumptionForecastService, which binds the same named parameters.
+     */
+    String RECORD_USAGE_SQL = "INSERT INTO consumption_forecasts AS c " +
+           "(facility_id, vaccine_key, vaccine_name, daily_rate, current_day, current_day_doses, at_risk, updated_at) " +
+           "VALUES (:facilityId, :vaccineKey, :vaccineName, 0, CAST(:day AS DATE), :doses, false, CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (facility_id, vaccine_key) DO UPDATE SET " +
+           "daily_rate = CASE " +
+           "WHEN EXCLUDED.current_day > c.current_day THEN (:alpha * c.current_day_doses + (1 - :alpha) * c.daily_rate) " +
+           "* POWER(1 - :alpha, EXCLUDED.current_day - c.current_day - 1) " +
+           "WHEN EXCLUDED.current_day < c.current_day THEN c.daily_rate + :alpha * EXCLUDED.current_day_doses " +
+           "* POWER(1 - :alpha, c.current_day - EXCLUDED.current_day - 1) " +
+           "ELSE c.daily_rate END, " +
+           "current_day_doses = CASE WHEN EXCLUDED.current_day > c.current_day THEN EXCLUDED.current_day_doses " +
+           "WHEN EXCLUDED.current_day = c.current_day THEN c.current_day_doses + EXCLUDED.current_day_doses " +
+           "ELSE c.current_day_doses END, " +
+           "current_day = GREATEST(c.current_day, EXCLUDED.current_day), " +
+           "updated_at = CURRENT_TIMESTAMP";
+
+    /**
+     * Result of the nightly stock-out check; leaves the usage columns alone so it cannot undo a concurrent flush
+     */
+    String MARK_EVALUATED_SQL = "UPDATE consumption_forecasts SET projected_stockout_date = :stockoutDate, " +
+           "expected_delivery_date = :deliveryDate, at_risk = :atRisk, evaluated_at = CURRENT_TIMESTAMP " +
+           "WHERE facility_id = :facilityId AND vaccine_key = :vaccineKey";
+
+    List<ConsumptionForecast> findByFacilityIdOrderByVaccineName(String facilityId);
+
+    List<ConsumptionForecast> findByAtRiskTrueOrderByProjectedStockoutDateAsc();
+
+    /**
+     * Record a delivery and smooth the interval since the previous one; repeat deliveries on the same day are ignored
+     */
+    @Modifying
+    @Query(value = "INSERT INTO consumption_forecasts AS c " +
+           "(facility_id, vaccine_key, vaccine_name, daily_rate, current_day, current_day_doses, last_received_date, " +
+           "at_risk, updated_at) " +
+           "VALUES (:facilityId, :vaccineKey, :vaccineName, 0, CAST(:today AS DATE), 0, CAST(:receivedDate AS DATE), " +
+           "false, CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (facility_id, vaccine_key) DO UPDATE SET " +
+           "resupply_interval_days = CASE " +
+           "WHEN c.last_received_date IS NULL OR EXCLUDED.last_received_date <= c.last_received_date " +
+           "THEN c.resupply_interval_days " +
+           "WHEN c.resupply_interval_days IS NULL THEN EXCLUDED.last_received_date - c.last_received_date " +
+           "ELSE :alpha * (EXCLUDED.last_received_date - c.last_received_date) + (1 - :alpha) * c.resupply_interval_days " +
+           "END, " +
+           "last_received_date = GREATEST(c.last_received_date, EXCLUDED.last_received_date), " +
+           "updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    void recordReceipt(
+        @Param("facilityId") String facilityId,
+        @Param("vaccineKey") String vaccineKey,
+        @Param("vaccineName") String vaccineName,
+        @Param("receivedDate") LocalDate receivedDate,
+        @Param("today") LocalDate today,
+        @Param("alpha") double alpha
+    );
+
+    /**
+     * Seed rates from USED movements since :since in one pass: each day's doses weighted as the incremental
+     * updates would have weighted them, with :today left as the day being counted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO consumption_forecasts " +
+           "(facility_id, vaccine_key, vaccine_name, daily_rate, current_day, current_day_doses, at_risk, updated_at) " +
+           "SELECT facility_id, vaccine_key, MIN(vaccine_name), " +
+           "COALESCE(SUM(CASE WHEN day < CAST(:today AS DATE) " +
+           "THEN :alpha * doses * POWER(1 - :alpha, CAST(:today AS DATE) - day - 1) END), 0), " +
+           "CAST(:today AS DATE), COALESCE(SUM(CASE WHEN day = CAST(:today AS DATE) THEN doses END), 0), " +
+           "false, CURRENT_TIMESTAMP " +
+           "FROM (SELECT facility_id, LOWER(TRIM(vaccine_id)) AS vaccine_key, MIN(TRIM(vaccine_id)) AS vaccine_name, " +
+           "CAST(created_at AS DATE) AS day, SUM(quantity) AS doses FROM stock_movements " +
+           "WHERE movement_type = 'USED' AND created_at >= :since " +
+           "GROUP BY facility_id, LOWER(TRIM(vaccine_id)), CAST(created_at AS DATE)) d " +
+           "GROUP BY facility_id, vaccine_key " +
+           "ON CONFLICT (facility_id, vaccine_key) DO NOTHING",
+           nativeQuery = true)
+    int backfillUsage(
+        @Param("today") LocalDate today,
+        @Param("since") LocalDateTime since,
+        @Param("alpha") double alpha
+    );
+
+    /**
+     * Seed delivery dates and the average interval between delivery days from RECEIVED and TRANSFER_IN movements
+     * since :since
+     */
+    @Modifying
+    @Query(value = "INSERT INTO consumption_forecasts AS c " +
+           "(facility_id, vaccine_key, vaccine_name, daily_rate, current_day, current_day_doses, last_received_date, " +
+           "resupply_interval_days, at_risk, updated_at) " +
+           "SELECT facility_id, LOWER(TRIM(vaccine_id)), MIN(TRIM(vaccine_id)), 0, CAST(:today AS DATE), 0, " +
+           "MAX(CAST(created_at AS DATE)), " +
+           "CASE WHEN COUNT(DISTINCT CAST(created_at AS DATE)) > 1 " +
+           "THEN CAST(MAX(CAST(created_at AS DATE)) - MIN(CAST(created_at AS DATE)) AS DOUBLE PRECISION) " +
+           "/ (COUNT(DISTINCT CAST(created_at AS DATE)) - 1) END, " +
+           "false, CURRENT_TIMESTAMP " +
+           "FROM stock_movements WHERE movement_type IN ('RECEIVED', 'TRANSFER_IN') AND created_at >= :since " +
+           "GROUP BY facility_id, LOWER(TRIM(vaccine_id)) " +
+           "ON CONFLICT (facility_id, vaccine_key) DO UPDATE SET " +
+           "last_received_date = EXCLUDED.last_received_date, " +
+           "resupply_interval_days = EXCLUDED.resupply_interval_days",
+           nativeQuery = true)
+    int backfillReceipts(
+        @Param("today") LocalDate today,
+        @Param("since") LocalDateTime since
+    );
+}
@@ -0,0 +1,24 @@
+package com.immunizationdb.inventory.repository;
+
+import com.immunizationdb.inventory.entity.StockAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockAlertRepository extends JpaRepository<StockAlert, Long> {
+
+    @Query("SELECT a FROM StockAlert a WHERE a.facilityId = :facilityId AND a.resolved = false " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<StockAlert> findOpenByFacility(@Param("facilityId") String facilityId);
+
+    @Modifying
+    @Query(value = "UPDATE stock_alerts SET is_resolved = true, resolved_at = CURRENT_TIMESTAMP " +
+           "WHERE batch_id = :batchId AND is_resolved = false",
+           nativeQuery = true)
+    int resolveOpenForBatch(@Param("batchId") Long batchId);
+}
@@ -0,0 +1,100 @@
+package com.immunizationdb.inventory.repository;
+
+import com.immunizationdb.inventory.entity.StockLevel;
+import com.immunizationdb.inventory.entity.StockLevelId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StockLevelRepository extends JpaRepository<StockLevel, StockLevelId> {
+
+    // Stock status thresholds: >50 = GOOD, 10-50 = LOW, <10 = CRITICAL
+    String STATUS_CASE = "CASE WHEN a.total_quantity > 50 THEN 'GOOD' " +
+            "WHEN a.total_quantity >= 10 THEN 'LOW' ELSE 'CRITICAL' END";
+
+    String LIVE_BATCHES = "quantity_remaining > 0 AND expiry_date >= :today";
+
+    @Query("SELECT s FROM StockLevel s WHERE s.facilityId = :facilityId AND s.totalQuantity > 0 " +
+           "ORDER BY LOWER(s.vaccineName)")
+    List<StockLevel> findInStockByFacility(@Param("facilityId") String facilityId);
+
+    @Query("SELECT s FROM StockLevel s WHERE s.earliestExpiry < :today")
+    List<StockLevel> findWithExpiredStock(@Param("today") LocalDate today);
+
+    /**
+     * Create the projection row if needed and lock it.
+     * Must run as its own statement before {@link #recompute} so the recompute snapshot is taken after the lock
+     * is held and sees every committed change from writers that held it before us.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO stock_levels " +
+           "(facility_id, vaccine_key, vaccine_name, total_quantity, batch_count, status, updated_at) " +
+           "VALUES (:facilityId, :vaccineKey, :vaccineName, 0, 0, 'CRITICAL', CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (facility_id, vaccine_key) DO UPDATE SET updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    void lockRow(
+        @Param("facilityId") String facilityId,
+        @Param("vaccineKey") String vaccineKey,
+        @Param("vaccineName") String vaccineName
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE stock_levels s SET " +
+           "vaccine_name = COALESCE(a.vaccine_name, s.vaccine_name), " +
+           "total_quantity = a.total_quantity, " +
+           "earliest_expiry = a.earliest_expiry, " +
+           "batch_count = a.batch_count, " +
+           "status = " + STATUS_CASE + ", " +
+           "updated_at = CURRENT_TIMESTAMP " +
+           "FROM (SELECT MIN(vaccine_name) AS vaccine_name, " +
+           "COALESCE(SUM(quantity_remaining), 0) AS total_quantity, " +
+           "MIN(expiry_date) AS earliest_expiry, COUNT(*) AS batch_count " +
+           "FROM vaccine_batches " +
+           "WHERE facility_id = :facilityId AND vaccine_key = :vaccineKey AND " + LIVE_BATCHES + ") a " +
+           "WHERE s.facility_id = :facilityId AND s.vaccine_key = :vaccineKey",
+           nativeQuery = true)
+    int recompute(
+        @Param("facilityId") String facilityId,
+        @Param("vaccineKey") String vaccineKey,
+        @Param("today") LocalDate today
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM stock_levels", nativeQuery = true)
+    void deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO stock_levels " +
+           "(facility_id, vaccine_key, vaccine_name, total_quantity, earliest_expiry, batch_count, status, updated_at) " +
+           "SELECT a.facility_id, a.vaccine_key, a.vaccine_name, a.total_quantity, a.earliest_expiry, a.batch_count, " +
+           STATUS_CASE + ", CURRENT_TIMESTAMP " +
+           "FROM (SELECT facility_id, vaccine_key, MIN(vaccine_name) AS vaccine_name, " +
+           "SUM(quantity_remaining) AS total_quantity, MIN(expiry_date) AS earliest_expiry, COUNT(*) AS batch_count " +
+           "FROM vaccine_batches WHERE vaccine_key IS NOT NULL AND " + LIVE_BATCHES + " " +
+           "GROUP BY facility_id, vaccine_key) a",
+           nativeQuery = true)
+    int rebuildFromBatches(@Param("today") LocalDate today);
+
+    /**
+     * Projection rows that disagree with the batches, as
+     * [facility_id, vaccine_key, projected_quantity, actual_quantity, projected_expiry, actual_expiry]
+     */
+    @Query(value = "SELECT COALESCE(s.facility_id, a.facility_id), COALESCE(s.vaccine_key, a.vaccine_key), " +
+           "s.total_quantity, a.total_quantity, s.earliest_expiry, a.earliest_expiry " +
+           "FROM (SELECT * FROM stock_levels WHERE total_quantity > 0) s " +
+           "FULL OUTER JOIN (SELECT facility_id, vaccine_key, SUM(quantity_remaining) AS total_quantity, " +
+           "MIN(expiry_date) AS earliest_expiry FROM vaccine_batches " +
+           "WHERE vaccine_key IS NOT NULL AND " + LIVE_BATCHES + " GROUP BY facility_id, vaccine_key) a " +
+           "ON s.facility_id = a.facility_id AND s.vaccine_key = a.vaccine_key " +
+           "WHERE s.total_quantity IS DISTINCT FROM a.total_quantity " +
+           "OR s.earliest_expiry IS DISTINCT FROM a.earliest_expiry " +
+           "ORDER BY 1, 2",
+           nativeQuery = true)
+    List<Object[]> findMismatches(@Param("today") LocalDate today);
+}
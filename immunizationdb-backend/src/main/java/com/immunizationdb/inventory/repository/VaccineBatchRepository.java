@@ -1,12 +1,16 @@
 package com.immunizationdb.inventory.repository;
 
 import com.immunizationdb.inventory.entity.VaccineBatch;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,15 +29,108 @@ public interface VaccineBatchRepository extends JpaRepository<VaccineBatch, Long
         @Param("currentDate") LocalDate currentDate
     );
 
+    @Query("SELECT COUNT(vb) FROM VaccineBatch vb WHERE vb.facilityId = :facilityId " +
+           "AND vb.quantityRemaining > 0 AND vb.expiryDate > :currentDate")
+    Long countAvailableBatches(
+        @Param("facilityId") String facilityId,
+        @Param("currentDate") LocalDate currentDate
+    );
+
+    @Query("SELECT COUNT(vb) FROM VaccineBatch vb WHERE vb.facilityId = :facilityId " +
+           "AND vb.expiryDate BETWEEN :startDate AND :endDate " +
+           "AND vb.quantityRemaining > 0")
+    Long countBatchesExpiringSoon(
+        @Param("facilityId") String facilityId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT vb.facilityId, COUNT(vb) FROM VaccineBatch vb WHERE vb.facilityId IN :facilityIds " +
+           "AND vb.quantityRemaining > 0 AND vb.expiryDate > :currentDate " +
+           "GROUP BY vb.facilityId")
+    List<Object[]> countAvailableBatchesByFacilityIds(
+        @Param("facilityIds") Collection<String> facilityIds,
+        @Param("currentDate") LocalDate currentDate
+    );
+
     @Query("SELECT vb FROM VaccineBatch vb WHERE vb.facilityId = :facilityId " +
-           "AND LOWER(TRIM(vb.vaccineName)) = LOWER(TRIM(:vaccineName)) AND vb.quantityRemaining > 0 " +
-           "AND vb.expiryDate > :currentDate ORDER BY vb.expiryDate ASC")
+           "AND vb.vaccineKey = :vaccineKey AND vb.quantityRemaining > 0 " +
+           "AND vb.expiryDate > :currentDate ORDER BY vb.expiryDate ASC, vb.id ASC")
     List<VaccineBatch> findAvailableBatchesByVaccine(
         @Param("facilityId") String facilityId,
-        @Param("vaccineName") String vaccineName,
+        @Param("vaccineKey") String vaccineKey,
         @Param("currentDate") LocalDate currentDate
     );
 
+    /**
+     * Lock the first-expiring batch with enough doses that no other transaction is holding.
+     * Concurrent sessions skip each other's locked rows instead of queueing on one batch.
+     * The literal quantity_remaining > 0 lets the planner use the partial idx_batch_claim index.
+     */
+    @Query(value = "SELECT * FROM vaccine_batches " +
+           "WHERE facility_id = :facilityId AND vaccine_key = :vaccineKey " +
+           "AND quantity_remaining > 0 AND quantity_remaining >= :quantity " +
+           "AND expiry_date > :currentDate " +
+           "ORDER BY expiry_date ASC, id ASC " +
+           "LIMIT 1 FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<VaccineBatch> claimNextBatch(
+        @Param("facilityId") String facilityId,
+        @Param("vaccineKey") String vaccineKey,
+        @Param("quantity") Integer quantity,
+        @Param("currentDate") LocalDate currentDate
+    );
+
+    /**
+     * Lock every batch that can serve any of the vaccines at any of the facilities, in id order, as
+     * [id, facility_id, vaccine_key, batch_number, quantity_remaining, expiry_date].
+     * Rows are locked in id order, like {@link #lockBatches}, and in one statement, so a bulk reservation holds all
+     * its batches before it deducts anything and cannot deadlock with a transfer.
+     * May also lock batches of a (facility, vaccine) pair the caller does not need.
+     */
+    @Query(value = "SELECT id, facility_id, vaccine_key, batch_number, quantity_remaining, expiry_date " +
+           "FROM vaccine_batches WHERE facility_id IN (:facilityIds) AND vaccine_key IN (:vaccineKeys) " +
+           "AND quantity_remaining > 0 AND expiry_date > :currentDate ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> lockReservableBatches(
+        @Param("facilityIds") Collection<String> facilityIds,
+        @Param("vaccineKeys") Collection<String> vaccineKeys,
+        @Param("currentDate") LocalDate currentDate
+    );
+
+    /**
+     * Lock the batches with any of the given numbers at any of the given facilities, in id order.
+     * Every multi-batch lock takes rows in id order, so concurrent transfers touching overlapping batches queue
+     * behind each other instead of deadlocking. May also lock a same-numbered batch the caller does not need.
+     */
+    @Query(value = "SELECT * FROM vaccine_batches " +
+           "WHERE facility_id IN (:facilityIds) AND batch_number IN (:batchNumbers) ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<VaccineBatch> lockBatches(
+        @Param("facilityIds") Collection<String> facilityIds,
+        @Param("batchNumbers") Collection<String> batchNumbers
+    );
+
+    /**
+     * Atomically take doses from a batch; the row lock serialises concurrent deductions
+     * and the guard re-checks availability after any competing update commits.
+     * A managed VaccineBatch for the row keeps its old quantity; callers detach or refresh it if they hold one.
+     * @return 1 if the doses were taken, 0 if the batch no longer has enough
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE VaccineBatch vb SET vb.quantityRemaining = vb.quantityRemaining - :quantity " +
+           "WHERE vb.id = :batchId AND vb.quantityRemaining >= :quantity")
+    int deductIfAvailable(
+        @Param("batchId") Long batchId,
+        @Param("quantity") Integer quantity
+    );
+
+    @Query("SELECT vb.quantityRemaining FROM VaccineBatch vb WHERE vb.id = :batchId")
+    Integer findQuantityRemaining(@Param("batchId") Long batchId);
+
+    @Query("SELECT vb.id, vb.batchNumber FROM VaccineBatch vb WHERE vb.id IN :ids")
+    List<Object[]> findBatchNumbersByIds(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT vb FROM VaccineBatch vb WHERE vb.facilityId = :facilityId " +
            "AND vb.expiryDate BETWEEN :startDate AND :endDate " +
            "AND vb.quantityRemaining > 0")
@@ -61,4 +158,29 @@ public interface VaccineBatchRepository extends JpaRepository<VaccineBatch, Long
 
     @Query("SELECT DISTINCT vb.vaccineName FROM VaccineBatch vb WHERE vb.facilityId = :facilityId")
     List<String> findDistinctVaccineNames(@Param("facilityId") String facilityId);
+
+    /**
+     * Inventory dashboard counters in one pass, for one facility or nationally when facilityId is null, as
+     * [distinct vaccine names, doses remaining, batches below the low stock threshold, batches expiring before cutoff]
+     */
+    @Query("SELECT COUNT(DISTINCT vb.vaccineName), COALESCE(SUM(vb.quantityRemaining), 0), " +
+           "COALESCE(SUM(CASE WHEN vb.quantityRemaining < :lowStockThreshold THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN vb.expiryDate > :today AND vb.expiryDate < :cutoff THEN 1 ELSE 0 END), 0) " +
+           "FROM VaccineBatch vb WHERE (:facilityId IS NULL OR vb.facilityId = :facilityId)")
+    List<Object[]> aggregateDashboardStats(
+        @Param("facilityId") String facilityId,
+        @Param("lowStockThreshold") int lowStockThreshold,
+        @Param("today") LocalDate today,
+        @Param("cutoff") LocalDate cutoff
+    );
+
+    @Query(value = "SELECT vb FROM VaccineBatch vb WHERE (:facilityId IS NULL OR vb.facilityId = :facilityId) " +
+           "AND vb.quantityRemaining < :threshold ORDER BY vb.quantityRemaining ASC, vb.id ASC",
+           countQuery = "SELECT COUNT(vb) FROM VaccineBatch vb WHERE (:facilityId IS NULL OR vb.facilityId = :facilityId) " +
+           "AND vb.quantityRemaining < :threshold")
+    Page<VaccineBatch> findLowStock(
+        @Param("facilityId") String facilityId,
+        @Param("threshold") int threshold,
+        Pageable pageable
+    );
 }
@@ -0,0 +1,57 @@
+package com.immunizationdb.inventory.scheduler;
+
+import com.immunizationdb.inventory.service.ConsumptionForecastService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConsumptionForecastScheduler {
+
+    private final ConsumptionForecastService consumptionForecastService;
+
+    /**
+     * Seed consumption forecasts from recent stock movements on startup when the table is empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (consumptionForecastService.isEmpty()) {
+                consumptionForecastService.backfill();
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill consumption forecasts", e);
+        }
+    }
+
+    /**
+     * Write the usage counted since the last flush into the smoothed rates
+     */
+    @Scheduled(fixedDelayString = "${inventory.forecast.flush-interval-ms:30000}")
+    public void flushUsage() {
+        try {
+            consumptionForecastService.flush();
+        } catch (Exception e) {
+            log.error("Consumption forecast flush failed, counters kept for the next run", e);
+        }
+    }
+
+    /**
+     * Scheduled job runs daily at 3:30 AM
+     * Flags vaccines projected to run out before their next expected delivery
+     */
+    @Scheduled(cron = "0 30 3 * * ?") // Every day at 3:30 AM
+    public void checkStockoutRisk() {
+        log.info("Starting daily stock-out risk check...");
+        try {
+            consumptionForecastService.evaluateStockoutRisk();
+        } catch (Exception e) {
+            log.error("Daily stock-out risk check failed", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.immunizationdb.inventory.scheduler;
+
+import com.immunizationdb.inventory.service.StockAlertService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockAlertScheduler {
+
+    private final StockAlertService stockAlertService;
+
+    /**
+     * Bring stock_alerts up to date and seed the expiry queue on startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            stockAlertService.synchronizeAll();
+        } catch (Exception e) {
+            log.error("Failed to seed stock alerts", e);
+        }
+    }
+
+    /**
+     * Raise the alerts of batches whose expiry threshold has been reached; a no-op until one is due
+     */
+    @Scheduled(fixedDelayString = "${inventory.alerts.poll-interval-ms:60000}", initialDelay = 60000)
+    public void processDueThresholds() {
+        try {
+            stockAlertService.processDue();
+        } catch (Exception e) {
+            log.error("Stock alert expiry processing failed", e);
+        }
+    }
+
+    /**
+     * Scheduled job runs daily at 3:20 AM
+     * Full reconciliation in case a queue update was lost, e.g. to a concurrent write or a failed poll
+     */
+    @Scheduled(cron = "0 20 3 * * ?") // Every day at 3:20 AM
+    public void synchronizeAlerts() {
+        log.info("Starting daily stock alert reconciliation job...");
+        try {
+            stockAlertService.synchronizeAll();
+        } catch (Exception e) {
+            log.error("Daily stock alert reconciliation job failed", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.immunizationdb.inventory.scheduler;
+
+import com.immunizationdb.inventory.repository.VaccineBatchRepository;
+import com.immunizationdb.inventory.service.StockLevelService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockLevelScheduler {
+
+    private final StockLevelService stockLevelService;
+    private final VaccineBatchRepository vaccineBatchRepository;
+
+    /**
+     * Backfill stock levels on startup when the projection is empty but batches exist
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (stockLevelService.isEmpty() && vaccineBatchRepository.count() > 0) {
+                log.info("Stock levels are empty, backfilling from vaccine batches");
+                stockLevelService.rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill stock levels", e);
+        }
+    }
+
+    /**
+     * Refresh the stock levels of vaccines whose doses were used since the last flush
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock-levels.flush-interval-ms:2000}")
+    public void flushUsedStock() {
+        try {
+            stockLevelService.flush();
+        } catch (Exception e) {
+            log.error("Stock level flush failed, rows kept for the next run", e);
+        }
+    }
+
+    /**
+     * Scheduled job runs every hour at minute 5
+     * Batches expire with the date rather than with a write, so rows holding an expired batch are refreshed
+     */
+    @Scheduled(cron = "0 5 * * * ?") // Every hour at :05
+    public void refreshExpiredStock() {
+        try {
+            stockLevelService.refreshExpired();
+        } catch (Exception e) {
+            log.error("Stock level expiry refresh failed", e);
+        }
+    }
+
+    /**
+     * Scheduled job runs daily at 3:15 AM
+     * Verifies the projection against vaccine_batches and rebuilds it if anything has drifted
+     */
+    @Scheduled(cron = "0 15 3 * * ?") // Every day at 3:15 AM
+    public void verifyStockLevels() {
+        log.info("Starting daily stock level verification job...");
+        try {
+            stockLevelService.verify(true);
+        } catch (Exception e) {
+            log.error("Daily stock level verification job failed", e);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.immunizationdb.inventory.service;
+
+import com.immunizationdb.config.TransactionHooks;
+import com.immunizationdb.inventory.dto.ConsumptionForecastResponse;
+import com.immunizationdb.inventory.entity.ConsumptionForecast;
+import com.immunizationdb.inventory.entity.StockLevel;
+import com.immunizationdb.inventory.entity.StockLevelId;
+import com.immunizationdb.inventory.entity.VaccineBatch;
+import com.immunizationdb.inventory.repository.ConsumptionForecastRepository;
+import com.immunizationdb.inventory.repository.StockLevelRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Days-of-stock forecasting from an exponentially weighted daily consumption rate per facility and vaccine.
+ * Committed USED movements are counted in memory per (facility, vaccine, day) - O(1) per movement - and flushed
+ * periodically as one upsert per counter, which folds them into the stored rate without reading any history.
+ * Because the rate is linear in the daily counts, flushes from several instances add up to the same result.
+ * Deliveries update the smoothed resupply interval directly, inside the receiving transaction.
+ */
+@Service
+@Slf4j
+public class ConsumptionForecastService {
+
+    private static final int BACKFILL_DAYS = 180;
+
+    private final ConsumptionForecastRepository forecastRepository;
+    private final StockLevelRepository stockLevelRepository;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<UsageKey, Integer> pendingUsage = new ConcurrentHashMap<>();
+
+    // Weight of the newest day; 0.1 gives a half-life of about a week
+    @Value("${inventory.forecast.smoothing-factor:0.1}")
+    private double smoothingFactor;
+
+    // Deliveries are rare, so the interval average reacts faster
+    @Value("${inventory.forecast.resupply-smoothing-factor:0.3}")
+    private double resupplySmoothingFactor;
+
+    // Assumed delivery cycle until a facility has received a vaccine twice
+    @Value("${inventory.forecast.default-resupply-days:30}")
+    private int defaultResupplyDays;
+
+    public ConsumptionForecastService(ConsumptionForecastRepository forecastRepository,
+                                      StockLevelRepository stockLevelRepository,
+                                      NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                      PlatformTransactionManager transactionManager) {
+        this.forecastRepository = forecastRepository;
+        this.stockLevelRepository = stockLevelRepository;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Count doses leaving stock; applied to the pending counters only if the caller's transaction commits
+     */
+    public void recordUsage(String facilityId, String vaccineName, int quantity) {
+        if (facilityId == null || vaccineName == null || quantity <= 0) {
+            return;
+        }
+        UsageKey key = new UsageKey(facilityId, VaccineBatch.toVaccineKey(vaccineName), vaccineName.trim(),
+                LocalDate.now());
+        TransactionHooks.afterCommit(() -> pendingUsage.merge(key, quantity, Integer::sum));
+    }
+
+    @Transactional
+    public void recordReceipt(String facilityId, String vaccineName, LocalDate receivedDate) {
+        if (facilityId == null || vaccineName == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        forecastRepository.recordReceipt(facilityId, VaccineBatch.toVaccineKey(vaccineName), vaccineName.trim(),
+                receivedDate != null ? receivedDate : today, today, resupplySmoothingFactor);
+    }
+
+    /**
+     * Write the pending usage counters to consumption_forecasts in one JDBC batch.
+     * Counters are taken out of the map atomically, so usage recorded during the flush waits for the next one;
+     * if the write fails they are added back.
+     * @return Number of counters written
+     */
+    public int flush() {
+        List<Map.Entry<UsageKey, Integer>> drained = new ArrayList<>();
+        for (UsageKey key : pendingUsage.keySet()) {
+            Integer doses = pendingUsage.remove(key);
+            if (doses != null) {
+                drained.add(Map.entry(key, doses));
+            }
+        }
+        if (drained.isEmpty()) {
+            return 0;
+        }
+        // Upsert in key order so concurrent flushes from several instances lock the rows in the same order
+        drained.sort(Map.Entry.comparingByKey(Comparator.comparing(UsageKey::facilityId)
+                .thenComparing(UsageKey::vaccineKey)
+                .thenComparing(UsageKey::day)));
+
+        SqlParameterSource[] batch = drained.stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("facilityId", entry.getKey().facilityId())
+                        .addValue("vaccineKey", entry.getKey().vaccineKey())
+                        .addValue("vaccineName", entry.getKey().vaccineName())
+                        .addValue("day", Date.valueOf(entry.getKey().day()))
+                        .addValue("doses", entry.getValue())
+                        .addValue("alpha", smoothingFactor))
+                .toArray(SqlParameterSource[]::new);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    namedParameterJdbcTemplate.batchUpdate(ConsumptionForecastRepository.RECORD_USAGE_SQL, batch));
+        } catch (RuntimeException e) {
+            drained.forEach(entry -> pendingUsage.merge(entry.getKey(), entry.getValue(), Integer::sum));
+            throw e;
+        }
+        log.debug("Flushed {} consumption counters", drained.size());
+        return drained.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush consumption counters on shutdown", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ConsumptionForecastResponse> getForecasts(String facilityId) {
+        LocalDate today = LocalDate.now();
+        Map<String, StockLevel> levels = stockLevelRepository.findInStockByFacility(facilityId).stream()
+                .collect(Collectors.toMap(StockLevel::getVaccineKey, Function.identity()));
+        return forecastRepository.findByFacilityIdOrderByVaccineName(facilityId).stream()
+                .map(forecast -> project(forecast, levels.get(forecast.getVaccineKey()), today))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Vaccines flagged by the last nightly check, soonest stock-out first
+     */
+    @Transactional(readOnly = true)
+    public List<ConsumptionForecastResponse> getAtRisk() {
+        LocalDate today = LocalDate.now();
+        return forecastRepository.findByAtRiskTrueOrderByProjectedStockoutDateAsc().stream()
+                .map(forecast -> project(forecast, stockLevelRepository.findById(
+                        new StockLevelId(forecast.getFacilityId(), forecast.getVaccineKey())).orElse(null), today))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Flag every vaccine whose projected stock-out comes before its expected next delivery.
+     * Reads one row per (facility, vaccine) from the forecast and stock level tables; never touches movements.
+     * @return Number of vaccines at risk
+     */
+    public int evaluateStockoutRisk() {
+        long start = System.currentTimeMillis();
+        flush();
+        LocalDate today = LocalDate.now();
+
+        Integer atRisk = transactionTemplate.execute(status -> {
+            Map<StockLevelId, StockLevel> levels = stockLevelRepository.findAll().stream()
+                    .collect(Collectors.toMap(level -> new StockLevelId(level.getFacilityId(), level.getVaccineKey()),
+                            Function.identity()));
+            List<ConsumptionForecastResponse> projections = forecastRepository.findAll().stream()
+                    .map(forecast -> project(forecast, levels.get(
+                            new StockLevelId(forecast.getFacilityId(), forecast.getVaccineKey())), today))
+                    .collect(Collectors.toList());
+
+            SqlParameterSource[] batch = projections.stream()
+                    .map(projection -> new MapSqlParameterSource()
+                            .addValue("facilityId", projection.getFacilityId())
+                            .addValue("vaccineKey", projection.getVaccineKey())
+                            .addValue("stockoutDate", projection.getProjectedStockoutDate() != null
+                                    ? Date.valueOf(projection.getProjectedStockoutDate()) : null, java.sql.Types.DATE)
+                            .addValue("deliveryDate", Date.valueOf(projection.getExpectedDeliveryDate()))
+                            .addValue("atRisk", projection.isAtRisk()))
+                    .toArray(SqlParameterSource[]::new);
+            if (batch.length > 0) {
+                namedParameterJdbcTemplate.batchUpdate(ConsumptionForecastRepository.MARK_EVALUATED_SQL, batch);
+            }
+            return (int) projections.stream().filter(ConsumptionForecastResponse::isAtRisk).count();
+        });
+
+        log.info("Stock-out check: {} vaccines at risk of running out before their next delivery ({} ms)",
+                atRisk, System.currentTimeMillis() - start);
+        return atRisk != null ? atRisk : 0;
+    }
+
+    /**
+     * Seed the forecasts from recent stock movements; the only pass over movement history, run once on an empty table
+     * @return Number of forecast rows created from usage
+     */
+    @Transactional
+    public int backfill() {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        int rows = forecastRepository.backfillUsage(today, today.minusDays(BACKFILL_DAYS).atStartOfDay(), smoothingFactor);
+        forecastRepository.backfillReceipts(today, today.minusDays(BACKFILL_DAYS).atStartOfDay());
+        log.info("Consumption forecasts backfilled: {} rows from {} days of movements in {} ms",
+                rows, BACKFILL_DAYS, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return forecastRepository.count() == 0;
+    }
+
+    /**
+     * Smoothed rate as of today: days since the stored current day are folded in as they would be by the next flush
+     */
+    double rateAsOf(ConsumptionForecast forecast, LocalDate today) {
+        long gap = ChronoUnit.DAYS.between(forecast.getCurrentDay(), today);
+        if (gap <= 0) {
+            return forecast.getDailyRate();
+        }
+        return (smoothingFactor * forecast.getCurrentDayDoses() + (1 - smoothingFactor) * forecast.getDailyRate())
+                * Math.pow(1 - smoothingFactor, gap - 1);
+    }
+
+    private ConsumptionForecastResponse project(ConsumptionForecast forecast, StockLevel level, LocalDate today) {
+        double rate = rateAsOf(forecast, today);
+        int stockOnHand = level != null ? level.getTotalQuantity() : 0;
+
+        Double daysOfStock = null;
+        LocalDate stockoutDate = null;
+        // Below a dose a month there is no meaningful stock-out date
+        if (rate >= 1.0 / 30) {
+            daysOfStock = stockOnHand / rate;
+            stockoutDate = today.plusDays((long) Math.floor(daysOfStock));
+        }
+
+        long resupplyDays = forecast.getResupplyIntervalDays() != null
+                ? Math.max(1, Math.round(forecast.getResupplyIntervalDays()))
+                : defaultResupplyDays;
+        LocalDate expectedDelivery = forecast.getLastReceivedDate() != null
+                ? forecast.getLastReceivedDate().plusDays(resupplyDays)
+                : today.plusDays(resupplyDays);
+        if (expectedDelivery.isBefore(today)) {
+            // Overdue deliveries are expected any day now
+            expectedDelivery = today;
+        }
+
+        return ConsumptionForecastResponse.builder()
+                .facilityId(forecast.getFacilityId())
+                .vaccineKey(forecast.getVaccineKey())
+                .vaccineName(level != null ? level.getVaccineName() : forecast.getVaccineName())
+                .dailyRate(Math.round(rate * 100) / 100.0)
+                .stockOnHand(stockOnHand)
+                .daysOfStock(daysOfStock != null ? Math.round(daysOfStock * 10) / 10.0 : null)
+                .projectedStockoutDate(stockoutDate)
+                .lastReceivedDate(forecast.getLastReceivedDate())
+                .expectedDeliveryDate(expectedDelivery)
+                .atRisk(stockoutDate != null && stockoutDate.isBefore(expectedDelivery))
+                .build();
+    }
+
+    private record UsageKey(String facilityId, String vaccineKey, String vaccineName, LocalDate day) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.immunizationdb.inventory.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory queue of the next expiry threshold of every batch holding stock, ordered by due date.
+ * Each batch has at most one live entry; rescheduling leaves the old heap entry behind and it is skipped when polled.
+ * The queue only says when to look at a batch - StockAlertService re-reads the batch before raising anything,
+ * so a stale or lost entry can delay an alert until the daily reconciliation but never raise a wrong one.
+ */
+@Component
+public class ExpiryAlertQueue {
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(
+            Comparator.comparing(Entry::dueDate).thenComparing(Entry::batchId));
+    private final Map<Long, LocalDate> dueByBatch = new HashMap<>();
+
+    public synchronized void schedule(Long batchId, LocalDate dueDate) {
+        LocalDate previous = dueByBatch.put(batchId, dueDate);
+        if (!dueDate.equals(previous)) {
+            heap.add(new Entry(dueDate, batchId));
+            compactIfNeeded();
+        }
+    }
+
+    public synchronized void cancel(Long batchId) {
+        dueByBatch.remove(batchId);
+    }
+
+    /**
+     * Remove and return every batch whose threshold is due on or before the given day
+     */
+    public synchronized List<Long> pollDue(LocalDate today) {
+        List<Long> due = new ArrayList<>();
+        while (!heap.isEmpty() && !heap.peek().dueDate().isAfter(today)) {
+            Entry entry = heap.poll();
+            if (entry.dueDate().equals(dueByBatch.get(entry.batchId()))) {
+                dueByBatch.remove(entry.batchId());
+                due.add(entry.batchId());
+            }
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return dueByBatch.size();
+    }
+
+    // Rebuild the heap once superseded entries outnumber live ones
+    private void compactIfNeeded() {
+        if (heap.size() > 2 * dueByBatch.size() + 1000) {
+            heap.clear();
+            dueByBatch.forEach((batchId, dueDate) -> heap.add(new Entry(dueDate, batchId)));
+        }
+    }
+
+    private record Entry(LocalDate dueDate, Long batchId) {
+    }
+}
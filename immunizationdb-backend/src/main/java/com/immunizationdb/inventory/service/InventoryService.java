@@ -1,24 +1,48 @@
 package com.immunizationdb.inventory.service;
 
+import com.immunizationdb.auth.entity.Role;
 import com.immunizationdb.auth.entity.User;
+import com.immunizationdb.facility.Facility;
+import com.immunizationdb.facility.FacilityRepository;
 import com.immunizationdb.inventory.dto.AdjustStockRequest;
 import com.immunizationdb.inventory.dto.CreateVaccineBatchRequest;
+import com.immunizationdb.inventory.dto.InventoryStatsResponse;
 import com.immunizationdb.inventory.dto.ReceiveStockRequest;
+import com.immunizationdb.inventory.dto.StockAllocation;
 import com.immunizationdb.inventory.dto.StockLevelResponse;
+import com.immunizationdb.inventory.dto.StockReservation;
+import com.immunizationdb.inventory.dto.StockTransferRequest;
+import com.immunizationdb.inventory.dto.StockTransferResponse;
 import com.immunizationdb.inventory.dto.VaccineBatchResponse;
 import com.immunizationdb.inventory.entity.StockMovement;
 import com.immunizationdb.inventory.entity.VaccineBatch;
 import com.immunizationdb.inventory.repository.StockMovementRepository;
 import com.immunizationdb.inventory.repository.VaccineBatchRepository;
+import com.immunizationdb.reporting.event.FacilityDataChangedEvent;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,7 +52,14 @@ public class InventoryService {
 
     private final VaccineBatchRepository vaccineBatchRepository;
     private final StockMovementRepository stockMovementRepository;
+    private final StockLevelService stockLevelService;
+    private final StockAlertService stockAlertService;
+    private final ConsumptionForecastService consumptionForecastService;
+    private final FacilityRepository facilityRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
     private static final int EXPIRY_WARNING_DAYS = 30;
+    private static final int DASHBOARD_LOW_STOCK_THRESHOLD = 100;
 
     @Transactional
     public VaccineBatchResponse createBatch(CreateVaccineBatchRequest request) {
@@ -57,15 +88,17 @@ public class InventoryService {
 
         VaccineBatch savedBatch = vaccineBatchRepository.save(batch);
         log.info("Vaccine batch created successfully with ID: {}", savedBatch.getId());
+        stockChanged(savedBatch.getFacilityId(), savedBatch.getVaccineName());
 
         return mapToResponse(savedBatch);
     }
 
     @Transactional(readOnly = true)
     public List<VaccineBatchResponse> getAllBatches() {
+        LocalDate today = LocalDate.now();
         return vaccineBatchRepository.findAll()
                 .stream()
-                .map(this::mapToResponse)
+                .map(batch -> mapToResponse(batch, today))
                 .collect(Collectors.toList());
     }
 
@@ -94,6 +127,9 @@ public class InventoryService {
             });
         }
 
+        String previousFacilityId = batch.getFacilityId();
+        String previousVaccineName = batch.getVaccineName();
+
         // Update fields
         batch.setBatchNumber(request.getBatchNumber());
         batch.setVaccineName(request.getVaccineName());
@@ -108,23 +144,31 @@ public class InventoryService {
 
         VaccineBatch updatedBatch = vaccineBatchRepository.save(batch);
         log.info("Vaccine batch updated successfully");
+        stockChanged(previousFacilityId, previousVaccineName);
+        boolean vaccineChanged = !VaccineBatch.toVaccineKey(previousVaccineName)
+                .equals(VaccineBatch.toVaccineKey(updatedBatch.getVaccineName()));
+        if (!previousFacilityId.equals(updatedBatch.getFacilityId()) || vaccineChanged) {
+            stockChanged(updatedBatch.getFacilityId(), updatedBatch.getVaccineName());
+        }
 
         return mapToResponse(updatedBatch);
     }
 
     @Transactional(readOnly = true)
     public List<VaccineBatchResponse> getBatchesByFacility(String facilityId) {
+        LocalDate today = LocalDate.now();
         return vaccineBatchRepository.findByFacilityId(facilityId)
                 .stream()
-                .map(this::mapToResponse)
+                .map(batch -> mapToResponse(batch, today))
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<VaccineBatchResponse> getAvailableBatches(String facilityId) {
-        return vaccineBatchRepository.findAvailableBatches(facilityId, LocalDate.now())
+        LocalDate today = LocalDate.now();
+        return vaccineBatchRepository.findAvailableBatches(facilityId, today)
                 .stream()
-                .map(this::mapToResponse)
+                .map(batch -> mapToResponse(batch, today))
                 .collect(Collectors.toList());
     }
 
@@ -134,11 +178,13 @@ public class InventoryService {
         String decodedVaccineName = vaccineName != null ? vaccineName.trim() : "";
         log.info("Finding available batches for facility: {}, vaccine: '{}' (decoded: '{}')", facilityId, vaccineName, decodedVaccineName);
         
-        List<VaccineBatch> batches = vaccineBatchRepository.findAvailableBatchesByVaccine(facilityId, decodedVaccineName, LocalDate.now());
+        LocalDate today = LocalDate.now();
+        List<VaccineBatch> batches = vaccineBatchRepository.findAvailableBatchesByVaccine(
+                facilityId, VaccineBatch.toVaccineKey(decodedVaccineName), today);
         log.info("Found {} available batches for vaccine: '{}' in facility: {}", batches.size(), decodedVaccineName, facilityId);
         
         return batches.stream()
-                .map(this::mapToResponse)
+                .map(batch -> mapToResponse(batch, today))
                 .collect(Collectors.toList());
     }
 
@@ -148,12 +194,45 @@ public class InventoryService {
         LocalDate warningDate = now.plusDays(EXPIRY_WARNING_DAYS);
         return vaccineBatchRepository.findBatchesExpiringSoon(facilityId, now, warningDate)
                 .stream()
-                .map(this::mapToResponse)
+                .map(batch -> mapToResponse(batch, now))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Deduct stock for a vaccination - finds oldest non-expired batch (FIFO) and deducts quantity
+     * Inventory dashboard counters, aggregated in the database rather than over every batch in memory
+     * @param facilityId Facility to count, or null for national totals
+     */
+    @Transactional(readOnly = true)
+    public InventoryStatsResponse getDashboardStats(String facilityId) {
+        LocalDate now = LocalDate.now();
+        Object[] row = vaccineBatchRepository.aggregateDashboardStats(
+                facilityId, DASHBOARD_LOW_STOCK_THRESHOLD, now, now.plusDays(EXPIRY_WARNING_DAYS)).get(0);
+
+        return InventoryStatsResponse.builder()
+                .facilityId(facilityId)
+                .totalVaccineTypes(((Number) row[0]).longValue())
+                .totalDoses(((Number) row[1]).longValue())
+                .lowStockItems(((Number) row[2]).longValue())
+                .expiringSoon(((Number) row[3]).longValue())
+                .build();
+    }
+
+    /**
+     * Batches below the threshold, lowest quantity first
+     * @param facilityId Facility to search, or null for every facility
+     */
+    @Transactional(readOnly = true)
+    public Page<VaccineBatchResponse> getLowStockBatches(String facilityId, int threshold, int page, int size) {
+        LocalDate today = LocalDate.now();
+        return vaccineBatchRepository.findLowStock(facilityId, threshold, PageRequest.of(page, size))
+                .map(batch -> mapToResponse(batch, today));
+    }
+
+    /**
+     * Deduct stock for a vaccination - takes doses from the first non-expired batch (FEFO) that still has enough.
+     * The fast path claims a batch with FOR UPDATE SKIP LOCKED, so parallel sessions spread over the
+     * available batches instead of queueing on one row. Only when every eligible batch is held by another
+     * transaction does it wait, trying each batch in expiry order with an atomic conditional UPDATE.
      * @param facilityId Facility ID
      * @param vaccineName Vaccine name
      * @param quantity Quantity to deduct (typically 1 for vaccination)
@@ -164,55 +243,36 @@ public class InventoryService {
         log.info("Deducting stock: {} doses of {} for facility {}", quantity, vaccineName, facilityId);
         
         LocalDate currentDate = LocalDate.now();
+        String vaccineKey = VaccineBatch.toVaccineKey(vaccineName);
+        
+        // Fast path: the batch row is locked by us, so the conditional update cannot lose a race
+        VaccineBatch claimed = vaccineBatchRepository.claimNextBatch(facilityId, vaccineKey, quantity, currentDate)
+                .orElse(null);
+        if (claimed != null && vaccineBatchRepository.deductIfAvailable(claimed.getId(), quantity) == 1) {
+            recordUsage(facilityId, vaccineName, claimed, quantity);
+            return claimed.getId();
+        }
         
-        // Find oldest non-expired batch (FIFO) - ordered by expiry date ASC
+        // Slow path: candidate batches ordered by expiry date ASC (first expiry, first out), waiting on locks
         List<VaccineBatch> availableBatches = vaccineBatchRepository.findAvailableBatchesByVaccine(
-                facilityId, vaccineName, currentDate);
+                facilityId, vaccineKey, currentDate);
         
         if (availableBatches.isEmpty()) {
             throw new RuntimeException("No available stock for vaccine: " + vaccineName + " in facility: " + facilityId);
         }
         
-        // Get the oldest batch (first in list since it's ordered by expiry date ASC)
-        VaccineBatch batch = availableBatches.get(0);
-        
-        if (batch.getQuantityRemaining() < quantity) {
-            throw new RuntimeException(String.format(
-                    "Insufficient stock. Available: %d, requested: %d for batch %s", 
-                    batch.getQuantityRemaining(), quantity, batch.getBatchNumber()));
-        }
-        
-        // Deduct quantity
-        int newQuantity = batch.getQuantityRemaining() - quantity;
-        batch.setQuantityRemaining(newQuantity);
-        VaccineBatch updatedBatch = vaccineBatchRepository.save(batch);
-        
-        // Get current user for stock movement record
-        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
-        // Create stock movement record (type: USED)
-        StockMovement movement = StockMovement.builder()
-                .facilityId(facilityId)
-                .vaccineId(vaccineName)
-                .batchNumber(batch.getBatchNumber())
-                .movementType(StockMovement.MovementType.USED)
-                .quantity(quantity)
-                .reason("Stock used for vaccination")
-                .createdBy(currentUser.getId())
-                .build();
-        
-        stockMovementRepository.save(movement);
-        
-        // Check if batch is now depleted (quantity reached 0)
-        if (newQuantity == 0) {
-            log.info("Batch {} is now depleted (quantity reached 0)", batch.getBatchNumber());
-            // Note: We don't have an isDepleted field, but quantityRemaining = 0 effectively means depleted
+        for (VaccineBatch batch : availableBatches) {
+            if (vaccineBatchRepository.deductIfAvailable(batch.getId(), quantity) == 0) {
+                log.debug("Batch {} no longer has {} doses, trying next batch", batch.getBatchNumber(), quantity);
+                continue;
+            }
+            recordUsage(facilityId, vaccineName, batch, quantity);
+            return batch.getId();
         }
         
-        log.info("Stock deducted: {} doses from batch {} (batch ID: {}). Remaining: {}", 
-                quantity, batch.getBatchNumber(), updatedBatch.getId(), newQuantity);
-        
-        return updatedBatch.getId();
+        throw new RuntimeException(String.format(
+                "Insufficient stock. No batch of %s in facility %s has %d doses available", 
+                vaccineName, facilityId, quantity));
     }
 
     @Transactional
@@ -220,22 +280,119 @@ public class InventoryService {
         VaccineBatch batch = vaccineBatchRepository.findById(batchId)
                 .orElseThrow(() -> new RuntimeException("Batch not found with ID: " + batchId));
 
-        if (batch.getQuantityRemaining() < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + batch.getQuantityRemaining());
+        if (vaccineBatchRepository.deductIfAvailable(batchId, quantity) == 0) {
+            throw new RuntimeException("Insufficient stock. Available: " 
+                    + vaccineBatchRepository.findQuantityRemaining(batchId));
         }
-
-        // Deduct quantity
-        int newQuantity = batch.getQuantityRemaining() - quantity;
-        batch.setQuantityRemaining(newQuantity);
-        VaccineBatch updatedBatch = vaccineBatchRepository.save(batch);
         
+        recordUsage(batch.getFacilityId(), batch.getVaccineName(), batch, quantity);
+    }
+
+    /**
+     * Reserve stock for several groups of vaccinations in one pass.
+     * Every batch the groups may draw from is locked up front by one statement in id order, the order transfers
+     * lock in, before anything is deducted; each allocation is then a single
+     * conditional UPDATE that cannot lose a race, and one USED movement is written per batch and group.
+     * @param reservations Groups to reserve, served in the given order
+     * @return Allocations per reservation in the same order, each in FEFO order; a reservation's total is less than
+     *         its quantity when stock runs out, or when its batch does not exist, has expired or holds another
+     *         vaccine or facility's stock (nothing is thrown, so the caller's transaction stays usable)
+     */
+    @Transactional
+    public List<List<StockAllocation>> reserveStock(List<StockReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return List.of();
+        }
+        Set<String> facilityIds = new TreeSet<>();
+        Set<String> vaccineKeys = new TreeSet<>();
+        for (StockReservation reservation : reservations) {
+            facilityIds.add(reservation.getFacilityId());
+            vaccineKeys.add(VaccineBatch.toVaccineKey(reservation.getVaccineName()));
+        }
+
+        // Locked batches per facility and vaccine in FEFO order, and the doses each still holds
+        Map<String, List<Object[]>> candidatesByStock = new HashMap<>();
+        Map<Long, Integer> remaining = new HashMap<>();
+        for (Object[] row : vaccineBatchRepository.lockReservableBatches(facilityIds, vaccineKeys, LocalDate.now())) {
+            candidatesByStock.computeIfAbsent(row[1] + "|" + row[2], key -> new ArrayList<>()).add(row);
+            remaining.put(((Number) row[0]).longValue(), ((Number) row[4]).intValue());
+        }
+        Comparator<Object[]> fefo = Comparator
+                .comparing((Object[] row) -> ((Date) row[5]).toLocalDate())
+                .thenComparing(row -> ((Number) row[0]).longValue());
+        candidatesByStock.values().forEach(candidates -> candidates.sort(fefo));
+
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        List<List<StockAllocation>> result = new ArrayList<>();
+        List<StockMovement> movements = new ArrayList<>();
+        Map<String, String> changed = new TreeMap<>();
+        Map<String, List<Long>> usedBatches = new HashMap<>();
+        for (StockReservation reservation : reservations) {
+            String stockKey = reservation.getFacilityId() + "|" + VaccineBatch.toVaccineKey(reservation.getVaccineName());
+            List<StockAllocation> allocations = new ArrayList<>();
+            int outstanding = reservation.getQuantity();
+            for (Object[] candidate : candidatesByStock.getOrDefault(stockKey, List.of())) {
+                if (outstanding == 0) {
+                    break;
+                }
+                Long candidateId = ((Number) candidate[0]).longValue();
+                if (reservation.getBatchId() != null && !reservation.getBatchId().equals(candidateId)) {
+                    continue;
+                }
+                int take = Math.min(outstanding, remaining.get(candidateId));
+                if (take <= 0 || vaccineBatchRepository.deductIfAvailable(candidateId, take) == 0) {
+                    continue;
+                }
+                remaining.merge(candidateId, -take, Integer::sum);
+                usedBatches.computeIfAbsent(stockKey, key -> new ArrayList<>()).add(candidateId);
+                allocations.add(StockAllocation.builder()
+                        .batchId(candidateId)
+                        .batchNumber((String) candidate[3])
+                        .quantity(take)
+                        .build());
+                movements.add(StockMovement.builder()
+                        .facilityId(reservation.getFacilityId())
+                        .vaccineId(reservation.getVaccineName())
+                        .batchNumber((String) candidate[3])
+                        .movementType(StockMovement.MovementType.USED)
+                        .quantity(take)
+                        .reason("Stock used for vaccination")
+                        .createdBy(currentUser.getId())
+                        .build());
+                outstanding -= take;
+            }
+            result.add(allocations);
+
+            int reserved = reservation.getQuantity() - outstanding;
+            if (reserved > 0) {
+                log.info("Reserved {} of {} doses of {} in facility {} across {} batches", reserved,
+                        reservation.getQuantity(), reservation.getVaccineName(), reservation.getFacilityId(),
+                        allocations.size());
+                consumptionForecastService.recordUsage(reservation.getFacilityId(), reservation.getVaccineName(), reserved);
+                changed.putIfAbsent(stockKey, reservation.getVaccineName());
+            }
+        }
+
+        stockMovementRepository.saveAll(movements);
+        changed.forEach((key, vaccineName) ->
+                stockUsed(key.substring(0, key.indexOf('|')), vaccineName, usedBatches.get(key)));
+        return result;
+    }
+
+    /**
+     * Append the USED stock movement for a successful deduction
+     */
+    private void recordUsage(String facilityId, String vaccineName, VaccineBatch batch, Integer quantity) {
+        // The deduction bypassed this instance, so a later lookup of the batch in the transaction must reload it
+        entityManager.detach(batch);
+
         // Get current user for stock movement record
         User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         
         // Create stock movement record (type: USED)
         StockMovement movement = StockMovement.builder()
-                .facilityId(batch.getFacilityId())
-                .vaccineId(batch.getVaccineName())
+                .facilityId(facilityId)
+                .vaccineId(vaccineName)
                 .batchNumber(batch.getBatchNumber())
                 .movementType(StockMovement.MovementType.USED)
                 .quantity(quantity)
@@ -244,14 +401,11 @@ public class InventoryService {
                 .build();
         
         stockMovementRepository.save(movement);
+        consumptionForecastService.recordUsage(facilityId, vaccineName, quantity);
         
-        // Check if batch is now depleted
-        if (newQuantity == 0) {
-            log.info("Batch {} is now depleted (quantity reached 0)", batch.getBatchNumber());
-        }
-        
-        log.info("Stock deducted: {} doses from batch {} (batch ID: {}). Remaining: {}", 
-                quantity, batch.getBatchNumber(), batchId, newQuantity);
+        log.debug("Stock deducted: {} doses from batch {} (batch ID: {})",
+                quantity, batch.getBatchNumber(), batch.getId());
+        stockUsed(facilityId, vaccineName, List.of(batch.getId()));
     }
 
     @Transactional
@@ -260,8 +414,10 @@ public class InventoryService {
                 .orElseThrow(() -> new RuntimeException("Batch not found with ID: " + batchId));
         
         log.info("Deleting vaccine batch with ID: {} (Batch: {})", batchId, batch.getBatchNumber());
+        stockAlertService.resolveBatch(batchId);
         vaccineBatchRepository.delete(batch);
         log.info("Vaccine batch deleted successfully");
+        stockChanged(batch.getFacilityId(), batch.getVaccineName());
     }
 
     @Transactional
@@ -317,6 +473,8 @@ public class InventoryService {
         stockMovementRepository.save(movement);
         log.info("Stock movement record created: RECEIVED {} doses of {} (batch: {})", 
                 request.getQuantity(), vaccineName, request.getBatchNumber());
+        consumptionForecastService.recordReceipt(facilityId, vaccineName, request.getReceivedDate());
+        stockChanged(facilityId, vaccineName);
 
         return mapToResponse(savedBatch);
     }
@@ -333,10 +491,12 @@ public class InventoryService {
             throw new RuntimeException("User facility ID is required");
         }
 
-        // Find batch by batch number and vaccine name (frontend sends vaccine name as vaccineId)
-        VaccineBatch batch = vaccineBatchRepository.findByBatchNumberAndFacilityId(
-                request.getBatchNumber(), facilityId
-        ).orElseThrow(() -> new RuntimeException("Batch not found: " + request.getBatchNumber()));
+        // Find and lock the batch (frontend sends vaccine name as vaccineId); the absolute quantity written back
+        // below must not overwrite a concurrent deduction, so the row stays locked until commit as in transferStock
+        VaccineBatch batch = vaccineBatchRepository.lockBatches(List.of(facilityId), List.of(request.getBatchNumber()))
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Batch not found: " + request.getBatchNumber()));
 
         // Verify vaccine matches
         if (!batch.getVaccineName().equalsIgnoreCase(request.getVaccineId())) {
@@ -382,12 +542,17 @@ public class InventoryService {
                 .vaccineId(batch.getVaccineName())
                 .batchNumber(batch.getBatchNumber())
                 .movementType(movementType)
-                .quantity(Math.abs(request.getQuantityChange())) // Use absolute value
+                // Typed movements carry their direction in the type; ADJUSTED keeps the sign so the ledger can replay it
+                .quantity(movementType == StockMovement.MovementType.ADJUSTED
+                        ? request.getQuantityChange() : Math.abs(request.getQuantityChange()))
                 .reason(reasonText)
                 .createdBy(currentUser.getId())
                 .build();
         
         stockMovementRepository.save(movement);
+        if (movementType == StockMovement.MovementType.USED) {
+            consumptionForecastService.recordUsage(facilityId, batch.getVaccineName(), movement.getQuantity());
+        }
         log.info("Stock movement record created: {} {} doses of {} (batch: {}, reason: {})", 
                 movementType, Math.abs(request.getQuantityChange()), batch.getVaccineName(), 
                 batch.getBatchNumber(), request.getReason());
@@ -399,64 +564,210 @@ public class InventoryService {
         
         log.info("Stock adjusted: batch {} now has {} doses (reason: {})", 
                 updatedBatch.getBatchNumber(), updatedBatch.getQuantityRemaining(), request.getReason());
+        stockChanged(facilityId, batch.getVaccineName());
 
         return mapToResponse(updatedBatch);
     }
 
-    @Transactional(readOnly = true)
-    public List<StockLevelResponse> getStockLevels(String facilityId) {
-        List<VaccineBatch> batches = vaccineBatchRepository.findByFacilityId(facilityId);
-        
-        // Group by vaccine name and aggregate
-        java.util.Map<String, java.util.List<VaccineBatch>> vaccineGroups = batches.stream()
-                .filter(b -> !b.isExpired() && b.getQuantityRemaining() > 0) // Only non-expired, non-depleted batches
-                .collect(Collectors.groupingBy(VaccineBatch::getVaccineName));
-        
-        List<StockLevelResponse> stockLevels = new java.util.ArrayList<>();
-        
-        for (java.util.Map.Entry<String, java.util.List<VaccineBatch>> entry : vaccineGroups.entrySet()) {
-            String vaccineName = entry.getKey();
-            List<VaccineBatch> vaccineBatches = entry.getValue();
-            
-            // Calculate total quantity
-            int totalQuantity = vaccineBatches.stream()
-                    .mapToInt(VaccineBatch::getQuantityRemaining)
-                    .sum();
-            
-            // Find oldest expiry date
-            LocalDate oldestExpiry = vaccineBatches.stream()
-                    .map(VaccineBatch::getExpiryDate)
-                    .min(LocalDate::compareTo)
-                    .orElse(null);
-            
-            // Determine status based on quantity: >50 = GOOD, 10-50 = LOW, <10 = CRITICAL
-            String status;
-            if (totalQuantity > 50) {
-                status = "GOOD";
-            } else if (totalQuantity >= 10) {
-                status = "LOW";
-            } else {
-                status = "CRITICAL";
+    /**
+     * Move doses from batches at one facility to the same-numbered batches at other facilities, creating them
+     * where needed, with a TRANSFER_OUT and a TRANSFER_IN movement per item - all or nothing.
+     * Every existing batch involved is locked up front in id order, and missing destination batches are inserted
+     * in (facility, batch number) order, so concurrent transfers cannot deadlock on each other.
+     */
+    @Transactional
+    public StockTransferResponse transferStock(StockTransferRequest request) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String sourceFacilityId = currentUser.getRole() == Role.GOVERNMENT_OFFICIAL
+                && request.getSourceFacilityId() != null && !request.getSourceFacilityId().isBlank()
+                ? request.getSourceFacilityId()
+                : currentUser.getFacilityId();
+        if (sourceFacilityId == null || sourceFacilityId.isEmpty()) {
+            throw new RuntimeException("User facility ID is required");
+        }
+
+        List<StockTransferRequest.Item> items = request.getItems();
+        Set<String> destinationIds = new TreeSet<>();
+        Set<String> batchNumbers = new TreeSet<>();
+        for (StockTransferRequest.Item item : items) {
+            if (item.getDestinationFacilityId().equals(sourceFacilityId)) {
+                throw new RuntimeException("Cannot transfer batch " + item.getBatchNumber() + " to its own facility");
+            }
+            destinationIds.add(item.getDestinationFacilityId());
+            batchNumbers.add(item.getBatchNumber());
+        }
+
+        Set<String> activeDestinations = facilityRepository.findAllById(destinationIds).stream()
+                .filter(facility -> Boolean.TRUE.equals(facility.getActive()))
+                .map(Facility::getId)
+                .collect(Collectors.toSet());
+        destinationIds.stream()
+                .filter(id -> !activeDestinations.contains(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new RuntimeException("Destination facility not found or inactive: " + id);
+                });
+
+        Set<String> facilityIds = new TreeSet<>(destinationIds);
+        facilityIds.add(sourceFacilityId);
+        Map<String, VaccineBatch> batches = new HashMap<>();
+        vaccineBatchRepository.lockBatches(facilityIds, batchNumbers)
+                .forEach(batch -> batches.put(batch.getFacilityId() + "|" + batch.getBatchNumber(), batch));
+
+        LocalDate today = LocalDate.now();
+        String transferId = UUID.randomUUID().toString();
+        String notes = request.getNotes() != null && !request.getNotes().isEmpty() ? ": " + request.getNotes() : "";
+        Map<String, VaccineBatch> createdBatches = new HashMap<>();
+        List<StockMovement> movements = new ArrayList<>();
+        List<StockTransferResponse.Line> lines = new ArrayList<>();
+        int totalQuantity = 0;
+
+        for (StockTransferRequest.Item item : items) {
+            VaccineBatch source = batches.get(sourceFacilityId + "|" + item.getBatchNumber());
+            if (source == null) {
+                throw new RuntimeException("Batch not found: " + item.getBatchNumber());
             }
-            
-            stockLevels.add(StockLevelResponse.builder()
-                    .vaccineId(vaccineName.toLowerCase().replace(" ", "-"))
-                    .vaccineName(vaccineName)
-                    .currentQuantity(totalQuantity)
-                    .oldestExpiryDate(oldestExpiry)
-                    .status(status)
+            if (!source.getExpiryDate().isAfter(today)) {
+                throw new RuntimeException("Batch " + item.getBatchNumber() + " has expired and cannot be transferred");
+            }
+            if (source.getQuantityRemaining() < item.getQuantity()) {
+                throw new RuntimeException("Insufficient stock in batch " + item.getBatchNumber() + ". Available: "
+                        + source.getQuantityRemaining() + ", requested: " + item.getQuantity());
+            }
+
+            String destinationKey = item.getDestinationFacilityId() + "|" + item.getBatchNumber();
+            VaccineBatch destination = batches.get(destinationKey);
+            boolean created = destination == null;
+            if (created) {
+                destination = VaccineBatch.builder()
+                        .batchNumber(source.getBatchNumber())
+                        .vaccineName(source.getVaccineName())
+                        .manufacturer(source.getManufacturer())
+                        .quantityReceived(0)
+                        .quantityRemaining(0)
+                        .expiryDate(source.getExpiryDate())
+                        .receiptDate(today)
+                        .facilityId(item.getDestinationFacilityId())
+                        .createdBy(currentUser.getId())
+                        .build();
+                batches.put(destinationKey, destination);
+                createdBatches.put(destinationKey, destination);
+            } else if (!VaccineBatch.toVaccineKey(destination.getVaccineName())
+                    .equals(VaccineBatch.toVaccineKey(source.getVaccineName()))
+                    || !destination.getExpiryDate().equals(source.getExpiryDate())) {
+                throw new RuntimeException("Batch " + item.getBatchNumber() + " at facility "
+                        + item.getDestinationFacilityId() + " holds a different vaccine or expiry date");
+            }
+
+            source.setQuantityRemaining(source.getQuantityRemaining() - item.getQuantity());
+            destination.setQuantityReceived(destination.getQuantityReceived() + item.getQuantity());
+            destination.setQuantityRemaining(destination.getQuantityRemaining() + item.getQuantity());
+            totalQuantity += item.getQuantity();
+
+            movements.add(StockMovement.builder()
+                    .facilityId(sourceFacilityId)
+                    .vaccineId(source.getVaccineName())
+                    .batchNumber(source.getBatchNumber())
+                    .movementType(StockMovement.MovementType.TRANSFER_OUT)
+                    .quantity(item.getQuantity())
+                    .reason("Transferred to " + item.getDestinationFacilityId() + notes)
+                    .transferId(transferId)
+                    .createdBy(currentUser.getId())
+                    .build());
+            movements.add(StockMovement.builder()
+                    .facilityId(item.getDestinationFacilityId())
+                    .vaccineId(source.getVaccineName())
+                    .batchNumber(source.getBatchNumber())
+                    .movementType(StockMovement.MovementType.TRANSFER_IN)
+                    .quantity(item.getQuantity())
+                    .reason("Transferred from " + sourceFacilityId + notes)
+                    .transferId(transferId)
+                    .createdBy(currentUser.getId())
+                    .build());
+            lines.add(StockTransferResponse.Line.builder()
+                    .batchNumber(source.getBatchNumber())
+                    .vaccineName(source.getVaccineName())
+                    .destinationFacilityId(item.getDestinationFacilityId())
+                    .quantity(item.getQuantity())
+                    .destinationBatchCreated(created)
                     .build());
         }
-        
-        // Sort by vaccine name
-        stockLevels.sort((a, b) -> a.getVaccineName().compareToIgnoreCase(b.getVaccineName()));
-        
-        return stockLevels;
+
+        try {
+            vaccineBatchRepository.saveAllAndFlush(createdBatches.values().stream()
+                    .sorted(Comparator.comparing(VaccineBatch::getFacilityId).thenComparing(VaccineBatch::getBatchNumber))
+                    .collect(Collectors.toList()));
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("A destination batch was created by a concurrent transfer, please retry");
+        }
+        stockMovementRepository.saveAll(movements);
+
+        for (StockTransferResponse.Line line : lines) {
+            VaccineBatch source = batches.get(sourceFacilityId + "|" + line.getBatchNumber());
+            VaccineBatch destination = batches.get(line.getDestinationFacilityId() + "|" + line.getBatchNumber());
+            line.setSourceBatchId(source.getId());
+            line.setSourceRemaining(source.getQuantityRemaining());
+            line.setDestinationBatchId(destination.getId());
+            line.setDestinationRemaining(destination.getQuantityRemaining());
+        }
+
+        // One projection, alert and forecast update per (facility, vaccine) however many items touched it,
+        // refreshed in key order like the stock level flush so the two take stock_levels row locks in the same order
+        Map<String, String> changed = new TreeMap<>();
+        Map<String, String> received = new LinkedHashMap<>();
+        for (StockTransferResponse.Line line : lines) {
+            String vaccineKey = VaccineBatch.toVaccineKey(line.getVaccineName());
+            changed.putIfAbsent(sourceFacilityId + "|" + vaccineKey, line.getVaccineName());
+            changed.putIfAbsent(line.getDestinationFacilityId() + "|" + vaccineKey, line.getVaccineName());
+            received.putIfAbsent(line.getDestinationFacilityId() + "|" + vaccineKey, line.getVaccineName());
+        }
+        received.forEach((key, vaccineName) ->
+                consumptionForecastService.recordReceipt(key.substring(0, key.indexOf('|')), vaccineName, today));
+        changed.forEach((key, vaccineName) -> stockChanged(key.substring(0, key.indexOf('|')), vaccineName));
+
+        log.info("Transfer {}: {} doses in {} items from facility {} to {} facilities",
+                transferId, totalQuantity, items.size(), sourceFacilityId, destinationIds.size());
+        return StockTransferResponse.builder()
+                .transferId(transferId)
+                .sourceFacilityId(sourceFacilityId)
+                .totalQuantity(totalQuantity)
+                .lines(lines)
+                .build();
+    }
+
+    /**
+     * Usable stock per vaccine, read from the stock_levels projection
+     */
+    @Transactional(readOnly = true)
+    public List<StockLevelResponse> getStockLevels(String facilityId) {
+        return stockLevelService.getStockLevels(facilityId);
+    }
+
+    /**
+     * Refresh the stock level and alerts of the vaccine in this transaction and notify listeners after commit
+     */
+    private void stockChanged(String facilityId, String vaccineName) {
+        stockLevelService.refresh(facilityId, vaccineName);
+        stockAlertService.refresh(facilityId, vaccineName);
+        eventPublisher.publishEvent(new FacilityDataChangedEvent(facilityId, FacilityDataChangedEvent.Source.STOCK));
+    }
+
+    /**
+     * Like {@link #stockChanged} for doses used, but the stock level and the used batches' alerts are only marked
+     * for their next flush, so concurrent vaccinations neither serialise on the stock level row nor run alert queries
+     */
+    private void stockUsed(String facilityId, String vaccineName, List<Long> batchIds) {
+        stockLevelService.refreshLater(facilityId, vaccineName);
+        stockAlertService.refreshLater(batchIds);
+        eventPublisher.publishEvent(new FacilityDataChangedEvent(facilityId, FacilityDataChangedEvent.Source.STOCK));
     }
 
     private VaccineBatchResponse mapToResponse(VaccineBatch batch) {
-        LocalDate now = LocalDate.now();
-        long daysUntilExpiry = ChronoUnit.DAYS.between(now, batch.getExpiryDate());
+        return mapToResponse(batch, LocalDate.now());
+    }
+
+    private VaccineBatchResponse mapToResponse(VaccineBatch batch, LocalDate today) {
+        long daysUntilExpiry = ChronoUnit.DAYS.between(today, batch.getExpiryDate());
 
         return VaccineBatchResponse.builder()
                 .id(batch.getId())
@@ -469,8 +780,8 @@ public class InventoryService {
                 .receiptDate(batch.getReceiptDate())
                 .facilityId(batch.getFacilityId())
                 .createdAt(batch.getCreatedAt())
-                .isExpired(batch.isExpired())
-                .isExpiringSoon(batch.isExpiringSoon(EXPIRY_WARNING_DAYS))
+                .isExpired(batch.getExpiryDate().isBefore(today))
+                .isExpiringSoon(batch.getExpiryDate().isBefore(today.plusDays(EXPIRY_WARNING_DAYS)))
                 .daysUntilExpiry((int) daysUntilExpiry)
                 .build();
     }
@@ -0,0 +1,228 @@
+package com.immunizationdb.inventory.service;
+
+import com.immunizationdb.config.TransactionHooks;
+import com.immunizationdb.inventory.dto.StockAlertResponse;
+import com.immunizationdb.inventory.entity.StockAlert;
+import com.immunizationdb.inventory.entity.VaccineBatch;
+import com.immunizationdb.inventory.repository.StockAlertRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Raises and resolves batch alerts in stock_alerts: low stock, expiring within 30 and 7 days, and expired.
+ * The alerts a batch should have are derived from its row in one SQL statement, so syncing a scope is idempotent:
+ * alerts no longer wanted are resolved and missing ones are inserted, and the partial unique index on open alerts
+ * makes each insert happen exactly once even with several instances running.
+ * Receipts, adjustments, transfers and deletions sync their (facility, vaccine) inside the writer's transaction.
+ * Expiry thresholds are crossed by the calendar rather than by a write, so each batch's next threshold is kept in the
+ * {@link ExpiryAlertQueue} and the batch is synced again when it falls due. Batches that doses were used from are
+ * queued as due today once the vaccination commits, so the hot path runs no alert statements and low stock is
+ * raised by the next poll.
+ */
+@Service
+@Slf4j
+public class StockAlertService {
+
+    static final int EXPIRY_NOTICE_DAYS = 30;
+    static final int EXPIRY_WARNING_DAYS = 7;
+    static final int LOW_STOCK_THRESHOLD = 50;
+
+    private static final String MANAGED_TYPES = "('LOW_STOCK', 'EXPIRING_SOON', 'EXPIRED')";
+
+    // Alerts every batch in scope should have open; batches without stock need none
+    private static final String DESIRED_SQL =
+            "SELECT b.facility_id, b.id AS batch_id, b.vaccine_name, s.alert_type, s.severity, s.message " +
+            "FROM vaccine_batches b CROSS JOIN LATERAL (VALUES " +
+            "(CASE WHEN b.expiry_date < :today THEN 'EXPIRED' " +
+            "WHEN b.expiry_date <= :noticeDate THEN 'EXPIRING_SOON' END, " +
+            "CASE WHEN b.expiry_date < :today THEN 'CRITICAL' " +
+            "WHEN b.expiry_date <= :warningDate THEN 'HIGH' ELSE 'MEDIUM' END, " +
+            "'Batch ' || b.batch_number || ' of ' || b.vaccine_name || " +
+            "CASE WHEN b.expiry_date < :today THEN ' expired on ' ELSE ' expires on ' END || b.expiry_date), " +
+            "(CASE WHEN b.quantity_remaining < :lowStockThreshold THEN 'LOW_STOCK' END, 'HIGH', " +
+            "'Batch ' || b.batch_number || ' of ' || b.vaccine_name || ' is below ' || :lowStockThreshold || ' doses')" +
+            ") s(alert_type, severity, message) " +
+            "WHERE b.quantity_remaining > 0 AND s.alert_type IS NOT NULL AND %s";
+
+    private static final String RESOLVE_SQL =
+            "UPDATE stock_alerts a SET is_resolved = true, resolved_at = CURRENT_TIMESTAMP " +
+            "WHERE a.is_resolved = false AND a.alert_type IN " + MANAGED_TYPES + " AND %s " +
+            "AND NOT EXISTS (SELECT 1 FROM (" + DESIRED_SQL + ") d " +
+            "WHERE d.batch_id = a.batch_id AND d.alert_type = a.alert_type " +
+            "AND d.severity = a.severity AND d.facility_id = a.facility_id)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_alerts " +
+            "(facility_id, batch_id, vaccine_name, alert_type, severity, message, is_resolved, created_at) " +
+            "SELECT d.facility_id, d.batch_id, d.vaccine_name, d.alert_type, d.severity, d.message, false, " +
+            "CURRENT_TIMESTAMP FROM (" + DESIRED_SQL + ") d " +
+            "ON CONFLICT (batch_id, alert_type, severity) WHERE is_resolved = false DO NOTHING";
+
+    private static final String PENDING_SQL =
+            "SELECT b.id, b.expiry_date FROM vaccine_batches b " +
+            "WHERE b.quantity_remaining > 0 AND b.expiry_date >= :today AND %s";
+
+    private final StockAlertRepository stockAlertRepository;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ExpiryAlertQueue expiryAlertQueue;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockAlertService(StockAlertRepository stockAlertRepository,
+                             NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                             ExpiryAlertQueue expiryAlertQueue,
+                             PlatformTransactionManager transactionManager) {
+        this.stockAlertRepository = stockAlertRepository;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.expiryAlertQueue = expiryAlertQueue;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Sync the alerts of one vaccine's batches at a facility after a stock write
+     */
+    @Transactional
+    public void refresh(String facilityId, String vaccineName) {
+        if (facilityId == null || vaccineName == null) {
+            return;
+        }
+        MapSqlParameterSource params = parameters(LocalDate.now())
+                .addValue("facilityId", facilityId)
+                .addValue("vaccineKey", VaccineBatch.toVaccineKey(vaccineName));
+        sync("a.batch_id IN (SELECT id FROM vaccine_batches WHERE facility_id = :facilityId AND vaccine_key = :vaccineKey)",
+                "b.facility_id = :facilityId AND b.vaccine_key = :vaccineKey", params);
+    }
+
+    /**
+     * Sync the batches doses were used from at the next poll, if the caller's transaction commits
+     */
+    public void refreshLater(Collection<Long> batchIds) {
+        if (batchIds.isEmpty()) {
+            return;
+        }
+        List<Long> used = List.copyOf(batchIds);
+        TransactionHooks.afterCommit(() -> {
+            LocalDate today = LocalDate.now();
+            used.forEach(batchId -> expiryAlertQueue.schedule(batchId, today));
+        });
+    }
+
+    /**
+     * Resolve a batch's alerts before the batch is deleted
+     */
+    @Transactional
+    public void resolveBatch(Long batchId) {
+        stockAlertRepository.resolveOpenForBatch(batchId);
+        TransactionHooks.afterCommit(() -> expiryAlertQueue.cancel(batchId));
+    }
+
+    /**
+     * Sync every batch whose next expiry threshold has been reached.
+     * Batches are put back in the queue when the sync fails so the next poll retries them.
+     * @return Number of alerts raised
+     */
+    public int processDue() {
+        LocalDate today = LocalDate.now();
+        List<Long> due = expiryAlertQueue.pollDue(today);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        try {
+            Integer raised = transactionTemplate.execute(status -> sync("a.batch_id IN (:batchIds)",
+                    "b.id IN (:batchIds)", parameters(today).addValue("batchIds", due)));
+            log.info("Expiry thresholds reached for {} batches, raised {} stock alerts", due.size(), raised);
+            return raised != null ? raised : 0;
+        } catch (RuntimeException e) {
+            due.forEach(batchId -> expiryAlertQueue.schedule(batchId, today));
+            throw e;
+        }
+    }
+
+    /**
+     * Sync all batches and seed the expiry queue with every batch that still has a threshold ahead.
+     * Run at startup and daily, which also repairs anything a lost queue update missed.
+     * @return Number of alerts raised
+     */
+    public int synchronizeAll() {
+        long start = System.currentTimeMillis();
+        Integer raised = transactionTemplate.execute(status -> sync("TRUE", "TRUE", parameters(LocalDate.now())));
+        log.info("Synchronized stock alerts in {} ms: {} raised, {} batches awaiting an expiry threshold",
+                System.currentTimeMillis() - start, raised, expiryAlertQueue.size());
+        return raised != null ? raised : 0;
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockAlertResponse> getOpenAlerts(String facilityId) {
+        return stockAlertRepository.findOpenByFacility(facilityId)
+                .stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Day on which a batch expiring on expiryDate next changes alert stage, counted from today.
+     * Matches the stage boundaries in DESIRED_SQL; a batch is expired from the day after its expiry date.
+     */
+    static LocalDate nextThreshold(LocalDate expiryDate, LocalDate today) {
+        LocalDate notice = expiryDate.minusDays(EXPIRY_NOTICE_DAYS);
+        if (notice.isAfter(today)) {
+            return notice;
+        }
+        LocalDate warning = expiryDate.minusDays(EXPIRY_WARNING_DAYS);
+        if (warning.isAfter(today)) {
+            return warning;
+        }
+        return expiryDate.plusDays(1);
+    }
+
+    /**
+     * Resolve the scope's alerts that no longer apply, insert the missing ones, and queue the scope's batches
+     * at their next threshold once the transaction commits
+     * @return Number of alerts raised
+     */
+    private int sync(String alertScope, String batchScope, MapSqlParameterSource params) {
+        LocalDate today = ((Date) params.getValue("today")).toLocalDate();
+        int resolved = namedParameterJdbcTemplate.update(String.format(RESOLVE_SQL, alertScope, batchScope), params);
+        int raised = namedParameterJdbcTemplate.update(String.format(INSERT_SQL, batchScope), params);
+        if (resolved > 0 || raised > 0) {
+            log.debug("Stock alerts: {} raised, {} resolved", raised, resolved);
+        }
+
+        List<Object[]> pending = namedParameterJdbcTemplate.query(String.format(PENDING_SQL, batchScope), params,
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getDate(2).toLocalDate()});
+        TransactionHooks.afterCommit(() -> pending.forEach(row ->
+                expiryAlertQueue.schedule((Long) row[0], nextThreshold((LocalDate) row[1], today))));
+        return raised;
+    }
+
+    private MapSqlParameterSource parameters(LocalDate today) {
+        return new MapSqlParameterSource()
+                .addValue("today", Date.valueOf(today))
+                .addValue("noticeDate", Date.valueOf(today.plusDays(EXPIRY_NOTICE_DAYS)))
+                .addValue("warningDate", Date.valueOf(today.plusDays(EXPIRY_WARNING_DAYS)))
+                .addValue("lowStockThreshold", LOW_STOCK_THRESHOLD);
+    }
+
+    private StockAlertResponse mapToResponse(StockAlert alert) {
+        return StockAlertResponse.builder()
+                .id(alert.getId())
+                .facilityId(alert.getFacilityId())
+                .batchId(alert.getBatchId())
+                .vaccineName(alert.getVaccineName())
+                .alertType(alert.getAlertType().name())
+                .severity(alert.getSeverity().name())
+                .message(alert.getMessage())
+                .createdAt(alert.getCreatedAt())
+                .build();
+    }
+}
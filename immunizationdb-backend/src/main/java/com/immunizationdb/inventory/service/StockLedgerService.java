@@ -0,0 +1,291 @@
+package com.immunizationdb.inventory.service;
+
+import com.immunizationdb.inventory.dto.StockLedgerEntry;
+import com.immunizationdb.inventory.dto.StockLedgerPage;
+import com.immunizationdb.inventory.entity.VaccineBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Stock movement ledger for one vaccine or batch at a facility, oldest first, with running balances.
+ * Pages are keyset-paginated on (created_at, id) and the cursor carries the balance reached so far, so each page
+ * is one index seek plus a window sum over its own rows, however deep into the ledger it is.
+ * Cursors are HMAC-signed together with the ledger they page through, so a client cannot alter the balance
+ * or reuse a cursor on another ledger.
+ */
+@Service
+@Slf4j
+public class StockLedgerService {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+    private static final String CURSOR_MAC_ALGORITHM = "HmacSHA256";
+
+    // Signed effect of a movement on stock; ADJUSTED quantities are already signed
+    private static final String CHANGE_SQL =
+            "CASE WHEN movement_type IN ('RECEIVED', 'TRANSFER_IN', 'ADJUSTED') THEN quantity ELSE -quantity END";
+
+    private static final String COLUMNS =
+            "id, created_at, movement_type, vaccine_id, batch_number, quantity, " + CHANGE_SQL + " AS change, " +
+            "reason, created_by";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SecretKeySpec cursorKey;
+
+    public StockLedgerService(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${inventory.ledger.cursor-secret:${jwt.secret}}") String cursorSecret) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorKey = new SecretKeySpec(cursorSecret.getBytes(StandardCharsets.UTF_8), CURSOR_MAC_ALGORITHM);
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * One page of the ledger
+     * @param vaccineName Vaccine to follow, or null when following a batch
+     * @param batchNumber Batch to follow, or null when following a vaccine
+     * @param from First day to include, or null for the start of the ledger (balances still count earlier movements)
+     * @param to Last day to include, inclusive, or null for no bound
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public StockLedgerPage getPage(String facilityId, String vaccineName, String batchNumber,
+                                   LocalDate from, LocalDate to, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String scope = String.join("|", facilityId, String.valueOf(VaccineBatch.toVaccineKey(vaccineName)),
+                String.valueOf(batchNumber), String.valueOf(from), String.valueOf(to));
+        LedgerCursor position = cursor != null && !cursor.isBlank() ? LedgerCursor.decode(cursor, scope, cursorKey) : null;
+        long openingBalance = position != null
+                ? position.balance()
+                : openingBalance(facilityId, vaccineName, batchNumber, from);
+
+        List<Object> args = new ArrayList<>();
+        args.add(openingBalance);
+        StringBuilder sql = new StringBuilder("SELECT t.*, ? + SUM(t.change) OVER (ORDER BY t.created_at, t.id) AS balance ")
+                .append("FROM (SELECT ").append(COLUMNS).append(" FROM stock_movements WHERE ");
+        appendScope(sql, args, facilityId, vaccineName, batchNumber, from, to);
+        if (position != null) {
+            sql.append(" AND (created_at, id) > (?, ?)");
+            args.add(Timestamp.valueOf(position.createdAt()));
+            args.add(position.id());
+        }
+        // One extra row tells whether another page exists
+        sql.append(" ORDER BY created_at, id LIMIT ?) t ORDER BY t.created_at, t.id");
+        args.add(pageSize + 1);
+
+        List<StockLedgerEntry> entries = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapEntry(rs), args.toArray());
+        boolean hasMore = entries.size() > pageSize;
+        if (hasMore) {
+            entries = new ArrayList<>(entries.subList(0, pageSize));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            StockLedgerEntry last = entries.get(entries.size() - 1);
+            nextCursor = new LedgerCursor(last.getCreatedAt(), last.getId(), last.getBalance()).encode(scope, cursorKey);
+        }
+
+        return StockLedgerPage.builder()
+                .facilityId(facilityId)
+                .vaccineName(vaccineName)
+                .batchNumber(batchNumber)
+                .openingBalance(openingBalance)
+                .entries(entries)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Stream the whole ledger range as CSV from a server-side cursor
+     * @return Number of data rows written
+     */
+    public long export(String facilityId, String vaccineName, String batchNumber,
+                       LocalDate from, LocalDate to, OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 16384);
+
+        long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> {
+                long openingBalance = openingBalance(facilityId, vaccineName, batchNumber, from);
+                List<Object> args = new ArrayList<>();
+                args.add(openingBalance);
+                StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                        .append(", ? + SUM(").append(CHANGE_SQL).append(") OVER (ORDER BY created_at, id) AS balance ")
+                        .append("FROM stock_movements WHERE ");
+                appendScope(sql, args, facilityId, vaccineName, batchNumber, from, to);
+                sql.append(" ORDER BY created_at, id");
+
+                return cursorJdbcTemplate.query(sql.toString(), rs -> {
+                    write(writer, "id,created_at,movement_type,vaccine_name,batch_number,quantity,change,balance,reason,created_by\n");
+                    long count = 0;
+                    while (rs.next()) {
+                        StockLedgerEntry entry = mapEntry(rs);
+                        write(writer, entry.getId() + "," + entry.getCreatedAt() + "," + entry.getMovementType() + ","
+                                + escapeCsv(entry.getVaccineName()) + "," + escapeCsv(entry.getBatchNumber()) + ","
+                                + entry.getQuantity() + "," + entry.getChange() + "," + entry.getBalance() + ","
+                                + escapeCsv(entry.getReason()) + "," + entry.getCreatedBy() + "\n");
+                        count++;
+                    }
+                    return count;
+                }, args.toArray());
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+
+        log.info("Exported {} ledger rows for facility {} ({}) in {} ms", rows, facilityId,
+                batchNumber != null ? "batch " + batchNumber : vaccineName, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private long openingBalance(String facilityId, String vaccineName, String batchNumber, LocalDate from) {
+        if (from == null) {
+            return 0L;
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COALESCE(SUM(").append(CHANGE_SQL)
+                .append("), 0) FROM stock_movements WHERE ");
+        appendScope(sql, args, facilityId, vaccineName, batchNumber, null, null);
+        sql.append(" AND created_at < ?");
+        args.add(Timestamp.valueOf(from.atStartOfDay()));
+        Long balance = jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+        return balance != null ? balance : 0L;
+    }
+
+    private void appendScope(StringBuilder sql, List<Object> args, String facilityId, String vaccineName,
+                             String batchNumber, LocalDate from, LocalDate to) {
+        if (facilityId == null || facilityId.isBlank()) {
+            throw new RuntimeException("Facility ID is required");
+        }
+        if ((vaccineName == null || vaccineName.isBlank()) && (batchNumber == null || batchNumber.isBlank())) {
+            throw new RuntimeException("Either a vaccine or a batch number is required");
+        }
+        sql.append("facility_id = ?");
+        args.add(facilityId);
+        // Matches the expression in idx_stock_movement_ledger_vaccine
+        if (vaccineName != null && !vaccineName.isBlank()) {
+            sql.append(" AND LOWER(TRIM(vaccine_id)) = ?");
+            args.add(VaccineBatch.toVaccineKey(vaccineName));
+        }
+        if (batchNumber != null && !batchNumber.isBlank()) {
+            sql.append(" AND batch_number = ?");
+            args.add(batchNumber);
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+    }
+
+    private StockLedgerEntry mapEntry(ResultSet rs) throws SQLException {
+        return StockLedgerEntry.builder()
+                .id(rs.getLong("id"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .movementType(rs.getString("movement_type"))
+                .vaccineName(rs.getString("vaccine_id"))
+                .batchNumber(rs.getString("batch_number"))
+                .quantity(rs.getInt("quantity"))
+                .change(rs.getInt("change"))
+                .balance(rs.getLong("balance"))
+                .reason(rs.getString("reason"))
+                .createdBy(rs.getLong("created_by"))
+                .build();
+    }
+
+    private void write(Writer writer, String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            // Client disconnected - abort the cursor instead of reading the remaining rows
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Position after the last entry of a page and the balance reached there, encoded as an opaque token
+     * followed by an HMAC over the token and the ledger scope
+     */
+    private record LedgerCursor(LocalDateTime createdAt, long id, long balance) {
+
+        String encode(String scope, SecretKeySpec key) {
+            String raw = createdAt + "|" + id + "|" + balance;
+            String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(payload, scope, key));
+        }
+
+        static LedgerCursor decode(String token, String scope, SecretKeySpec key) {
+            try {
+                int separator = token.indexOf('.');
+                String payload = token.substring(0, separator);
+                byte[] signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+                if (!MessageDigest.isEqual(signature, sign(payload, scope, key))) {
+                    throw new IllegalArgumentException("Signature mismatch");
+                }
+                String raw = new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                return new LedgerCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid ledger cursor");
+            }
+        }
+
+        private static byte[] sign(String payload, String scope, SecretKeySpec key) {
+            try {
+                Mac mac = Mac.getInstance(CURSOR_MAC_ALGORITHM);
+                mac.init(key);
+                return mac.doFinal((payload + "\n" + scope).getBytes(StandardCharsets.UTF_8));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.immunizationdb.inventory.service;
+
+import com.immunizationdb.config.TransactionHooks;
+import com.immunizationdb.inventory.dto.StockLevelResponse;
+import com.immunizationdb.inventory.dto.StockLevelVerificationResponse;
+import com.immunizationdb.inventory.entity.StockLevel;
+import com.immunizationdb.inventory.entity.VaccineBatch;
+import com.immunizationdb.inventory.repository.StockLevelRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the stock_levels projection in step with vaccine_batches.
+ * Receipts, adjustments, transfers and deletions refresh the (facility, vaccine) row they touched inside the
+ * writer's transaction: the row is locked first, then re-aggregated from that vaccine's live batches through the
+ * batch claim index. Doses used for vaccinations only mark their row once the transaction commits, and marked rows
+ * are refreshed by a periodic flush, so vaccinations of one vaccine never queue on its stock_levels row.
+ */
+@Service
+@Slf4j
+public class StockLevelService {
+
+    private final StockLevelRepository stockLevelRepository;
+    private final TransactionTemplate transactionTemplate;
+    // facility|vaccine key -> vaccine name of the rows awaiting a refresh, in key order so flushes lock in one order
+    private final Map<String, String> pendingRefresh = new ConcurrentSkipListMap<>();
+
+    public StockLevelService(StockLevelRepository stockLevelRepository, PlatformTransactionManager transactionManager) {
+        this.stockLevelRepository = stockLevelRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public void refresh(String facilityId, String vaccineName) {
+        if (facilityId == null || vaccineName == null) {
+            return;
+        }
+        String vaccineKey = VaccineBatch.toVaccineKey(vaccineName);
+        stockLevelRepository.lockRow(facilityId, vaccineKey, vaccineName.trim());
+        stockLevelRepository.recompute(facilityId, vaccineKey, LocalDate.now());
+    }
+
+    /**
+     * Mark the row of a vaccine whose doses were used; it is refreshed by the next {@link #flush}
+     * if the caller's transaction commits
+     */
+    public void refreshLater(String facilityId, String vaccineName) {
+        if (facilityId == null || vaccineName == null) {
+            return;
+        }
+        String key = facilityId + "|" + VaccineBatch.toVaccineKey(vaccineName);
+        TransactionHooks.afterCommit(() -> pendingRefresh.put(key, vaccineName));
+    }
+
+    /**
+     * Refresh every marked row in one transaction, in key order.
+     * Rows are taken out of the pending set first, so a row marked during the flush waits for the next one;
+     * if the refresh fails they are marked again.
+     * @return Number of rows refreshed
+     */
+    public int flush() {
+        Map<String, String> drained = new LinkedHashMap<>();
+        for (String key : pendingRefresh.keySet()) {
+            String vaccineName = pendingRefresh.remove(key);
+            if (vaccineName != null) {
+                drained.put(key, vaccineName);
+            }
+        }
+        if (drained.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> drained.forEach((key, vaccineName) ->
+                    refresh(key.substring(0, key.indexOf('|')), vaccineName)));
+        } catch (RuntimeException e) {
+            drained.forEach(pendingRefresh::putIfAbsent);
+            throw e;
+        }
+        log.debug("Flushed {} stock levels", drained.size());
+        return drained.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush stock levels on shutdown", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockLevelResponse> getStockLevels(String facilityId) {
+        return stockLevelRepository.findInStockByFacility(facilityId)
+                .stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Drop batches that expired since their row was last written
+     * @return Number of rows refreshed
+     */
+    @Transactional
+    public int refreshExpired() {
+        List<StockLevel> stale = stockLevelRepository.findWithExpiredStock(LocalDate.now());
+        stale.forEach(level -> refresh(level.getFacilityId(), level.getVaccineName()));
+        if (!stale.isEmpty()) {
+            log.info("Refreshed {} stock levels holding expired batches", stale.size());
+        }
+        return stale.size();
+    }
+
+    /**
+     * Recompute the whole projection from vaccine_batches.
+     * Runs in one transaction so readers keep seeing the previous levels until commit.
+     * @return Number of rows written
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        stockLevelRepository.deleteAllRows();
+        int rows = stockLevelRepository.rebuildFromBatches(LocalDate.now());
+        log.info("Stock levels rebuilt: {} rows in {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Compare the projection with a fresh aggregate of vaccine_batches, optionally rebuilding it on drift.
+     * Not read-only on purpose: a lagging read replica would report drift that does not exist.
+     */
+    @Transactional
+    public StockLevelVerificationResponse verify(boolean rebuildOnMismatch) {
+        List<StockLevelVerificationResponse.Mismatch> mismatches = stockLevelRepository.findMismatches(LocalDate.now())
+                .stream()
+                .map(row -> StockLevelVerificationResponse.Mismatch.builder()
+                        .facilityId((String) row[0])
+                        .vaccineKey((String) row[1])
+                        .projectedQuantity(row[2] != null ? ((Number) row[2]).intValue() : null)
+                        .actualQuantity(row[3] != null ? ((Number) row[3]).intValue() : null)
+                        .projectedExpiry(toLocalDate(row[4]))
+                        .actualExpiry(toLocalDate(row[5]))
+                        .build())
+                .collect(Collectors.toList());
+
+        boolean rebuilt = false;
+        if (!mismatches.isEmpty()) {
+            log.warn("Stock level projection has drifted for {} facility/vaccine pairs", mismatches.size());
+            if (rebuildOnMismatch) {
+                rebuild();
+                rebuilt = true;
+            }
+        }
+
+        return StockLevelVerificationResponse.builder()
+                .checkedAt(LocalDateTime.now())
+                .consistent(mismatches.isEmpty())
+                .rebuilt(rebuilt)
+                .mismatches(mismatches)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return stockLevelRepository.count() == 0;
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    private StockLevelResponse mapToResponse(StockLevel level) {
+        return StockLevelResponse.builder()
+                .vaccineId(level.getVaccineName().toLowerCase().replace(" ", "-"))
+                .vaccineName(level.getVaccineName())
+                .currentQuantity(level.getTotalQuantity())
+                .oldestExpiryDate(level.getEarliestExpiry())
+                .status(level.getStatus())
+                .build();
+    }
+}
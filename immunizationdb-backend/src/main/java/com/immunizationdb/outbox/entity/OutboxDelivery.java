@@ -0,0 +1,33 @@
+package com.immunizationdb.outbox.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks an outbox event as applied by one handler; see OutboxDispatcher
+ */
+@Entity
+@Table(name = "outbox_deliveries")
+@IdClass(OutboxDeliveryId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxDelivery {
+
+    @Id
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Id
+    @Column(nullable = false, length = 50)
+    private String handler;
+
+    @Column(name = "delivered_at", nullable = false)
+    private LocalDateTime deliveredAt;
+}
@@ -0,0 +1,15 @@
+package com.immunizationdb.outbox.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxDeliveryId implements Serializable {
+    private Long eventId;
+    private String handler;
+}
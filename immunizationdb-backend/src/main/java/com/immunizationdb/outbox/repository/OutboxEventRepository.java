@@ -0,0 +1,85 @@
+package com.immunizationdb.outbox.repository;
+
+import com.immunizationdb.outbox.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Store one event; shared with the JDBC batch in OutboxService
+     */
+    String INSERT_SQL = "INSERT INTO outbox_events " +
+           "(event_type, aggregate_id, payload, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, 0, ?, ?)";
+
+    /**
+     * Lease up to :limit due events to the caller by moving their next attempt past the lease, returning
+     * [id, event_type, payload, attempts]. Other dispatchers skip the rows while they are locked and ignore them
+     * until the lease runs out, so an event whose dispatcher died is picked up again.
+     */
+    String CLAIM_SQL = "UPDATE outbox_events e SET attempts = e.attempts + 1, next_attempt_at = :leaseUntil " +
+           "WHERE e.id IN (SELECT id FROM outbox_events WHERE processed_at IS NULL AND failed_at IS NULL " +
+           "AND next_attempt_at <= :now " +
+           "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+           "RETURNING e.id, e.event_type, e.payload, e.attempts";
+
+    /**
+     * Record that a handler applied an event, in the handler's transaction
+     * @return 1 on the first delivery, 0 if the handler already applied the event
+     */
+    @Modifying
+    @Query(value = "INSERT INTO outbox_deliveries (event_id, handler, delivered_at) " +
+           "VALUES (:eventId, :handler, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int recordDelivery(@Param("eventId") Long eventId, @Param("handler") String handler);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.processedAt = :processedAt, e.lastError = NULL WHERE e.id = :id")
+    int markProcessed(@Param("id") Long id, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.lastError = :error, e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+    int scheduleRetry(
+        @Param("id") Long id,
+        @Param("error") String error,
+        @Param("nextAttemptAt") LocalDateTime nextAttemptAt
+    );
+
+    /**
+     * Stop retrying an event; it stays in the table with its last error and is never purged
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.lastError = :error, e.failedAt = :failedAt WHERE e.id = :id")
+    int markFailed(
+        @Param("id") Long id,
+        @Param("error") String error,
+        @Param("failedAt") LocalDateTime failedAt
+    );
+
+    /**
+     * [id, created_at] of the events of one type created at or after :since, whether delivered or not
+     */
+    @Query("SELECT e.id, e.createdAt FROM OutboxEvent e WHERE e.eventType = :eventType AND e.createdAt >= :since")
+    List<Object[]> findIdsCreatedSince(@Param("eventType") String eventType, @Param("since") LocalDateTime since);
+
+    long countByProcessedAtIsNullAndFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+
+    @Modifying
+    @Query(value = "DELETE FROM outbox_deliveries d USING outbox_events e " +
+           "WHERE d.event_id = e.id AND e.processed_at < :cutoff",
+           nativeQuery = true)
+    int deleteDeliveriesProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
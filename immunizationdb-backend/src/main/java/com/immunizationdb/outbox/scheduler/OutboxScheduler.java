@@ -0,0 +1,33 @@
+package com.immunizationdb.outbox.scheduler;
+
+import com.immunizationdb.outbox.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxScheduler {
+
+    private final OutboxService outboxService;
+
+    /**
+     * Scheduled job runs daily at 4:15 AM
+     * Removes delivered outbox events older than the retention period
+     */
+    @Scheduled(cron = "0 15 4 * * ?") // Every day at 4:15 AM
+    public void purgeDeliveredEvents() {
+        try {
+            outboxService.purgeProcessed();
+            log.info("Outbox events awaiting delivery: {}", outboxService.countPending());
+            long failed = outboxService.countFailed();
+            if (failed > 0) {
+                log.warn("Outbox events that failed every attempt and need attention: {}", failed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge delivered outbox events", e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.immunizationdb.outbox.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immunizationdb.outbox.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events to their {@link OutboxHandler}s on a dedicated thread, woken when an enqueuing transaction
+ * commits and polling in case a wake-up was missed or another instance wrote the event.
+ * Events are leased in batches, each handler runs in its own transaction with its delivery record, and an event is
+ * marked processed once every handler has applied it. Failed events are retried with exponential backoff until
+ * outbox.max-attempts is used up, after which the event is marked failed, logged, and left for an operator.
+ * Several instances can dispatch at once: claims skip each other's rows, and a handler never applies an event twice.
+ */
+@Service
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, List<OutboxHandler<?>>> handlersByType;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+
+    @Value("${outbox.dispatcher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${outbox.retry-base-delay-seconds:5}")
+    private long retryBaseDelaySeconds;
+
+    @Value("${outbox.retry-max-delay-seconds:3600}")
+    private long retryMaxDelaySeconds;
+
+    @Value("${outbox.max-attempts:20}")
+    private int maxAttempts;
+
+    public OutboxDispatcher(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                            OutboxEventRepository outboxEventRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            List<OutboxHandler<?>> handlers) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.handlersByType = handlers.stream().collect(Collectors.groupingBy(OutboxHandler::eventType));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Outbox dispatcher disabled");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drain, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Outbox dispatcher started - event types: {}, poll interval: {} ms", handlersByType.keySet(), pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Ask the dispatcher thread to drain due events now; at most one extra drain is queued at a time
+     */
+    public void wake() {
+        if (executor != null && drainQueued.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Deliver due events until none are left
+     * @return Number of events fully delivered
+     */
+    public int dispatchDue() {
+        int delivered = 0;
+        List<ClaimedEvent> claimed;
+        do {
+            claimed = claim();
+            for (ClaimedEvent event : claimed) {
+                if (dispatch(event)) {
+                    delivered++;
+                }
+            }
+        } while (claimed.size() == batchSize);
+        return delivered;
+    }
+
+    private void drain() {
+        drainQueued.set(false);
+        try {
+            int delivered = dispatchDue();
+            if (delivered > 0) {
+                log.debug("Delivered {} outbox events", delivered);
+            }
+        } catch (Exception e) {
+            log.error("Outbox dispatch failed", e);
+        }
+    }
+
+    private List<ClaimedEvent> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("leaseUntil", Timestamp.valueOf(now.plusSeconds(leaseSeconds)))
+                .addValue("limit", batchSize);
+        List<ClaimedEvent> claimed = transactionTemplate.execute(status -> namedParameterJdbcTemplate.query(
+                OutboxEventRepository.CLAIM_SQL, params,
+                (rs, rowNum) -> new ClaimedEvent(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4))));
+        List<ClaimedEvent> ordered = new ArrayList<>(claimed != null ? claimed : List.of());
+        ordered.sort(Comparator.comparingLong(ClaimedEvent::id));
+        return ordered;
+    }
+
+    /**
+     * Run every handler of the event's type that has not applied it yet
+     * @return Whether all handlers have now applied the event
+     */
+    private boolean dispatch(ClaimedEvent event) {
+        List<String> errors = new ArrayList<>();
+        for (OutboxHandler<?> handler : handlersByType.getOrDefault(event.eventType(), List.of())) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> deliver(handler, event));
+            } catch (Exception e) {
+                log.warn("Outbox handler {} failed on event {} (attempt {})", handler.name(), event.id(), event.attempts(), e);
+                errors.add(handler.name() + ": " + e.getMessage());
+            }
+        }
+
+        if (errors.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(event.id(), LocalDateTime.now()));
+            return true;
+        }
+        String joined = String.join("; ", errors);
+        String error = joined.length() > MAX_ERROR_LENGTH ? joined.substring(0, MAX_ERROR_LENGTH) : joined;
+        if (event.attempts() >= maxAttempts) {
+            log.error("Outbox event {} of type {} failed {} times and will not be retried: {}",
+                    event.id(), event.eventType(), event.attempts(), error);
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markFailed(event.id(), error, LocalDateTime.now()));
+            return false;
+        }
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusSeconds(retryDelaySeconds(event.attempts()));
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.scheduleRetry(event.id(), error, nextAttemptAt));
+        return false;
+    }
+
+    private <T> void deliver(OutboxHandler<T> handler, ClaimedEvent event) {
+        if (outboxEventRepository.recordDelivery(event.id(), handler.name()) == 0) {
+            return;
+        }
+        try {
+            handler.handle(objectMapper.readValue(event.payload(), handler.payloadType()));
+        } catch (IOException e) {
+            throw new RuntimeException("Unreadable payload: " + e.getMessage(), e);
+        }
+    }
+
+    private long retryDelaySeconds(int attempts) {
+        long delay = retryBaseDelaySeconds << Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(delay, retryMaxDelaySeconds);
+    }
+
+    private record ClaimedEvent(long id, String eventType, String payload, int attempts) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.immunizationdb.outbox.service;
+
+/**
+ * Applies one type of outbox event. Every handler bean for an event type receives each event of that type.
+ * Delivery is at least once: the dispatcher runs {@link #handle} in a transaction that also records the delivery,
+ * so a redelivered event is skipped by handlers that already applied it, and a handler that throws is retried
+ * later without holding up the others.
+ */
+public interface OutboxHandler<T> {
+
+    String eventType();
+
+    /**
+     * Key the deliveries of this handler are recorded under; must not change while events are pending
+     */
+    String name();
+
+    Class<T> payloadType();
+
+    void handle(T payload);
+}
@@ -0,0 +1,90 @@
+package com.immunizationdb.outbox.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immunizationdb.config.TransactionHooks;
+import com.immunizationdb.outbox.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes outbox events in the caller's transaction, so an event exists exactly when the write that caused it
+ * committed, and wakes the dispatcher once that transaction commits
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxDispatcher outboxDispatcher;
+
+    @Value("${outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String eventType, String aggregateId, Object payload) {
+        enqueueAll(eventType, List.of(payload), p -> aggregateId);
+    }
+
+    /**
+     * Store one event per payload with a single JDBC batch
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void enqueueAll(String eventType, List<T> payloads, Function<T, String> aggregateId) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = payloads.stream()
+                .map(payload -> new Object[]{eventType, aggregateId.apply(payload), serialize(payload), now, now})
+                .toList();
+        jdbcTemplate.batchUpdate(OutboxEventRepository.INSERT_SQL, rows);
+
+        TransactionHooks.afterCommit(outboxDispatcher::wake);
+    }
+
+    public long countPending() {
+        return outboxEventRepository.countByProcessedAtIsNullAndFailedAtIsNull();
+    }
+
+    /**
+     * Events that used up outbox.max-attempts and are no longer retried
+     */
+    public long countFailed() {
+        return outboxEventRepository.countByFailedAtIsNotNull();
+    }
+
+    /**
+     * Delete events delivered more than the retention period ago, with their delivery records
+     * @return Number of events deleted
+     */
+    @Transactional
+    public int purgeProcessed() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        outboxEventRepository.deleteDeliveriesProcessedBefore(cutoff);
+        int deleted = outboxEventRepository.deleteProcessedBefore(cutoff);
+        log.info("Purged {} outbox events delivered before {}", deleted, cutoff);
+        return deleted;
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize outbox event: " + e.getMessage(), e);
+        }
+    }
+}
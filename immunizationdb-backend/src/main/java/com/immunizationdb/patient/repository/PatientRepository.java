@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +19,12 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
 
     Optional<Patient> findByIdAndDeletedFalse(UUID id);
 
+    @Query("SELECT p.id FROM Patient p WHERE p.id IN :ids AND p.deleted = false")
+    List<UUID> findActiveIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT p.id, p.fullName FROM Patient p WHERE p.id IN :ids AND p.deleted = false")
+    List<Object[]> findActiveNamesByIds(@Param("ids") Collection<UUID> ids);
+
     @Query("SELECT p FROM Patient p WHERE p.facilityId = :facilityId AND p.deleted = false " +
            "AND (LOWER(p.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
            "OR LOWER(p.guardianName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
@@ -35,6 +42,10 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
     @Query("SELECT COUNT(p) FROM Patient p WHERE p.facilityId = :facilityId AND p.deleted = false")
     Long countByFacilityId(@Param("facilityId") String facilityId);
 
+    @Query("SELECT p.facilityId, COUNT(p) FROM Patient p WHERE p.facilityId IN :facilityIds " +
+           "AND p.deleted = false GROUP BY p.facilityId")
+    List<Object[]> countByFacilityIds(@Param("facilityIds") Collection<String> facilityIds);
+
     @Query("SELECT p FROM Patient p WHERE p.deleted = false " +
            "AND p.dateOfBirth >= :minDate " +
            "ORDER BY p.createdAt DESC")
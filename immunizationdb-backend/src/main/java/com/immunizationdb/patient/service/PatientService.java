@@ -5,8 +5,10 @@ import com.immunizationdb.patient.dto.CreatePatientRequest;
 import com.immunizationdb.patient.dto.PatientResponse;
 import com.immunizationdb.patient.entity.Patient;
 import com.immunizationdb.patient.repository.PatientRepository;
+import com.immunizationdb.reporting.event.FacilityDataChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +25,7 @@ import java.util.stream.Collectors;
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public PatientResponse createPatient(CreatePatientRequest request) {
@@ -63,6 +66,8 @@ public class PatientService {
 
         Patient savedPatient = patientRepository.save(patient);
         log.info("Patient created successfully with ID: {}", savedPatient.getId());
+        eventPublisher.publishEvent(new FacilityDataChangedEvent(
+                savedPatient.getFacilityId(), FacilityDataChangedEvent.Source.PATIENT));
 
         return mapToResponse(savedPatient);
     }
@@ -98,6 +103,8 @@ public class PatientService {
         patient.setDeletedAt(java.time.LocalDateTime.now());
         patientRepository.save(patient);
         log.info("Patient soft deleted: {}", id);
+        eventPublisher.publishEvent(new FacilityDataChangedEvent(
+                patient.getFacilityId(), FacilityDataChangedEvent.Source.PATIENT));
     }
 
     private PatientResponse mapToResponse(Patient patient) {
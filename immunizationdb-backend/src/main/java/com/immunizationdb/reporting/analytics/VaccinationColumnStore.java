@@ -0,0 +1,437 @@
+package com.immunizationdb.reporting.analytics;
+
+import com.immunizationdb.reporting.dto.VaccinationAnalyticsRequest;
+import com.immunizationdb.reporting.dto.VaccinationAnalyticsRequest.Dimension;
+import com.immunizationdb.reporting.dto.VaccinationAnalyticsResponse;
+import com.immunizationdb.reporting.event.VaccinationRecordedEvent;
+import com.immunizationdb.vaccination.entity.Vaccination;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory, column-oriented copy of the vaccinations table for ad-hoc filter/group-by questions.
+ * Each row is held as primitives only: dictionary-encoded facility and vaccine, epoch day, dose number
+ * and a patient ordinal. The table is loaded once at startup and appended to after every committed
+ * vaccination, so it never needs to go back to the database to answer a query.
+ *
+ * Scans are plain loops over primitive arrays with no per-row allocation, split into fixed-size
+ * chunks that run in parallel on the common fork-join pool. Counts are accumulated into a dense
+ * array indexed by the grouped dimensions, so the only allocations per query are the filter masks
+ * and one accumulator per chunk.
+ *
+ * Enabled with reporting.analytics.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(prefix = "reporting.analytics", name = "enabled", havingValue = "true")
+@Slf4j
+public class VaccinationColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int FETCH_SIZE = 10000;
+    // Rows per parallel scan task - large enough that task overhead is negligible
+    private static final int CHUNK_SIZE = 1 << 18;
+    // Upper bound on the dense accumulator (8 MB per chunk)
+    private static final int MAX_GROUP_CELLS = 1 << 20;
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Dictionary facilities = new Dictionary();
+    private final Dictionary vaccines = new Dictionary();
+
+    // Guarded by this: only appenders touch them
+    private final Map<UUID, Integer> patientOrdinals = new HashMap<>();
+    private final BitSet storedIds = new BitSet();
+    private final List<Vaccination> pendingAppends = new ArrayList<>();
+    private boolean loaded;
+
+    // Columns are written before rowCount is published, so readers only ever see complete rows
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    private volatile int rowCount;
+    private volatile int maxDose;
+    private volatile boolean ready;
+
+    public VaccinationColumnStore(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Load the vaccinations table into columns.
+     * Vaccinations committed while loading are buffered and applied afterwards; row ids already
+     * seen by the load are skipped, so nothing is counted twice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(
+                "SELECT id, facility_id, vaccine_name, date_administered, dose_number, patient_id FROM vaccinations",
+                rs -> {
+                    append(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getDate(4).toLocalDate(), rs.getInt(5), rs.getObject(6, UUID.class));
+                }));
+
+        synchronized (this) {
+            for (Vaccination vaccination : pendingAppends) {
+                append(vaccination);
+            }
+            pendingAppends.clear();
+            loaded = true;
+        }
+        ready = true;
+        log.info("Vaccination analytics engine loaded {} rows ({} facilities, {} vaccines, {} patients) in {} ms",
+                rowCount, facilities.size(), vaccines.size(), patientOrdinals.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener
+    public void onVaccinationRecorded(VaccinationRecordedEvent event) {
+        Vaccination vaccination = event.getVaccination();
+        synchronized (this) {
+            if (!loaded) {
+                pendingAppends.add(vaccination);
+                return;
+            }
+            append(vaccination);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Count doses matching the filters, grouped by the requested dimensions
+     */
+    public VaccinationAnalyticsResponse query(VaccinationAnalyticsRequest request) {
+        if (!ready) {
+            throw new RuntimeException("Vaccination analytics engine is still loading. Please try again shortly.");
+        }
+        long started = System.nanoTime();
+
+        // Read rowCount first: dictionaries and maxDose are always published before the rows that use them
+        int rows = rowCount;
+        Columns snapshot = columns;
+        int facilityCount = facilities.size();
+        String[] facilityNames = facilities.values();
+        int vaccineCount = vaccines.size();
+        String[] vaccineNames = vaccines.values();
+        int doseCount = maxDose + 1;
+
+        ScanPlan plan = plan(request, facilityCount, vaccineCount, doseCount);
+
+        long[] counts;
+        int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks <= 1) {
+            counts = new long[plan.cells];
+            scan(snapshot, 0, rows, plan, counts);
+        } else {
+            counts = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> {
+                        long[] partial = new long[plan.cells];
+                        scan(snapshot, chunk * CHUNK_SIZE, Math.min(rows, (chunk + 1) * CHUNK_SIZE), plan, partial);
+                        return partial;
+                    })
+                    .reduce((left, right) -> {
+                        for (int i = 0; i < left.length; i++) {
+                            left[i] += right[i];
+                        }
+                        return left;
+                    })
+                    .orElseGet(() -> new long[plan.cells]);
+        }
+
+        List<VaccinationAnalyticsResponse.Group> groups = new ArrayList<>();
+        long total = 0;
+        for (int cell = 0; cell < counts.length; cell++) {
+            long doses = counts[cell];
+            if (doses == 0) {
+                continue;
+            }
+            total += doses;
+            VaccinationAnalyticsResponse.Group.GroupBuilder group = VaccinationAnalyticsResponse.Group.builder().doses(doses);
+            if (plan.facilityStride > 0) {
+                group.facilityId(facilityNames[cell / plan.facilityStride % facilityCount]);
+            }
+            if (plan.vaccineStride > 0) {
+                group.vaccineName(vaccineNames[cell / plan.vaccineStride % vaccineCount]);
+            }
+            if (plan.doseStride > 0) {
+                group.doseNumber(cell / plan.doseStride % doseCount);
+            }
+            if (plan.bucketStarts != null) {
+                group.periodStart(plan.bucketStarts[cell % plan.bucketStarts.length]);
+            }
+            groups.add(group.build());
+        }
+
+        return VaccinationAnalyticsResponse.builder()
+                .totalDoses(total)
+                .rowsScanned((long) rows)
+                .scanMicros((System.nanoTime() - started) / 1000)
+                .groups(groups)
+                .build();
+    }
+
+    /**
+     * Scan kernel: no allocation, no virtual calls, one indexed increment per matching row.
+     * Unused group dimensions have a stride of zero so the cell index needs no branching.
+     */
+    private static void scan(Columns columns, int from, int to, ScanPlan plan, long[] counts) {
+        final int[] facility = columns.facility;
+        final int[] vaccine = columns.vaccine;
+        final int[] epochDay = columns.epochDay;
+        final byte[] dose = columns.dose;
+        final boolean[] facilityMask = plan.facilityMask;
+        final boolean[] vaccineMask = plan.vaccineMask;
+        final int[] dayBucket = plan.dayBucket;
+        final int fromDay = plan.fromDay;
+        final int span = dayBucket.length;
+        final int doseFilter = plan.doseFilter;
+        final int facilityStride = plan.facilityStride;
+        final int vaccineStride = plan.vaccineStride;
+        final int doseStride = plan.doseStride;
+
+        for (int i = from; i < to; i++) {
+            int day = epochDay[i] - fromDay;
+            int f = facility[i];
+            int v = vaccine[i];
+            int d = dose[i];
+            if ((day < 0) | (day >= span) || !facilityMask[f] | !vaccineMask[v] | ((doseFilter >= 0) & (d != doseFilter))) {
+                continue;
+            }
+            counts[f * facilityStride + v * vaccineStride + d * doseStride + dayBucket[day]]++;
+        }
+    }
+
+    private ScanPlan plan(VaccinationAnalyticsRequest request, int facilityCount, int vaccineCount, int doseCount) {
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new RuntimeException("A valid start and end date are required");
+        }
+        Set<Dimension> groupBy = request.getGroupBy() == null || request.getGroupBy().isEmpty()
+                ? EnumSet.noneOf(Dimension.class) : EnumSet.copyOf(request.getGroupBy());
+        long timeDimensions = groupBy.stream()
+                .filter(d -> d == Dimension.DAY || d == Dimension.WEEK || d == Dimension.MONTH)
+                .count();
+        if (timeDimensions > 1) {
+            throw new RuntimeException("Group by at most one of DAY, WEEK or MONTH");
+        }
+
+        ScanPlan plan = new ScanPlan();
+        plan.fromDay = (int) startDate.toEpochDay();
+        plan.facilityMask = mask(facilities, facilityCount, request.getFacilityIds(), false);
+        plan.vaccineMask = mask(vaccines, vaccineCount, request.getVaccineNames(), true);
+        plan.doseFilter = request.getDoseNumber() != null ? request.getDoseNumber() : -1;
+
+        // Map every day in the range to its time bucket once, so the scan only does an array lookup
+        int span = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        plan.dayBucket = new int[span];
+        Map<LocalDate, Integer> buckets = new LinkedHashMap<>();
+        for (int day = 0; day < span; day++) {
+            LocalDate date = startDate.plusDays(day);
+            LocalDate bucketStart;
+            if (groupBy.contains(Dimension.DAY)) {
+                bucketStart = date;
+            } else if (groupBy.contains(Dimension.WEEK)) {
+                bucketStart = date.with(DayOfWeek.MONDAY);
+            } else if (groupBy.contains(Dimension.MONTH)) {
+                bucketStart = date.withDayOfMonth(1);
+            } else {
+                bucketStart = startDate;
+            }
+            plan.dayBucket[day] = buckets.computeIfAbsent(bucketStart, k -> buckets.size());
+        }
+        if (timeDimensions > 0) {
+            plan.bucketStarts = buckets.keySet().toArray(new LocalDate[0]);
+        }
+
+        long doseStride = buckets.size();
+        long vaccineStride = doseStride * (groupBy.contains(Dimension.DOSE) ? doseCount : 1);
+        long facilityStride = vaccineStride * (groupBy.contains(Dimension.VACCINE) ? vaccineCount : 1);
+        long cells = facilityStride * (groupBy.contains(Dimension.FACILITY) ? facilityCount : 1);
+        if (cells > MAX_GROUP_CELLS) {
+            throw new RuntimeException("Too many groups requested. Narrow the date range, filters or grouping.");
+        }
+        plan.cells = (int) cells;
+        plan.doseStride = groupBy.contains(Dimension.DOSE) ? (int) doseStride : 0;
+        plan.vaccineStride = groupBy.contains(Dimension.VACCINE) ? (int) vaccineStride : 0;
+        plan.facilityStride = groupBy.contains(Dimension.FACILITY) ? (int) facilityStride : 0;
+        return plan;
+    }
+
+    private static boolean[] mask(Dictionary dictionary, int size, List<String> values, boolean normalize) {
+        boolean[] mask = new boolean[size];
+        if (values == null || values.isEmpty()) {
+            Arrays.fill(mask, true);
+            return mask;
+        }
+        for (String value : values) {
+            int code = dictionary.lookup(normalize ? normalizeVaccine(value) : value);
+            if (code >= 0 && code < size) {
+                mask[code] = true;
+            }
+        }
+        return mask;
+    }
+
+    private synchronized void append(Vaccination vaccination) {
+        append(vaccination.getId(), vaccination.getFacilityId(), vaccination.getVaccineName(),
+                vaccination.getDateAdministered(), vaccination.getDoseNumber(), vaccination.getPatientId());
+    }
+
+    private synchronized void append(long id, String facilityId, String vaccineName, LocalDate dateAdministered,
+                                     int doseNumber, UUID patientId) {
+        if (id >= 0 && id <= Integer.MAX_VALUE) {
+            if (storedIds.get((int) id)) {
+                return;
+            }
+            storedIds.set((int) id);
+        }
+
+        int facility = facilities.encode(facilityId);
+        int vaccine = vaccines.encode(normalizeVaccine(vaccineName));
+        int patient = patientOrdinals.computeIfAbsent(patientId, p -> patientOrdinals.size());
+        byte dose = (byte) Math.max(0, Math.min(doseNumber, Byte.MAX_VALUE));
+
+        int row = rowCount;
+        Columns target = columns;
+        if (row == target.capacity()) {
+            target = target.grow();
+            columns = target;
+        }
+        target.facility[row] = facility;
+        target.vaccine[row] = vaccine;
+        target.epochDay[row] = (int) dateAdministered.toEpochDay();
+        target.dose[row] = dose;
+        target.patient[row] = patient;
+
+        if (dose > maxDose) {
+            maxDose = dose;
+        }
+        rowCount = row + 1;
+    }
+
+    private static String normalizeVaccine(String vaccineName) {
+        return vaccineName == null ? "" : vaccineName.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Columns {
+        private final int[] facility;
+        private final int[] vaccine;
+        private final int[] epochDay;
+        private final byte[] dose;
+        private final int[] patient;
+
+        private Columns(int capacity) {
+            this(new int[capacity], new int[capacity], new int[capacity], new byte[capacity], new int[capacity]);
+        }
+
+        private Columns(int[] facility, int[] vaccine, int[] epochDay, byte[] dose, int[] patient) {
+            this.facility = facility;
+            this.vaccine = vaccine;
+            this.epochDay = epochDay;
+            this.dose = dose;
+            this.patient = patient;
+        }
+
+        private int capacity() {
+            return facility.length;
+        }
+
+        private Columns grow() {
+            int capacity = capacity() * 2;
+            return new Columns(
+                    Arrays.copyOf(facility, capacity),
+                    Arrays.copyOf(vaccine, capacity),
+                    Arrays.copyOf(epochDay, capacity),
+                    Arrays.copyOf(dose, capacity),
+                    Arrays.copyOf(patient, capacity));
+        }
+    }
+
+    /**
+     * Append-only string dictionary; codes are dense and never reused
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[64];
+        private volatile int size;
+
+        // Called with the store lock held
+        private int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = size;
+            String[] current = values;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, next * 2);
+            }
+            current[next] = value;
+            values = current;
+            codes.put(value, next);
+            size = next + 1;
+            return next;
+        }
+
+        private int lookup(String value) {
+            Integer code = codes.get(value);
+            return code != null ? code : -1;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private String[] values() {
+            return values;
+        }
+    }
+
+    private static final class ScanPlan {
+        private int fromDay;
+        private int[] dayBucket;
+        private LocalDate[] bucketStarts;
+        private boolean[] facilityMask;
+        private boolean[] vaccineMask;
+        private int doseFilter;
+        private int facilityStride;
+        private int vaccineStride;
+        private int doseStride;
+        private int cells;
+    }
+}
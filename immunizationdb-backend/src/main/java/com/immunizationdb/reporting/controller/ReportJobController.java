@@ -0,0 +1,61 @@
+package com.immunizationdb.reporting.controller;
+
+import com.immunizationdb.reporting.dto.ReportJobRequest;
+import com.immunizationdb.reporting.dto.ReportJobResponse;
+import com.immunizationdb.reporting.service.ReportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/v1/reports/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<ReportJobResponse> submitJob(
+            @Valid @RequestBody ReportJobRequest request,
+            Authentication authentication) {
+        ReportJobResponse job = reportJobService.submit(request, authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<ReportJobResponse> getJobStatus(
+            @PathVariable String jobId,
+            Authentication authentication) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId, authentication.getName()));
+    }
+
+    @GetMapping("/{jobId}/result")
+    @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<Resource> downloadResult(
+            @PathVariable String jobId,
+            Authentication authentication) {
+        Path resultPath = reportJobService.getResultPath(jobId, authentication.getName());
+        
+        // Stored gzip-compressed; clients decompress transparently via Content-Encoding
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(new FileSystemResource(resultPath));
+    }
+}
@@ -1,7 +1,13 @@
 package com.immunizationdb.reporting.controller;
 
+import com.immunizationdb.auth.security.FacilityScope;
 import com.immunizationdb.reporting.dto.*;
+import com.immunizationdb.reporting.service.DoseCohortService;
+import com.immunizationdb.reporting.service.NationalStatisticsSnapshotService;
+import com.immunizationdb.reporting.service.ReportExportService;
 import com.immunizationdb.reporting.service.ReportingService;
+import com.immunizationdb.reporting.service.VaccinationRollupService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
@@ -9,6 +15,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,6 +27,10 @@ import java.util.List;
 public class ReportingController {
 
     private final ReportingService reportingService;
+    private final VaccinationRollupService vaccinationRollupService;
+    private final NationalStatisticsSnapshotService nationalStatisticsSnapshotService;
+    private final ReportExportService reportExportService;
+    private final DoseCohortService doseCohortService;
 
     @GetMapping("/dashboard-stats")
     @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
@@ -32,7 +43,7 @@ public class ReportingController {
     @GetMapping("/national-stats")
     @PreAuthorize("hasRole('GOVERNMENT_OFFICIAL')")
     public ResponseEntity<NationalStatisticsResponse> getNationalStatistics() {
-        NationalStatisticsResponse stats = reportingService.getNationalStatistics();
+        NationalStatisticsResponse stats = nationalStatisticsSnapshotService.getSnapshot();
         return ResponseEntity.ok(stats);
     }
 
@@ -76,6 +87,26 @@ public class ReportingController {
         return ResponseEntity.ok(report);
     }
 
+    @GetMapping("/dropout")
+    @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<DropoutReportResponse> getDropout(
+            @RequestParam(required = false) String facilityId,
+            @RequestParam(defaultValue = "PENTA") String vaccine,
+            @RequestParam(defaultValue = "3") Integer finalDose,
+            @RequestParam(defaultValue = "DOSE1") DropoutReportResponse.CohortType cohort,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusYears(1);
+        }
+        String scope = (facilityId == null || facilityId.isBlank() || facilityId.equals("ALL")) ? null : facilityId;
+        DropoutReportResponse report = doseCohortService.getDropout(scope, vaccine, finalDose, cohort, startDate, endDate);
+        return ResponseEntity.ok(report);
+    }
+
     @GetMapping("/facility-comparison")
     @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
     public ResponseEntity<FacilityComparisonResponse> getFacilityComparison(
@@ -84,6 +115,20 @@ public class ReportingController {
         return ResponseEntity.ok(report);
     }
 
+    @PostMapping("/analytics/vaccinations")
+    @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<VaccinationAnalyticsResponse> queryVaccinationAnalytics(
+            @Valid @RequestBody VaccinationAnalyticsRequest request) {
+        return ResponseEntity.ok(reportingService.queryVaccinationAnalytics(request));
+    }
+
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasRole('GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<java.util.Map<String, Object>> rebuildRollup() {
+        int rows = vaccinationRollupService.rebuild();
+        return ResponseEntity.ok(java.util.Map.of("rollupRows", rows));
+    }
+
     @PostMapping("/export")
     @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
     public ResponseEntity<byte[]> exportReport(
@@ -132,6 +177,35 @@ public class ReportingController {
             .body(csvBytes);
     }
     
+    @GetMapping("/export/stream")
+    @PreAuthorize("hasAnyRole('FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<StreamingResponseBody> streamExport(
+            @RequestParam(defaultValue = "vaccinations") String dataset,
+            @RequestParam(required = false) String facilityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        // Line-level export: rows are written to the socket as they are read from the cursor.
+        // Rows carry patient contact details, so only government officials may export another facility or nationally
+        String scope = FacilityScope.resolve(facilityId);
+        ReportExportService.ExportDataset exportDataset = ReportExportService.ExportDataset.fromParam(dataset);
+        LocalDate finalStartDate = startDate != null ? startDate : LocalDate.now().minusDays(30);
+        LocalDate finalEndDate = endDate != null ? endDate : LocalDate.now();
+        
+        StreamingResponseBody body = outputStream -> reportExportService.export(
+                exportDataset, scope, finalStartDate, finalEndDate, gzip, outputStream);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzip ? MediaType.parseMediaType("application/gzip") : new MediaType("text", "csv"));
+        headers.setContentDispositionFormData("attachment", exportDataset.fileName() + "-"
+                + (scope != null ? scope : "ALL") + "-" + finalStartDate + "-" + finalEndDate
+                + (gzip ? ".csv.gz" : ".csv"));
+        
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(body);
+    }
+    
     // Inner class for request body
     public static class ExportRequest {
         private String facilityId;
@@ -0,0 +1,31 @@
+package com.immunizationdb.reporting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DropoutReportResponse {
+    private String facilityId;
+    private String vaccine;
+    private Integer finalDose;
+    private CohortType cohortType;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long startedCount;
+    private Long completedCount;
+    private Double dropoutRate;
+
+    public enum CohortType {
+        // Patients whose first dose fell in the date range
+        DOSE1,
+        // Patients born in the date range who started the series
+        BIRTH
+    }
+}
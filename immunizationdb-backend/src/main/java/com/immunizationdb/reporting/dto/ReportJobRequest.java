@@ -0,0 +1,30 @@
+package com.immunizationdb.reporting.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobRequest {
+
+    @NotNull(message = "Report type is required")
+    private ReportType reportType;
+
+    // Required for STOCK reports; null or "ALL" means national scope for COVERAGE reports
+    private String facilityId;
+
+    // Coverage reports only - default to the last 30 days
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    public enum ReportType {
+        COVERAGE, STOCK
+    }
+}
@@ -0,0 +1,32 @@
+package com.immunizationdb.reporting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String jobId;
+    private ReportJobRequest.ReportType reportType;
+    private String facilityId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private JobStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+    private String errorMessage;
+    private String resultUrl;
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, EXPIRED
+    }
+}
@@ -0,0 +1,40 @@
+package com.immunizationdb.reporting.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VaccinationAnalyticsRequest {
+
+    // Empty means all facilities / all vaccines
+    @Builder.Default
+    private List<String> facilityIds = new ArrayList<>();
+    @Builder.Default
+    private List<String> vaccineNames = new ArrayList<>();
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+
+    // Null means all doses
+    private Integer doseNumber;
+
+    @Builder.Default
+    private List<Dimension> groupBy = new ArrayList<>();
+
+    public enum Dimension {
+        FACILITY, VACCINE, DOSE, DAY, WEEK, MONTH
+    }
+}
@@ -0,0 +1,33 @@
+package com.immunizationdb.reporting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VaccinationAnalyticsResponse {
+    private Long totalDoses;
+    private Long rowsScanned;
+    private Long scanMicros;
+    private List<Group> groups;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        // Only the grouped dimensions are populated
+        private String facilityId;
+        private String vaccineName;
+        private Integer doseNumber;
+        private LocalDate periodStart;
+        private Long doses;
+    }
+}
@@ -0,0 +1,57 @@
+package com.immunizationdb.reporting.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated vaccination counts per facility, vaccine, dose and day.
+ * Maintained incrementally by VaccinationRollupService and rebuilt nightly from vaccinations.
+ */
+@Entity
+@Table(name = "daily_vaccination_rollup",
+    uniqueConstraints = @UniqueConstraint(name = "uk_rollup_facility_vaccine_dose_day",
+            columnNames = {"facility_id", "vaccine_name", "dose_number", "rollup_date"}),
+    indexes = {
+        @Index(name = "idx_rollup_date", columnList = "rollup_date"),
+        @Index(name = "idx_rollup_facility_date", columnList = "facility_id, rollup_date")
+    })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyVaccinationRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "facility_id", nullable = false, length = 50)
+    private String facilityId;
+
+    @Column(name = "vaccine_name", nullable = false, length = 100)
+    private String vaccineName;
+
+    @Column(name = "dose_number", nullable = false)
+    private Integer doseNumber;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "vaccination_count", nullable = false)
+    private Long vaccinationCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,60 @@
+package com.immunizationdb.reporting.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Doses a patient has received in one vaccine series, as a bitmask (bit n-1 = dose n).
+ * Maintained incrementally by DoseCohortService so dropout can be computed without scanning vaccinations.
+ */
+@Entity
+@Table(name = "patient_dose_cohort",
+    indexes = {
+        @Index(name = "idx_cohort_vaccine_first_dose", columnList = "vaccine_key, first_dose_date"),
+        @Index(name = "idx_cohort_vaccine_birth", columnList = "vaccine_key, birth_date"),
+        @Index(name = "idx_cohort_facility_vaccine", columnList = "facility_id, vaccine_key")
+    })
+@IdClass(PatientDoseCohortId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientDoseCohort {
+
+    @Id
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+
+    @Id
+    @Column(name = "vaccine_key", nullable = false, length = 50)
+    private String vaccineKey;
+
+    // Facility where the series was started
+    @Column(name = "facility_id", nullable = false, length = 50)
+    private String facilityId;
+
+    @Column(name = "birth_date", nullable = false)
+    private LocalDate birthDate;
+
+    @Column(name = "dose_mask", nullable = false)
+    private Integer doseMask;
+
+    @Column(name = "first_dose_date")
+    private LocalDate firstDoseDate;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
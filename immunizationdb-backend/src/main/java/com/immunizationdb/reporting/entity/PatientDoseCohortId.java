@@ -0,0 +1,16 @@
+package com.immunizationdb.reporting.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientDoseCohortId implements Serializable {
+    private UUID patientId;
+    private String vaccineKey;
+}
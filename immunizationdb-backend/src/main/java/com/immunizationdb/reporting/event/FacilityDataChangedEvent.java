@@ -0,0 +1,22 @@
+package com.immunizationdb.reporting.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Published when data shown on a facility's dashboard changes.
+ * A null facility ID means the change may affect any facility.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class FacilityDataChangedEvent {
+
+    private final String facilityId;
+    private final Source source;
+
+    public enum Source {
+        VACCINATION, STOCK, PATIENT, CAMPAIGN
+    }
+}
@@ -0,0 +1,19 @@
+package com.immunizationdb.reporting.event;
+
+import com.immunizationdb.vaccination.entity.Vaccination;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Published on every instance by ReportCacheFeed once a vaccination's outbox event has committed, inside the
+ * feed's transaction.
+ * Listeners that keep derived copies of the vaccinations table should react after commit.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class VaccinationRecordedEvent {
+
+    private final Vaccination vaccination;
+}
@@ -0,0 +1,72 @@
+package com.immunizationdb.reporting.event;
+
+import com.immunizationdb.vaccination.entity.Vaccination;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox payload written in the recording transaction for every saved vaccination.
+ * Carries the follow-up appointment the recording request already returned, so the appointment is created
+ * with that id once the event is delivered.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VaccinationRecordedMessage {
+
+    public static final String TYPE = "VaccinationRecorded";
+
+    private Long vaccinationId;
+    private UUID patientId;
+    private Long batchId;
+    private Long nurseId;
+    private String vaccineName;
+    private Integer doseNumber;
+    private LocalDate dateAdministered;
+    private String facilityId;
+    private LocalDateTime recordedAt;
+    private UUID nextAppointmentId;
+    private LocalDate nextAppointmentDate;
+
+    public static VaccinationRecordedMessage of(Vaccination vaccination, UUID nextAppointmentId,
+                                                LocalDate nextAppointmentDate) {
+        return VaccinationRecordedMessage.builder()
+                .vaccinationId(vaccination.getId())
+                .patientId(vaccination.getPatientId())
+                .batchId(vaccination.getBatchId())
+                .nurseId(vaccination.getNurseId())
+                .vaccineName(vaccination.getVaccineName())
+                .doseNumber(vaccination.getDoseNumber())
+                .dateAdministered(vaccination.getDateAdministered())
+                .facilityId(vaccination.getFacilityId())
+                .recordedAt(vaccination.getCreatedAt())
+                .nextAppointmentId(nextAppointmentId)
+                .nextAppointmentDate(nextAppointmentDate)
+                .build();
+    }
+
+    public String aggregateId() {
+        return String.valueOf(vaccinationId);
+    }
+
+    public Vaccination toVaccination() {
+        return Vaccination.builder()
+                .id(vaccinationId)
+                .patientId(patientId)
+                .batchId(batchId)
+                .nurseId(nurseId)
+                .vaccineName(vaccineName)
+                .doseNumber(doseNumber)
+                .dateAdministered(dateAdministered)
+                .facilityId(facilityId)
+                .createdAt(recordedAt)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.immunizationdb.reporting.repository;
+
+import com.immunizationdb.reporting.entity.DailyVaccinationRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * All aggregate queries accept a null facilityId meaning "all facilities".
+ */
+@Repository
+public interface DailyVaccinationRollupRepository extends JpaRepository<DailyVaccinationRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_vaccination_rollup " +
+           "(facility_id, vaccine_name, dose_number, rollup_date, vaccination_count, updated_at) " +
+           "VALUES (:facilityId, :vaccineName, :doseNumber, :rollupDate, :delta, CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (facility_id, vaccine_name, dose_number, rollup_date) DO UPDATE SET " +
+           "vaccination_count = daily_vaccination_rollup.vaccination_count + EXCLUDED.vaccination_count, " +
+           "updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    void increment(
+        @Param("facilityId") String facilityId,
+        @Param("vaccineName") String vaccineName,
+        @Param("doseNumber") Integer doseNumber,
+        @Param("rollupDate") LocalDate rollupDate,
+        @Param("delta") long delta
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_vaccination_rollup", nativeQuery = true)
+    void deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_vaccination_rollup " +
+           "(facility_id, vaccine_name, dose_number, rollup_date, vaccination_count, updated_at) " +
+           "SELECT facility_id, vaccine_name, dose_number, date_administered, COUNT(*), CURRENT_TIMESTAMP " +
+           "FROM vaccinations GROUP BY facility_id, vaccine_name, dose_number, date_administered",
+           nativeQuery = true)
+    int rebuildFromVaccinations();
+
+    @Query("SELECT COALESCE(SUM(r.vaccinationCount), 0) FROM DailyVaccinationRollup r " +
+           "WHERE (:facilityId IS NULL OR r.facilityId = :facilityId) " +
+           "AND r.rollupDate BETWEEN :startDate AND :endDate")
+    Long sumVaccinations(
+        @Param("facilityId") String facilityId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT r.vaccineName, SUM(r.vaccinationCount) FROM DailyVaccinationRollup r " +
+           "WHERE (:facilityId IS NULL OR r.facilityId = :facilityId) " +
+           "AND r.rollupDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.vaccineName")
+    List<Object[]> sumVaccinationsByVaccine(
+        @Param("facilityId") String facilityId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    @Query(value = "SELECT CAST(date_trunc('month', r.rollup_date) AS DATE) AS month_start, " +
+           "SUM(r.vaccination_count) AS vaccinations " +
+           "FROM daily_vaccination_rollup r " +
+           "WHERE (CAST(:facilityId AS VARCHAR) IS NULL OR r.facility_id = :facilityId) " +
+           "AND r.rollup_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY 1 ORDER BY 1",
+           nativeQuery = true)
+    List<Object[]> sumVaccinationsByMonth(
+        @Param("facilityId") String facilityId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,69 @@
+package com.immunizationdb.reporting.repository;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Computes every national dashboard counter in a single round trip using conditional aggregates.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NationalStatisticsRepository {
+
+    private static final int LOW_STOCK_THRESHOLD = 50;
+
+    private static final String NATIONAL_COUNTERS_SQL =
+            "SELECT " +
+            "  (SELECT COUNT(*) FROM facilities WHERE active = true) AS total_facilities, " +
+            "  (SELECT COUNT(*) FROM patients) AS total_patients, " +
+            "  (SELECT COUNT(*) FROM vaccinations) AS total_vaccinations, " +
+            "  (SELECT COUNT(*) FROM campaigns WHERE status = 'ACTIVE' " +
+            "     AND ? BETWEEN start_date AND end_date) AS active_campaigns, " +
+            "  b.total_doses, b.low_stock, b.expiring, b.facilities_with_alerts " +
+            "FROM (" +
+            "  SELECT COALESCE(SUM(vb.quantity_remaining), 0) AS total_doses, " +
+            "         COUNT(*) FILTER (WHERE vb.quantity_remaining > 0 AND vb.quantity_remaining < ?) AS low_stock, " +
+            "         COUNT(*) FILTER (WHERE vb.expiry_date > ? AND vb.expiry_date < ?) AS expiring, " +
+            "         COUNT(DISTINCT f.id) FILTER (WHERE vb.quantity_remaining < ? " +
+            "             OR (vb.expiry_date > ? AND vb.expiry_date < ?)) AS facilities_with_alerts " +
+            "  FROM vaccine_batches vb " +
+            "  LEFT JOIN facilities f ON f.id = vb.facility_id AND f.active = true" +
+            ") b";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NationalCounters fetchCounters(LocalDate today, LocalDate expiryWarningDate) {
+        Date now = Date.valueOf(today);
+        Date warning = Date.valueOf(expiryWarningDate);
+        return jdbcTemplate.queryForObject(NATIONAL_COUNTERS_SQL, (rs, rowNum) -> NationalCounters.builder()
+                        .totalFacilities(rs.getLong("total_facilities"))
+                        .totalPatients(rs.getLong("total_patients"))
+                        .totalVaccinations(rs.getLong("total_vaccinations"))
+                        .activeCampaigns(rs.getLong("active_campaigns"))
+                        .totalDosesAvailable(rs.getLong("total_doses"))
+                        .lowStockBatches(rs.getLong("low_stock"))
+                        .expiringBatches(rs.getLong("expiring"))
+                        .facilitiesWithAlerts(rs.getLong("facilities_with_alerts"))
+                        .build(),
+                now, LOW_STOCK_THRESHOLD, now, warning, LOW_STOCK_THRESHOLD, now, warning);
+    }
+
+    @Value
+    @Builder
+    public static class NationalCounters {
+        long totalFacilities;
+        long totalPatients;
+        long totalVaccinations;
+        long activeCampaigns;
+        long totalDosesAvailable;
+        long lowStockBatches;
+        long expiringBatches;
+        long facilitiesWithAlerts;
+    }
+}
@@ -0,0 +1,100 @@
+package com.immunizationdb.reporting.repository;
+
+import com.immunizationdb.reporting.entity.PatientDoseCohort;
+import com.immunizationdb.reporting.entity.PatientDoseCohortId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Dropout queries accept a null facilityId meaning "all facilities" and return one row of
+ * [patients with the first dose, patients with both the first and the final dose].
+ */
+@Repository
+public interface PatientDoseCohortRepository extends JpaRepository<PatientDoseCohort, PatientDoseCohortId> {
+
+    String VACCINE_KEY_SQL = "CASE WHEN UPPER(TRIM(v.vaccine_name)) IN ('PENTA', 'DTP', 'PENTAVALENT') THEN 'PENTA' " +
+            "ELSE UPPER(TRIM(v.vaccine_name)) END";
+
+    /**
+     * Shared with the JDBC batch path in DoseCohortService, which binds the same named parameters.
+     * The row keeps the facility of the lowest dose number received, the earliest one for dose 1,
+     * which is the same facility {@link #rebuildFromVaccinations} picks.
+     */
+    String RECORD_DOSE_SQL = "INSERT INTO patient_dose_cohort " +
+           "(patient_id, vaccine_key, facility_id, birth_date, dose_mask, first_dose_date, updated_at) " +
+           "SELECT p.id, :vaccineKey, :facilityId, p.date_of_birth, :doseBit, " +
+           "CASE WHEN :doseNumber = 1 THEN CAST(:dateAdministered AS DATE) END, CURRENT_TIMESTAMP " +
+           "FROM patients p WHERE p.id = :patientId " +
+           "ON CONFLICT (patient_id, vaccine_key) DO UPDATE SET " +
+           "facility_id = CASE WHEN EXCLUDED.dose_mask < (patient_dose_cohort.dose_mask & -patient_dose_cohort.dose_mask) " +
+           "OR (:doseNumber = 1 AND EXCLUDED.first_dose_date < patient_dose_cohort.first_dose_date) " +
+           "THEN EXCLUDED.facility_id ELSE patient_dose_cohort.facility_id END, " +
+           "dose_mask = patient_dose_cohort.dose_mask | EXCLUDED.dose_mask, " +
+           "first_dose_date = LEAST(patient_dose_cohort.first_dose_date, EXCLUDED.first_dose_date), " +
+           "updated_at = CURRENT_TIMESTAMP";
+
+    @Modifying
+    @Query(value = RECORD_DOSE_SQL, nativeQuery = true)
+    void recordDose(
+        @Param("patientId") UUID patientId,
+        @Param("vaccineKey") String vaccineKey,
+        @Param("facilityId") String facilityId,
+        @Param("doseNumber") Integer doseNumber,
+        @Param("doseBit") int doseBit,
+        @Param("dateAdministered") LocalDate dateAdministered
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM patient_dose_cohort", nativeQuery = true)
+    void deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO patient_dose_cohort " +
+           "(patient_id, vaccine_key, facility_id, birth_date, dose_mask, first_dose_date, updated_at) " +
+           "SELECT v.patient_id, " + VACCINE_KEY_SQL + ", " +
+           "(ARRAY_AGG(v.facility_id ORDER BY v.dose_number, v.date_administered, v.id))[1], p.date_of_birth, " +
+           "BIT_OR(1 << (v.dose_number - 1)), " +
+           "MIN(v.date_administered) FILTER (WHERE v.dose_number = 1), CURRENT_TIMESTAMP " +
+           "FROM vaccinations v JOIN patients p ON p.id = v.patient_id " +
+           "WHERE v.dose_number BETWEEN 1 AND 31 " +
+           "GROUP BY v.patient_id, " + VACCINE_KEY_SQL + ", p.date_of_birth",
+           nativeQuery = true)
+    int rebuildFromVaccinations();
+
+    @Query(value = "SELECT COUNT(*) AS started, " +
+           "COUNT(*) FILTER (WHERE (c.dose_mask & :finalDoseBit) <> 0) AS completed " +
+           "FROM patient_dose_cohort c " +
+           "WHERE c.vaccine_key = :vaccineKey " +
+           "AND (CAST(:facilityId AS VARCHAR) IS NULL OR c.facility_id = :facilityId) " +
+           "AND c.first_dose_date BETWEEN :startDate AND :endDate",
+           nativeQuery = true)
+    List<Object[]> countDoseOneCohort(
+        @Param("facilityId") String facilityId,
+        @Param("vaccineKey") String vaccineKey,
+        @Param("finalDoseBit") int finalDoseBit,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    @Query(value = "SELECT COUNT(*) FILTER (WHERE (c.dose_mask & 1) <> 0) AS started, " +
+           "COUNT(*) FILTER (WHERE (c.dose_mask & (1 | :finalDoseBit)) = (1 | :finalDoseBit)) AS completed " +
+           "FROM patient_dose_cohort c " +
+           "WHERE c.vaccine_key = :vaccineKey " +
+           "AND (CAST(:facilityId AS VARCHAR) IS NULL OR c.facility_id = :facilityId) " +
+           "AND c.birth_date BETWEEN :startDate AND :endDate",
+           nativeQuery = true)
+    List<Object[]> countBirthCohort(
+        @Param("facilityId") String facilityId,
+        @Param("vaccineKey") String vaccineKey,
+        @Param("finalDoseBit") int finalDoseBit,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,48 @@
+package com.immunizationdb.reporting.scheduler;
+
+import com.immunizationdb.reporting.service.DoseCohortService;
+import com.immunizationdb.vaccination.repository.VaccinationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DoseCohortScheduler {
+
+    private final DoseCohortService doseCohortService;
+    private final VaccinationRepository vaccinationRepository;
+
+    /**
+     * Backfill dose masks on startup when the cohort table is empty but vaccinations exist
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (doseCohortService.isEmpty() && vaccinationRepository.count() > 0) {
+                log.info("Patient dose cohort is empty, backfilling from vaccinations");
+                doseCohortService.rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill patient dose cohort", e);
+        }
+    }
+
+    /**
+     * Scheduled job runs daily at 2:45 AM
+     * Rebuilds dose masks to repair any drift from direct data fixes
+     */
+    @Scheduled(cron = "0 45 2 * * ?") // Every day at 2:45 AM
+    public void rebuildCohort() {
+        log.info("Starting daily patient dose cohort rebuild job...");
+        try {
+            doseCohortService.rebuild();
+        } catch (Exception e) {
+            log.error("Daily patient dose cohort rebuild job failed", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.immunizationdb.reporting.scheduler;
+
+import com.immunizationdb.reporting.service.NationalStatisticsSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NationalStatisticsScheduler {
+
+    private final NationalStatisticsSnapshotService snapshotService;
+
+    /**
+     * Scheduled job refreshes the national statistics snapshot every minute
+     */
+    @Scheduled(fixedDelayString = "${reporting.national-stats.refresh-interval-ms:60000}", initialDelay = 5000)
+    public void refreshSnapshot() {
+        try {
+            snapshotService.refresh();
+        } catch (Exception e) {
+            log.error("Failed to refresh national statistics snapshot", e);
+        }
+    }
+}
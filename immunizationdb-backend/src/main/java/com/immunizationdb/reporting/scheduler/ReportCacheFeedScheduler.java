@@ -0,0 +1,30 @@
+package com.immunizationdb.reporting.scheduler;
+
+import com.immunizationdb.reporting.service.ReportCacheFeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportCacheFeedScheduler {
+
+    private final ReportCacheFeed reportCacheFeed;
+
+    /**
+     * Apply vaccinations recorded on any instance to this instance's report caches
+     */
+    @Scheduled(fixedDelayString = "${reporting.cache-feed.poll-interval-ms:2000}")
+    public void pollRecordedVaccinations() {
+        try {
+            int handed = reportCacheFeed.poll();
+            if (handed > 0) {
+                log.debug("Applied {} recorded vaccinations to the report caches", handed);
+            }
+        } catch (Exception e) {
+            log.error("Report cache feed poll failed, retrying on the next run", e);
+        }
+    }
+}
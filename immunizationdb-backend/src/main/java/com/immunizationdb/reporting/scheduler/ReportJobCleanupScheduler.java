@@ -0,0 +1,28 @@
+package com.immunizationdb.reporting.scheduler;
+
+import com.immunizationdb.reporting.service.ReportJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobCleanupScheduler {
+
+    private final ReportJobService reportJobService;
+
+    /**
+     * Scheduled job runs every 5 minutes
+     * Deletes report job results whose TTL has expired
+     */
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void purgeExpiredJobs() {
+        try {
+            reportJobService.purgeExpired();
+        } catch (Exception e) {
+            log.error("Failed to purge expired report jobs", e);
+        }
+    }
+}
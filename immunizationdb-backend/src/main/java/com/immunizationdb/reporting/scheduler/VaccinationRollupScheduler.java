@@ -0,0 +1,49 @@
+package com.immunizationdb.reporting.scheduler;
+
+import com.immunizationdb.reporting.service.VaccinationRollupService;
+import com.immunizationdb.vaccination.repository.VaccinationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VaccinationRollupScheduler {
+
+    private final VaccinationRollupService rollupService;
+    private final VaccinationRepository vaccinationRepository;
+
+    /**
+     * Backfill the rollup on startup when it is empty but vaccinations exist
+     * (e.g. after seeding or when Flyway is disabled and Hibernate created the table)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (rollupService.isEmpty() && vaccinationRepository.count() > 0) {
+                log.info("Daily vaccination rollup is empty, backfilling from vaccinations");
+                rollupService.rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill daily vaccination rollup", e);
+        }
+    }
+
+    /**
+     * Scheduled job runs daily at 2:30 AM
+     * Rebuilds the rollup to repair any drift from direct data fixes
+     */
+    @Scheduled(cron = "0 30 2 * * ?") // Every day at 2:30 AM
+    public void rebuildRollup() {
+        log.info("Starting daily vaccination rollup rebuild job...");
+        try {
+            rollupService.rebuild();
+        } catch (Exception e) {
+            log.error("Daily vaccination rollup rebuild job failed", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.immunizationdb.reporting.service;
+
+import com.immunizationdb.config.PrimaryReads;
+import com.immunizationdb.reporting.dto.DashboardStatsResponse;
+import com.immunizationdb.reporting.event.FacilityDataChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-facility cache of dashboard statistics.
+ * Entries are evicted by {@link FacilityDataChangedEvent}s once the publishing transaction commits;
+ * the TTL only bounds staleness for date-driven changes such as batches entering the expiry window.
+ * Misses are loaded from the primary, never from a lagging read replica.
+ * Hit, miss and eviction counts are published as reporting.dashboard.cache.* metrics.
+ */
+@Component
+@Slf4j
+public class DashboardStatsCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, CachedStats> entries;
+    // Facilities whose statistics are being computed, guarded by entries; a data change meanwhile voids the result
+    private final InFlightLoads<String> loads = new InFlightLoads<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    private final PrimaryReads primaryReads;
+
+    public DashboardStatsCache(
+            MeterRegistry meterRegistry,
+            PrimaryReads primaryReads,
+            @Value("${reporting.dashboard-cache.max-entries:1000}") int maxEntries,
+            @Value("${reporting.dashboard-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.primaryReads = primaryReads;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStats> eldest) {
+                return size() > DashboardStatsCache.this.maxEntries;
+            }
+        };
+
+        this.hits = Counter.builder("reporting.dashboard.cache.requests")
+                .tag("result", "hit")
+                .description("Dashboard statistics served from cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("reporting.dashboard.cache.requests")
+                .tag("result", "miss")
+                .description("Dashboard statistics loaded from the database")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("reporting.dashboard.cache.invalidations")
+                .description("Dashboard cache entries invalidated by data changes")
+                .register(meterRegistry);
+        Gauge.builder("reporting.dashboard.cache.size", this, DashboardStatsCache::size)
+                .description("Facilities with cached dashboard statistics")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get cached statistics for a facility, loading them on a miss or after the TTL has passed
+     */
+    public DashboardStatsResponse get(String facilityId, Supplier<DashboardStatsResponse> loader) {
+        long now = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        synchronized (entries) {
+            CachedStats cached = entries.get(facilityId);
+            if (cached != null && cached.expiresAt > now && cached.day.equals(today)) {
+                hits.increment();
+                return cached.stats;
+            }
+        }
+
+        misses.increment();
+        InFlightLoads.Load<String> load;
+        synchronized (entries) {
+            load = loads.begin(facilityId);
+        }
+        DashboardStatsResponse stats = null;
+        try {
+            stats = primaryReads.load(loader);
+        } finally {
+            synchronized (entries) {
+                if (loads.end(load) && stats != null) {
+                    entries.put(facilityId, new CachedStats(stats, today, now + ttlMillis));
+                }
+            }
+        }
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFacilityDataChanged(FacilityDataChangedEvent event) {
+        synchronized (entries) {
+            if (event.getFacilityId() == null) {
+                loads.invalidateAll();
+                invalidations.increment(entries.size());
+                entries.clear();
+            } else {
+                loads.invalidate(event.getFacilityId());
+                if (entries.remove(event.getFacilityId()) != null) {
+                    invalidations.increment();
+                }
+            }
+        }
+        log.debug("Dashboard cache invalidated: {}", event);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record CachedStats(DashboardStatsResponse stats, LocalDate day, long expiresAt) {
+    }
+}
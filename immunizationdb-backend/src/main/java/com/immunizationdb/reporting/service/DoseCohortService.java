@@ -0,0 +1,135 @@
+package com.immunizationdb.reporting.service;
+
+import com.immunizationdb.reporting.dto.DropoutReportResponse;
+import com.immunizationdb.reporting.dto.DropoutReportResponse.CohortType;
+import com.immunizationdb.reporting.repository.PatientDoseCohortRepository;
+import com.immunizationdb.vaccination.entity.Vaccination;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tracks, per patient and vaccine series, which doses have been received as a bitmask.
+ * Dropout for a cohort is then a single aggregate over patient_dose_cohort: patients who started
+ * the series versus those whose mask also has the final dose bit set.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoseCohortService {
+
+    private static final int MAX_TRACKED_DOSE = 31;
+
+    private final PatientDoseCohortRepository cohortRepository;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Transactional
+    public void recordVaccination(Vaccination vaccination) {
+        Integer doseNumber = vaccination.getDoseNumber();
+        if (doseNumber == null || doseNumber < 1 || doseNumber > MAX_TRACKED_DOSE) {
+            return;
+        }
+        cohortRepository.recordDose(
+                vaccination.getPatientId(),
+                seriesKey(vaccination.getVaccineName()),
+                vaccination.getFacilityId(),
+                doseNumber,
+                doseBit(doseNumber),
+                vaccination.getDateAdministered());
+    }
+
+    /**
+     * Record many vaccinations with one JDBC batch of upserts
+     */
+    @Transactional
+    public void recordVaccinations(List<Vaccination> vaccinations) {
+        SqlParameterSource[] batch = vaccinations.stream()
+                .filter(v -> v.getDoseNumber() != null
+                        && v.getDoseNumber() >= 1 && v.getDoseNumber() <= MAX_TRACKED_DOSE)
+                .map(v -> new MapSqlParameterSource()
+                        .addValue("patientId", v.getPatientId())
+                        .addValue("vaccineKey", seriesKey(v.getVaccineName()))
+                        .addValue("facilityId", v.getFacilityId())
+                        .addValue("doseNumber", v.getDoseNumber())
+                        .addValue("doseBit", doseBit(v.getDoseNumber()))
+                        .addValue("dateAdministered", v.getDateAdministered()))
+                .toArray(SqlParameterSource[]::new);
+        if (batch.length > 0) {
+            namedParameterJdbcTemplate.batchUpdate(PatientDoseCohortRepository.RECORD_DOSE_SQL, batch);
+        }
+    }
+
+    /**
+     * Recompute all dose masks from the vaccinations table
+     * @return Number of cohort rows written
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        cohortRepository.deleteAllRows();
+        int rows = cohortRepository.rebuildFromVaccinations();
+        log.info("Patient dose cohort rebuilt: {} rows in {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return cohortRepository.count() == 0;
+    }
+
+    /**
+     * Dropout between dose 1 and the final dose of a series
+     * @param facilityId Facility where the series was started, or null for national
+     */
+    @Transactional(readOnly = true)
+    public DropoutReportResponse getDropout(String facilityId, String vaccine, int finalDose,
+                                            CohortType cohortType, LocalDate startDate, LocalDate endDate) {
+        if (finalDose < 2 || finalDose > MAX_TRACKED_DOSE) {
+            throw new RuntimeException("Final dose must be between 2 and " + MAX_TRACKED_DOSE);
+        }
+        String vaccineKey = seriesKey(vaccine);
+        List<Object[]> result = cohortType == CohortType.BIRTH
+                ? cohortRepository.countBirthCohort(facilityId, vaccineKey, doseBit(finalDose), startDate, endDate)
+                : cohortRepository.countDoseOneCohort(facilityId, vaccineKey, doseBit(finalDose), startDate, endDate);
+
+        Object[] counts = result.isEmpty() ? new Object[]{0L, 0L} : result.get(0);
+        long started = counts[0] != null ? ((Number) counts[0]).longValue() : 0L;
+        long completed = counts[1] != null ? ((Number) counts[1]).longValue() : 0L;
+        double dropoutRate = started > 0 ? ((started - completed) * 100.0) / started : 0.0;
+
+        return DropoutReportResponse.builder()
+                .facilityId(facilityId != null ? facilityId : "ALL")
+                .vaccine(vaccineKey)
+                .finalDose(finalDose)
+                .cohortType(cohortType)
+                .startDate(startDate)
+                .endDate(endDate)
+                .startedCount(started)
+                .completedCount(completed)
+                .dropoutRate(Math.round(dropoutRate * 100.0) / 100.0)
+                .build();
+    }
+
+    /**
+     * PENTA and DTP are recorded under both names but form one series
+     */
+    public static String seriesKey(String vaccineName) {
+        String key = vaccineName == null ? "" : vaccineName.trim().toUpperCase(Locale.ROOT);
+        return switch (key) {
+            case "PENTA", "DTP", "PENTAVALENT" -> "PENTA";
+            default -> key;
+        };
+    }
+
+    private static int doseBit(int doseNumber) {
+        return 1 << (doseNumber - 1);
+    }
+}
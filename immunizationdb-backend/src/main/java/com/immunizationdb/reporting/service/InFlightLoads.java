@@ -0,0 +1,70 @@
+package com.immunizationdb.reporting.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks the cache loads in progress per key, so a load that overlapped an invalidation of its key is not stored.
+ * Only keys with a load in progress have an entry, so the map stays as small as the number of concurrent loads.
+ * Not thread-safe: every call must hold the owning cache's lock.
+ */
+final class InFlightLoads<K> {
+
+    private final Map<K, Pending> pending = new HashMap<>();
+    private long clears;
+
+    /**
+     * Register a load of the key; pass the result to {@link #end} whether or not the load succeeded
+     */
+    Load<K> begin(K key) {
+        Pending state = pending.computeIfAbsent(key, k -> new Pending());
+        state.loads++;
+        return new Load<>(key, state, state.invalidations, clears);
+    }
+
+    /**
+     * Unregister a load
+     * @return Whether the loaded value may be stored: neither its key nor the whole cache was invalidated meanwhile
+     */
+    boolean end(Load<K> load) {
+        Pending state = load.state;
+        if (--state.loads == 0) {
+            pending.remove(load.key);
+        }
+        return state.invalidations == load.invalidations && clears == load.clears;
+    }
+
+    void invalidate(K key) {
+        Pending state = pending.get(key);
+        if (state != null) {
+            state.invalidations++;
+        }
+    }
+
+    void invalidateAll() {
+        clears++;
+    }
+
+    static final class Load<K> {
+        private final K key;
+        private final Pending state;
+        private final long invalidations;
+        private final long clears;
+
+        private Load(K key, Pending state, long invalidations, long clears) {
+            this.key = key;
+            this.state = state;
+            this.invalidations = invalidations;
+            this.clears = clears;
+        }
+
+        K key() {
+            return key;
+        }
+    }
+
+    private static final class Pending {
+        private int loads;
+        private long invalidations;
+    }
+}
@@ -0,0 +1,139 @@
+package com.immunizationdb.reporting.service;
+
+import com.immunizationdb.config.PrimaryReads;
+import com.immunizationdb.config.TransactionHooks;
+import com.immunizationdb.reporting.repository.DailyVaccinationRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monthly vaccination counts keyed by (facility, YearMonth).
+ * Closed months are computed once, from the primary, and reused; the current open month is always read fresh.
+ * Back-dated vaccinations evict their month after the recording transaction commits, and a load that
+ * overlapped an eviction is not stored.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyTrendStore {
+
+    private static final String ALL_FACILITIES = "ALL";
+
+    private final DailyVaccinationRollupRepository rollupRepository;
+    private final PrimaryReads primaryReads;
+    private final Map<TrendKey, Long> closedMonths = new ConcurrentHashMap<>();
+    // Months being read from the rollup, guarded by closedMonths; a back-dated vaccination landing mid-read drops it
+    private final InFlightLoads<TrendKey> loads = new InFlightLoads<>();
+
+    /**
+     * Get vaccination counts for every month from {@code from} to {@code to} inclusive
+     * @param facilityId Facility ID, or null for all facilities
+     * @return Counts in chronological order (months without vaccinations map to 0)
+     */
+    public Map<YearMonth, Long> getMonthlyCounts(String facilityId, YearMonth from, YearMonth to) {
+        String facilityKey = facilityKey(facilityId);
+        YearMonth openMonth = YearMonth.now();
+
+        // Take the cached prefix of the range; the earliest month without a count has to come from the database
+        Map<YearMonth, Long> counts = new LinkedHashMap<>();
+        YearMonth firstToLoad = null;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            Long cached = month.isBefore(openMonth) ? closedMonths.get(new TrendKey(facilityKey, month)) : null;
+            if (cached == null) {
+                firstToLoad = month;
+                break;
+            }
+            counts.put(month, cached);
+        }
+        if (firstToLoad == null) {
+            return counts;
+        }
+
+        List<InFlightLoads.Load<TrendKey>> closedLoads = new ArrayList<>();
+        synchronized (closedMonths) {
+            for (YearMonth month = firstToLoad; !month.isAfter(to) && month.isBefore(openMonth); month = month.plusMonths(1)) {
+                closedLoads.add(loads.begin(new TrendKey(facilityKey, month)));
+            }
+        }
+
+        // One grouped query covers every uncached month in the range
+        YearMonth loadFrom = firstToLoad;
+        boolean loadedAll = false;
+        try {
+            Map<YearMonth, Long> loaded = new HashMap<>();
+            for (Object[] row : primaryReads.load(() -> rollupRepository.sumVaccinationsByMonth(
+                    facilityId, loadFrom.atDay(1), to.atEndOfMonth()))) {
+                LocalDate monthStart = row[0] instanceof Date date ? date.toLocalDate() : (LocalDate) row[0];
+                loaded.put(YearMonth.from(monthStart), ((Number) row[1]).longValue());
+            }
+            for (YearMonth month = firstToLoad; !month.isAfter(to); month = month.plusMonths(1)) {
+                counts.put(month, loaded.getOrDefault(month, 0L));
+            }
+            loadedAll = true;
+        } finally {
+            synchronized (closedMonths) {
+                for (InFlightLoads.Load<TrendKey> load : closedLoads) {
+                    if (loads.end(load) && loadedAll) {
+                        closedMonths.put(load.key(), counts.get(load.key().month()));
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Evict the month containing {@code date} for the facility and the national total.
+     * When called inside a transaction the eviction is deferred until commit so a concurrent
+     * reader cannot re-cache the pre-commit count.
+     */
+    public void invalidate(String facilityId, LocalDate date) {
+        YearMonth month = YearMonth.from(date);
+        if (!month.isBefore(YearMonth.now())) {
+            return; // Open month is never cached
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (closedMonths) {
+                evict(new TrendKey(facilityKey(facilityId), month));
+                evict(new TrendKey(ALL_FACILITIES, month));
+            }
+            log.debug("Invalidated trend cache for facility {} month {}", facilityId, month);
+        });
+    }
+
+    /**
+     * Drop every cached month, after the current transaction commits if there is one
+     */
+    public void clear() {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (closedMonths) {
+                loads.invalidateAll();
+                closedMonths.clear();
+            }
+            log.debug("Cleared trend cache");
+        });
+    }
+
+    private void evict(TrendKey key) {
+        loads.invalidate(key);
+        closedMonths.remove(key);
+    }
+
+    private static String facilityKey(String facilityId) {
+        return facilityId == null ? ALL_FACILITIES : facilityId;
+    }
+
+    private record TrendKey(String facilityId, YearMonth month) {
+    }
+}
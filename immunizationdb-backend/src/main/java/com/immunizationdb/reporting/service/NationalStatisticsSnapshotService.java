@@ -0,0 +1,37 @@
+package com.immunizationdb.reporting.service;
+
+import com.immunizationdb.config.PrimaryReads;
+import com.immunizationdb.reporting.dto.NationalStatisticsResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the latest materialized national statistics so the dashboard never waits on aggregation.
+ * The snapshot is refreshed by NationalStatisticsScheduler and computed on demand only before the first refresh,
+ * always from the primary.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NationalStatisticsSnapshotService {
+
+    private final ReportingService reportingService;
+    private final PrimaryReads primaryReads;
+    private final AtomicReference<NationalStatisticsResponse> snapshot = new AtomicReference<>();
+
+    public NationalStatisticsResponse getSnapshot() {
+        NationalStatisticsResponse current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    public NationalStatisticsResponse refresh() {
+        long start = System.currentTimeMillis();
+        NationalStatisticsResponse fresh = primaryReads.load(reportingService::getNationalStatistics);
+        snapshot.set(fresh);
+        log.debug("National statistics snapshot refreshed in {} ms", System.currentTimeMillis() - start);
+        return fresh;
+    }
+}
@@ -0,0 +1,112 @@
+package com.immunizationdb.reporting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immunizationdb.outbox.entity.OutboxEvent;
+import com.immunizationdb.outbox.repository.OutboxEventRepository;
+import com.immunizationdb.reporting.event.FacilityDataChangedEvent;
+import com.immunizationdb.reporting.event.VaccinationRecordedEvent;
+import com.immunizationdb.reporting.event.VaccinationRecordedMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hands vaccinations recorded on any instance to the in-memory report caches on this instance: the column store
+ * through {@link VaccinationRecordedEvent}s, the dashboard cache through {@link FacilityDataChangedEvent}s and the
+ * closed months of the {@link MonthlyTrendStore}.
+ * An outbox handler runs on one instance only, so each instance reads the VaccinationRecorded events itself.
+ * Events are not committed in id order, so every poll reads back a lookback window by creation time and skips the
+ * ids it already handed over; the caches skip vaccinations they already hold, so a repeat is harmless.
+ */
+@Component
+@Slf4j
+public class ReportCacheFeed {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MonthlyTrendStore monthlyTrendStore;
+    private final TransactionTemplate transactionTemplate;
+    private final long lookbackSeconds;
+
+    // Guarded by this: events handed over whose creation time is still inside the window
+    private final Map<Long, LocalDateTime> applied = new HashMap<>();
+    private LocalDateTime windowStart;
+
+    public ReportCacheFeed(OutboxEventRepository outboxEventRepository,
+                           ObjectMapper objectMapper,
+                           ApplicationEventPublisher eventPublisher,
+                           MonthlyTrendStore monthlyTrendStore,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${reporting.cache-feed.lookback-seconds:120}") long lookbackSeconds) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.monthlyTrendStore = monthlyTrendStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lookbackSeconds = lookbackSeconds;
+        // The caches load what was committed before startup themselves
+        this.windowStart = LocalDateTime.now().minusSeconds(lookbackSeconds);
+    }
+
+    /**
+     * Hand over the vaccinations committed since the last poll.
+     * The events are published inside a transaction so listeners waiting for a commit run once it ends.
+     * @return Number of vaccinations handed over
+     */
+    public synchronized int poll() {
+        Map<Long, LocalDateTime> handed = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> fresh = new ArrayList<>();
+            for (Object[] row : outboxEventRepository.findIdsCreatedSince(VaccinationRecordedMessage.TYPE, windowStart)) {
+                Long id = (Long) row[0];
+                if (!applied.containsKey(id)) {
+                    fresh.add(id);
+                    handed.put(id, (LocalDateTime) row[1]);
+                }
+            }
+            if (!fresh.isEmpty()) {
+                publish(outboxEventRepository.findAllById(fresh));
+            }
+        });
+
+        applied.putAll(handed);
+        LocalDateTime newest = applied.values().stream().max(LocalDateTime::compareTo).orElse(windowStart);
+        LocalDateTime start = newest.minusSeconds(lookbackSeconds);
+        if (start.isAfter(windowStart)) {
+            windowStart = start;
+            applied.values().removeIf(createdAt -> createdAt.isBefore(windowStart));
+        }
+        return handed.size();
+    }
+
+    private void publish(List<OutboxEvent> events) {
+        Set<String> facilities = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            VaccinationRecordedMessage message;
+            try {
+                message = objectMapper.readValue(event.getPayload(), VaccinationRecordedMessage.class);
+            } catch (IOException e) {
+                log.warn("Skipped unreadable outbox event {}: {}", event.getId(), e.getMessage());
+                continue;
+            }
+            eventPublisher.publishEvent(new VaccinationRecordedEvent(message.toVaccination()));
+            monthlyTrendStore.invalidate(message.getFacilityId(), message.getDateAdministered());
+            facilities.add(message.getFacilityId());
+        }
+        facilities.forEach(facilityId -> eventPublisher.publishEvent(
+                new FacilityDataChangedEvent(facilityId, FacilityDataChangedEvent.Source.VACCINATION)));
+    }
+}
@@ -0,0 +1,186 @@
+package com.immunizationdb.reporting.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams line-level report data as CSV straight from a server-side cursor to the response.
+ * Rows are never collected in memory: the PostgreSQL driver fetches {@value #FETCH_SIZE} rows at a time
+ * inside a read-only transaction and each row is written as soon as it arrives.
+ */
+@Service
+@Slf4j
+public class ReportExportService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReportExportService(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public enum ExportDataset {
+        VACCINATIONS, PATIENTS, STOCK_MOVEMENTS;
+
+        public static ExportDataset fromParam(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown export dataset: " + value);
+            }
+        }
+
+        public String fileName() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    /**
+     * Write the dataset as CSV to the given stream
+     * @param facilityId Facility ID, or null for all facilities
+     * @param startDate Start of the date range (ignored for the patient register)
+     * @param endDate End of the date range, inclusive (ignored for the patient register)
+     * @param gzip Whether to gzip-compress the output
+     * @return Number of data rows written
+     */
+    public long export(ExportDataset dataset, String facilityId, LocalDate startDate, LocalDate endDate,
+                       boolean gzip, OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 16384);
+
+        List<Object> args = new ArrayList<>();
+        String sql = buildQuery(dataset, facilityId, startDate, endDate, args);
+
+        long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> cursorJdbcTemplate.query(sql, rs -> {
+                writeHeader(writer, rs.getMetaData());
+                long count = 0;
+                while (rs.next()) {
+                    writeRow(writer, rs);
+                    count++;
+                }
+                return count;
+            }, args.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        outputStream.flush();
+
+        log.info("Exported {} {} rows for facility {} in {} ms",
+                rows, dataset, facilityId != null ? facilityId : "ALL", System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private String buildQuery(ExportDataset dataset, String facilityId, LocalDate startDate, LocalDate endDate,
+                              List<Object> args) {
+        StringBuilder sql = new StringBuilder();
+        switch (dataset) {
+            case VACCINATIONS -> {
+                sql.append("SELECT v.id, v.date_administered, v.facility_id, v.patient_id, v.vaccine_name, ")
+                   .append("v.dose_number, v.batch_id, v.nurse_id, v.administration_site, v.created_at ")
+                   .append("FROM vaccinations v WHERE v.date_administered BETWEEN ? AND ?");
+                args.add(Date.valueOf(startDate));
+                args.add(Date.valueOf(endDate));
+                appendFacilityFilter(sql, "v.facility_id", facilityId, args);
+                sql.append(" ORDER BY v.date_administered, v.id");
+            }
+            case PATIENTS -> {
+                sql.append("SELECT p.id, p.full_name, p.date_of_birth, p.gender, p.guardian_name, ")
+                   .append("p.phone_number, p.facility_id, p.created_at ")
+                   .append("FROM patients p WHERE p.deleted = false");
+                appendFacilityFilter(sql, "p.facility_id", facilityId, args);
+                sql.append(" ORDER BY p.created_at, p.id");
+            }
+            case STOCK_MOVEMENTS -> {
+                sql.append("SELECT m.id, m.created_at, m.facility_id, m.vaccine_id, m.batch_number, ")
+                   .append("m.movement_type, m.quantity, m.reason, m.created_by ")
+                   .append("FROM stock_movements m WHERE m.created_at >= ? AND m.created_at < ?");
+                args.add(Timestamp.valueOf(startDate.atStartOfDay()));
+                args.add(Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+                appendFacilityFilter(sql, "m.facility_id", facilityId, args);
+                sql.append(" ORDER BY m.created_at, m.id");
+            }
+        }
+        return sql.toString();
+    }
+
+    private void appendFacilityFilter(StringBuilder sql, String column, String facilityId, List<Object> args) {
+        if (facilityId != null && !facilityId.isBlank() && !facilityId.equals("ALL")) {
+            sql.append(" AND ").append(column).append(" = ?");
+            args.add(facilityId);
+        }
+    }
+
+    private void writeHeader(Writer writer, ResultSetMetaData metaData) throws SQLException {
+        try {
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writer.write(metaData.getColumnLabel(i));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRow(Writer writer, ResultSet rs) throws SQLException {
+        int columnCount = rs.getMetaData().getColumnCount();
+        try {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i);
+                if (value != null) {
+                    writer.write(escapeCsv(value.toString()));
+                }
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            // Client disconnected - abort the cursor instead of reading the remaining rows
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
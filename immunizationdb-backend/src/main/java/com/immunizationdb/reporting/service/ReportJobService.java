@@ -0,0 +1,296 @@
+package com.immunizationdb.reporting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immunizationdb.reporting.dto.ReportJobRequest;
+import com.immunizationdb.reporting.dto.ReportJobResponse;
+import com.immunizationdb.reporting.dto.ReportJobResponse.JobStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs heavy coverage and stock reports off the request thread.
+ * Jobs execute on a bounded worker pool, each user may only have a limited number of jobs in flight,
+ * and identical in-flight requests share one job. Results are written to disk as gzip-compressed JSON
+ * and removed once their TTL expires.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobService {
+
+    private final ReportingService reportingService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${reporting.jobs.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${reporting.jobs.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${reporting.jobs.max-concurrent-per-user:2}")
+    private int maxConcurrentPerUser;
+
+    @Value("${reporting.jobs.result-ttl-minutes:60}")
+    private long resultTtlMinutes;
+
+    @Value("${reporting.jobs.storage-dir:${java.io.tmpdir}/immunizationdb-report-jobs}")
+    private String storageDir;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, String> inFlightJobsByKey = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlightJobsByUser = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private Path storagePath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        storagePath = Paths.get(storageDir);
+        Files.createDirectories(storagePath);
+        // Artifacts from a previous run cannot be reached any more since job metadata is in memory
+        try (Stream<Path> files = Files.list(storagePath)) {
+            files.filter(f -> f.getFileName().toString().endsWith(".json.gz")).forEach(this::deleteQuietly);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("Report job service initialized - workers: {}, queue capacity: {}, per-user limit: {}, storage: {}",
+                workerThreads, queueCapacity, maxConcurrentPerUser, storagePath);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submit a report job, or attach to an identical job that is still queued or running
+     */
+    public synchronized ReportJobResponse submit(ReportJobRequest request, String username) {
+        ReportJobRequest normalized = normalize(request);
+        String dedupKey = dedupKey(normalized);
+
+        String existingJobId = inFlightJobsByKey.get(dedupKey);
+        if (existingJobId != null) {
+            ReportJob existing = jobs.get(existingJobId);
+            if (existing != null && (existing.status == JobStatus.QUEUED || existing.status == JobStatus.RUNNING)) {
+                existing.subscribers.add(username);
+                log.info("User {} attached to in-flight report job {}", username, existing.id);
+                return toResponse(existing);
+            }
+        }
+
+        AtomicInteger userJobs = inFlightJobsByUser.computeIfAbsent(username, u -> new AtomicInteger());
+        if (userJobs.get() >= maxConcurrentPerUser) {
+            throw new RuntimeException(String.format(
+                    "You already have %d report jobs running. Wait for one to finish before submitting another.",
+                    maxConcurrentPerUser));
+        }
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), normalized, username, dedupKey);
+        job.subscribers.add(username);
+        jobs.put(job.id, job);
+        inFlightJobsByKey.put(dedupKey, job.id);
+        userJobs.incrementAndGet();
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            release(job);
+            throw new RuntimeException("Report queue is full. Please try again later.");
+        }
+
+        log.info("Report job {} submitted by {}: {}", job.id, username, dedupKey);
+        return toResponse(job);
+    }
+
+    public ReportJobResponse getJob(String jobId, String username) {
+        return toResponse(findAccessibleJob(jobId, username));
+    }
+
+    /**
+     * Get the compressed result file of a completed job
+     */
+    public Path getResultPath(String jobId, String username) {
+        ReportJob job = findAccessibleJob(jobId, username);
+        if (job.status != JobStatus.COMPLETED || job.resultPath == null || !Files.exists(job.resultPath)) {
+            throw new RuntimeException("Report job " + jobId + " has no result available (status: " + job.status + ")");
+        }
+        return job.resultPath;
+    }
+
+    /**
+     * Delete result files and forget finished jobs whose TTL has expired
+     * @return Number of jobs purged
+     */
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        for (ReportJob job : jobs.values()) {
+            if (job.expiresAt != null && job.expiresAt.isBefore(now)) {
+                if (job.resultPath != null) {
+                    deleteQuietly(job.resultPath);
+                }
+                jobs.remove(job.id);
+                purged++;
+            }
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired report jobs", purged);
+        }
+        return purged;
+    }
+
+    private void run(ReportJob job) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        try {
+            ReportJobRequest request = job.request;
+            Object result = switch (request.getReportType()) {
+                case COVERAGE -> reportingService.getCoverageReport(
+                        request.getFacilityId(), request.getStartDate(), request.getEndDate());
+                case STOCK -> reportingService.getStockReport(request.getFacilityId());
+            };
+
+            Path resultPath = storagePath.resolve(job.id + ".json.gz");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(resultPath))) {
+                objectMapper.writeValue(out, result);
+            }
+            job.resultPath = resultPath;
+            job.status = JobStatus.COMPLETED;
+            log.info("Report job {} completed in {} ms", job.id,
+                    java.time.Duration.between(job.startedAt, LocalDateTime.now()).toMillis());
+        } catch (Exception e) {
+            log.error("Report job {} failed: {}", job.id, e.getMessage(), e);
+            job.errorMessage = e.getMessage();
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            job.expiresAt = job.completedAt.plusMinutes(resultTtlMinutes);
+            release(job);
+        }
+    }
+
+    private synchronized void release(ReportJob job) {
+        inFlightJobsByKey.remove(job.dedupKey, job.id);
+        AtomicInteger userJobs = inFlightJobsByUser.get(job.owner);
+        if (userJobs != null) {
+            userJobs.decrementAndGet();
+        }
+    }
+
+    private ReportJob findAccessibleJob(String jobId, String username) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null || !job.subscribers.contains(username)) {
+            throw new RuntimeException("Report job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private ReportJobRequest normalize(ReportJobRequest request) {
+        String facilityId = request.getFacilityId();
+        if (facilityId != null && (facilityId.isBlank() || facilityId.equals("ALL"))) {
+            facilityId = null;
+        }
+        if (request.getReportType() == ReportJobRequest.ReportType.STOCK) {
+            if (facilityId == null) {
+                throw new RuntimeException("Facility ID is required for stock reports");
+            }
+            return ReportJobRequest.builder()
+                    .reportType(request.getReportType())
+                    .facilityId(facilityId)
+                    .build();
+        }
+        LocalDate endDate = request.getEndDate() != null ? request.getEndDate() : LocalDate.now();
+        LocalDate startDate = request.getStartDate() != null ? request.getStartDate() : endDate.minusDays(30);
+        return ReportJobRequest.builder()
+                .reportType(request.getReportType())
+                .facilityId(facilityId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+    }
+
+    private String dedupKey(ReportJobRequest request) {
+        return request.getReportType() + "|" + request.getFacilityId() + "|"
+                + request.getStartDate() + "|" + request.getEndDate();
+    }
+
+    private ReportJobResponse toResponse(ReportJob job) {
+        JobStatus status = job.expiresAt != null && job.expiresAt.isBefore(LocalDateTime.now())
+                ? JobStatus.EXPIRED : job.status;
+        return ReportJobResponse.builder()
+                .jobId(job.id)
+                .reportType(job.request.getReportType())
+                .facilityId(job.request.getFacilityId())
+                .startDate(job.request.getStartDate())
+                .endDate(job.request.getEndDate())
+                .status(status)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .completedAt(job.completedAt)
+                .expiresAt(job.expiresAt)
+                .errorMessage(job.errorMessage)
+                .resultUrl(status == JobStatus.COMPLETED ? "/v1/reports/jobs/" + job.id + "/result" : null)
+                .build();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete report job artifact: {}", path, e);
+        }
+    }
+
+    private static class ReportJob {
+        private final String id;
+        private final ReportJobRequest request;
+        private final String owner;
+        private final String dedupKey;
+        private final Set<String> subscribers = ConcurrentHashMap.newKeySet();
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile LocalDateTime expiresAt;
+        private volatile String errorMessage;
+        private volatile Path resultPath;
+
+        private ReportJob(String id, ReportJobRequest request, String owner, String dedupKey) {
+            this.id = id;
+            this.request = request;
+            this.owner = owner;
+            this.dedupKey = dedupKey;
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package com.immunizationdb.reporting.service;
 
 import com.immunizationdb.campaign.repository.CampaignRepository;
+import com.immunizationdb.facility.Facility;
+import com.immunizationdb.facility.FacilityRepository;
+import com.immunizationdb.inventory.entity.StockAlert;
 import com.immunizationdb.inventory.entity.VaccineBatch;
+import com.immunizationdb.inventory.repository.StockAlertRepository;
 import com.immunizationdb.inventory.repository.VaccineBatchRepository;
 import com.immunizationdb.patient.repository.PatientRepository;
+import com.immunizationdb.reporting.analytics.VaccinationColumnStore;
 import com.immunizationdb.reporting.dto.*;
+import com.immunizationdb.reporting.repository.DailyVaccinationRollupRepository;
+import com.immunizationdb.reporting.repository.NationalStatisticsRepository;
 import com.immunizationdb.vaccination.repository.VaccinationRepository;
+import com.immunizationdb.vaccination.service.VaccineCatalog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,10 +34,23 @@ public class ReportingService {
     private final PatientRepository patientRepository;
     private final VaccinationRepository vaccinationRepository;
     private final VaccineBatchRepository vaccineBatchRepository;
+    private final StockAlertRepository stockAlertRepository;
     private final CampaignRepository campaignRepository;
+    private final FacilityRepository facilityRepository;
+    private final DailyVaccinationRollupRepository rollupRepository;
+    private final NationalStatisticsRepository nationalStatisticsRepository;
+    private final MonthlyTrendStore monthlyTrendStore;
+    private final DashboardStatsCache dashboardStatsCache;
+    private final DoseCohortService doseCohortService;
+    private final VaccineCatalog vaccineCatalog;
+    private final ObjectProvider<VaccinationColumnStore> vaccinationColumnStore;
 
     @Transactional(readOnly = true)
     public DashboardStatsResponse getDashboardStats(String facilityId) {
+        return dashboardStatsCache.get(facilityId, () -> loadDashboardStats(facilityId));
+    }
+
+    private DashboardStatsResponse loadDashboardStats(String facilityId) {
         LocalDate now = LocalDate.now();
         LocalDate startOfMonth = now.withDayOfMonth(1);
 
@@ -36,11 +58,11 @@ public class ReportingService {
         Long vaccinationsThisMonth = vaccinationRepository.countByFacilityIdAndDateRange(
                 facilityId, startOfMonth, now);
         
-        Integer availableBatches = vaccineBatchRepository.findAvailableBatches(facilityId, now).size();
-        Integer expiringBatches = vaccineBatchRepository.findBatchesExpiringSoon(
-                facilityId, now, now.plusDays(30)).size();
+        Integer availableBatches = vaccineBatchRepository.countAvailableBatches(facilityId, now).intValue();
+        Integer expiringBatches = vaccineBatchRepository.countBatchesExpiringSoon(
+                facilityId, now, now.plusDays(30)).intValue();
         
-        Long activeCampaigns = (long) campaignRepository.findActiveCampaignsByFacility(facilityId, now).size();
+        Long activeCampaigns = campaignRepository.countActiveCampaignsByFacility(facilityId, now);
 
         return DashboardStatsResponse.builder()
                 .totalPatients(totalPatients)
@@ -59,6 +81,8 @@ public class ReportingService {
         
         // Handle null facilityId - use all facilities or default
         boolean isAllFacilities = (facilityId == null || facilityId.trim().isEmpty() || facilityId.equals("ALL"));
+        // Rollup queries treat a null facility as "all facilities"
+        String rollupFacilityId = isAllFacilities ? null : facilityId;
         
         // Total patients registered (all patients in facility, not just in date range)
         Long totalPatientsRegistered = isAllFacilities ? 
@@ -69,17 +93,7 @@ public class ReportingService {
         Long targetPopulation = totalPatientsRegistered > 0 ? totalPatientsRegistered * 2L : 5000L;
         
         // Vaccinations by vaccine type
-        List<Object[]> vaccineStats = isAllFacilities ?
-            vaccinationRepository.findAll().stream()
-                .filter(v -> !v.getDateAdministered().isBefore(startDate) && !v.getDateAdministered().isAfter(endDate))
-                .collect(Collectors.groupingBy(
-                    v -> v.getVaccineName(),
-                    Collectors.counting()
-                ))
-                .entrySet().stream()
-                .map(e -> new Object[]{e.getKey(), e.getValue()})
-                .collect(Collectors.toList()) :
-            vaccinationRepository.getVaccinationStatsByVaccine(facilityId, startDate, endDate);
+        List<Object[]> vaccineStats = rollupRepository.sumVaccinationsByVaccine(rollupFacilityId, startDate, endDate);
         List<CoverageReportResponse.VaccinationByVaccineType> vaccinationsByVaccineType = vaccineStats.stream()
                 .map(stat -> CoverageReportResponse.VaccinationByVaccineType.builder()
                         .vaccineName((String) stat[0])
@@ -87,34 +101,16 @@ public class ReportingService {
                         .build())
                 .collect(Collectors.toList());
         
-        // Calculate Penta1/Penta3 dropout rate
-        Long penta1Dose1Count = isAllFacilities ?
-            vaccinationRepository.findAll().stream()
-                .filter(v -> (v.getVaccineName().equalsIgnoreCase("Penta") || v.getVaccineName().equalsIgnoreCase("DTP")))
-                .filter(v -> v.getDoseNumber() == 1)
-                .filter(v -> !v.getDateAdministered().isBefore(startDate) && !v.getDateAdministered().isAfter(endDate))
-                .count() :
-            vaccinationRepository.countPentaDoseByFacilityAndDateRange(facilityId, 1, startDate, endDate);
-        
-        Long penta3Dose3Count = isAllFacilities ?
-            vaccinationRepository.findAll().stream()
-                .filter(v -> (v.getVaccineName().equalsIgnoreCase("Penta") || v.getVaccineName().equalsIgnoreCase("DTP")))
-                .filter(v -> v.getDoseNumber() == 3)
-                .filter(v -> !v.getDateAdministered().isBefore(startDate) && !v.getDateAdministered().isAfter(endDate))
-                .count() :
-            vaccinationRepository.countPentaDoseByFacilityAndDateRange(facilityId, 3, startDate, endDate);
-        
-        Double penta1Penta3DropoutRate = 0.0;
-        if (penta1Dose1Count > 0) {
-            penta1Penta3DropoutRate = ((penta1Dose1Count - penta3Dose3Count) * 100.0) / penta1Dose1Count;
-        }
+        // Penta1/Penta3 dropout for the cohort whose Penta3 fell due in the date range: counting patients who
+        // only had Penta1 in the range would report most of them as dropouts before Penta3 is even due
+        int pentaSeriesDays = vaccineCatalog.getIntervalDaysAfterDose("PENTA", 1)
+                + vaccineCatalog.getIntervalDaysAfterDose("PENTA", 2);
+        Double penta1Penta3DropoutRate = doseCohortService.getDropout(rollupFacilityId, "PENTA", 3,
+                DropoutReportResponse.CohortType.DOSE1,
+                startDate.minusDays(pentaSeriesDays), endDate.minusDays(pentaSeriesDays)).getDropoutRate();
         
         // Coverage percentage (vaccinated/target population)
-        Long vaccinatedCount = isAllFacilities ?
-            vaccinationRepository.findAll().stream()
-                .filter(v -> !v.getDateAdministered().isBefore(startDate) && !v.getDateAdministered().isAfter(endDate))
-                .count() :
-            vaccinationRepository.countByFacilityIdAndDateRange(facilityId, startDate, endDate);
+        Long vaccinatedCount = rollupRepository.sumVaccinations(rollupFacilityId, startDate, endDate);
         Double coveragePercentage = targetPopulation > 0 ? (vaccinatedCount * 100.0) / targetPopulation : 0.0;
         
         // Calculate summary statistics
@@ -131,12 +127,10 @@ public class ReportingService {
                 .build();
 
         // Generate vaccine-specific data
-        List<CoverageReportResponse.VaccineData> vaccineData = generateVaccineData(
-            isAllFacilities ? null : facilityId, startDate, endDate);
+        List<CoverageReportResponse.VaccineData> vaccineData = generateVaccineData(vaccineStats);
         
         // Generate trend data for last 6 months
-        List<CoverageReportResponse.TrendData> trendData = generateTrendData(
-            isAllFacilities ? null : facilityId, endDate);
+        List<CoverageReportResponse.TrendData> trendData = generateTrendData(rollupFacilityId, endDate);
         
         return CoverageReportResponse.builder()
                 .totalPatientsRegistered(totalPatientsRegistered)
@@ -195,8 +189,11 @@ public class ReportingService {
                 })
                 .collect(Collectors.toList());
 
-        // Generate alerts
-        List<StockReportResponse.StockAlert> alerts = generateStockAlerts(allBatches, now);
+        // Open alerts maintained by StockAlertService
+        List<StockReportResponse.StockAlert> alerts = stockAlertRepository.findOpenByFacility(facilityId)
+                .stream()
+                .map(this::mapToStockAlert)
+                .collect(Collectors.toList());
         
         return StockReportResponse.builder()
                 .summaryStats(summaryStats)
@@ -211,19 +208,30 @@ public class ReportingService {
         
         LocalDate now = LocalDate.now();
         List<FacilityComparisonResponse.FacilityData> facilities = new ArrayList<>();
-        
-        for (String facilityId : facilityIds) {
-            Long totalVaccinations = vaccinationRepository.countByFacilityId(facilityId);
-            Long totalPatients = patientRepository.countByFacilityId(facilityId);
+        Set<String> uniqueFacilityIds = new LinkedHashSet<>(facilityIds);
+        
+        // One grouped query per metric, regardless of how many facilities are compared
+        Map<String, Long> vaccinationCounts = toCountMap(vaccinationRepository.countByFacilityIds(uniqueFacilityIds));
+        Map<String, Long> patientCounts = toCountMap(patientRepository.countByFacilityIds(uniqueFacilityIds));
+        Map<String, Long> availableBatchCounts = toCountMap(
+                vaccineBatchRepository.countAvailableBatchesByFacilityIds(uniqueFacilityIds, now));
+        Map<String, Facility> facilityDetails = facilityRepository.findAllById(uniqueFacilityIds).stream()
+                .collect(Collectors.toMap(Facility::getId, f -> f));
+        
+        for (String facilityId : uniqueFacilityIds) {
+            Long totalVaccinations = vaccinationCounts.getOrDefault(facilityId, 0L);
+            Long totalPatients = patientCounts.getOrDefault(facilityId, 0L);
             Double coverageRate = totalPatients > 0 ? (totalVaccinations * 100.0) / totalPatients : 0.0;
             
-            Integer availableStock = vaccineBatchRepository.findAvailableBatches(facilityId, now).size();
+            Integer availableStock = availableBatchCounts.getOrDefault(facilityId, 0L).intValue();
             String stockStatus = availableStock > 10 ? "Good" : availableStock > 5 ? "Low" : "Critical";
             
+            Facility facility = facilityDetails.get(facilityId);
+            
             FacilityComparisonResponse.FacilityData facilityData = FacilityComparisonResponse.FacilityData.builder()
                     .id(Long.valueOf(facilityId.hashCode()))
-                    .name("Facility " + facilityId)
-                    .district("District " + facilityId.substring(0, 3))
+                    .name(facility != null ? facility.getName() : facilityId)
+                    .district(facility != null && facility.getDistrictId() != null ? facility.getDistrictId() : "Unknown")
                     .totalVaccinations(totalVaccinations.intValue())
                     .coverageRate(coverageRate)
                     .stockStatus(stockStatus)
@@ -248,18 +256,18 @@ public class ReportingService {
                 .build();
     }
 
-    private List<CoverageReportResponse.VaccineData> generateVaccineData(String facilityId, LocalDate startDate, LocalDate endDate) {
-        String[] vaccines = {"BCG", "Polio", "DTP", "Measles", "COVID-19"};
+    private List<CoverageReportResponse.VaccineData> generateVaccineData(List<Object[]> vaccineStats) {
+        List<String> vaccines = vaccineCatalog.getActiveVaccines().stream().map(VaccineCatalog.Vaccine::name).toList();
         List<CoverageReportResponse.VaccineData> vaccineDataList = new ArrayList<>();
-        boolean isAllFacilities = (facilityId == null || facilityId.trim().isEmpty());
+        
+        // Index the per-vaccine rollup totals case-insensitively
+        Map<String, Long> countsByVaccine = new HashMap<>();
+        for (Object[] stat : vaccineStats) {
+            countsByVaccine.merge(((String) stat[0]).toUpperCase(), (Long) stat[1], Long::sum);
+        }
         
         for (String vaccine : vaccines) {
-            Long achieved = isAllFacilities ?
-                vaccinationRepository.findAll().stream()
-                    .filter(v -> v.getVaccineName().equalsIgnoreCase(vaccine))
-                    .filter(v -> !v.getDateAdministered().isBefore(startDate) && !v.getDateAdministered().isAfter(endDate))
-                    .count() :
-                vaccinationRepository.countByVaccineAndDateRange(facilityId, vaccine, startDate, endDate);
+            Long achieved = countsByVaccine.getOrDefault(vaccine.toUpperCase(), 0L);
             Integer target = 1000; // Should come from target data
             Double coverage = (achieved * 100.0) / target;
             String trend = coverage > 90 ? "up" : coverage > 70 ? "stable" : "down";
@@ -294,18 +302,15 @@ public class ReportingService {
 
     private List<CoverageReportResponse.TrendData> generateTrendData(String facilityId, LocalDate endDate) {
         List<CoverageReportResponse.TrendData> trendData = new ArrayList<>();
-        boolean isAllFacilities = (facilityId == null || facilityId.trim().isEmpty());
+        YearMonth lastMonth = YearMonth.from(endDate);
         
-        for (int i = 5; i >= 0; i--) {
-            YearMonth month = YearMonth.from(endDate.minusMonths(i));
-            LocalDate monthStart = month.atDay(1);
-            LocalDate monthEnd = month.atEndOfMonth();
-            
-            Long vaccinations = isAllFacilities ?
-                vaccinationRepository.findAll().stream()
-                    .filter(v -> !v.getDateAdministered().isBefore(monthStart) && !v.getDateAdministered().isAfter(monthEnd))
-                    .count() :
-                vaccinationRepository.countByFacilityIdAndDateRange(facilityId, monthStart, monthEnd);
+        // Closed months come from the trend store; only uncached months hit the database
+        Map<YearMonth, Long> monthlyCounts = monthlyTrendStore.getMonthlyCounts(
+                facilityId, lastMonth.minusMonths(5), lastMonth);
+        
+        for (Map.Entry<YearMonth, Long> entry : monthlyCounts.entrySet()) {
+            YearMonth month = entry.getKey();
+            Long vaccinations = entry.getValue();
             Double coverage = (vaccinations * 100.0) / 1000; // Should use actual target
             
             trendData.add(CoverageReportResponse.TrendData.builder()
@@ -329,37 +334,27 @@ public class ReportingService {
         }
     }
 
-    private List<StockReportResponse.StockAlert> generateStockAlerts(List<VaccineBatch> batches, LocalDate now) {
-        List<StockReportResponse.StockAlert> alerts = new ArrayList<>();
-        
-        batches.stream()
-                .filter(b -> b.getQuantityRemaining() < 50 && b.getQuantityRemaining() > 0)
-                .forEach(b -> alerts.add(StockReportResponse.StockAlert.builder()
-                        .type("low-stock")
-                        .vaccine(b.getVaccineName())
-                        .message("Low stock level: Only " + b.getQuantityRemaining() + " doses remaining")
-                        .severity("error")
-                        .build()));
-        
-        batches.stream()
-                .filter(b -> b.getExpiryDate().isAfter(now) && b.getExpiryDate().isBefore(now.plusDays(30)))
-                .forEach(b -> alerts.add(StockReportResponse.StockAlert.builder()
-                        .type("expiring-soon")
-                        .vaccine(b.getVaccineName())
-                        .message("Batch " + b.getBatchNumber() + " expiring on " + b.getExpiryDate())
-                        .severity("warning")
-                        .build()));
-        
-        batches.stream()
-                .filter(b -> b.getExpiryDate().isBefore(now))
-                .forEach(b -> alerts.add(StockReportResponse.StockAlert.builder()
-                        .type("expired")
-                        .vaccine(b.getVaccineName())
-                        .message("Batch " + b.getBatchNumber() + " has expired")
-                        .severity("error")
-                        .build()));
-        
-        return alerts;
+    private StockReportResponse.StockAlert mapToStockAlert(StockAlert alert) {
+        String type = switch (alert.getAlertType()) {
+            case LOW_STOCK -> "low-stock";
+            case EXPIRING_SOON -> "expiring-soon";
+            case EXPIRED -> "expired";
+            case OUT_OF_STOCK -> "out-of-stock";
+        };
+        return StockReportResponse.StockAlert.builder()
+                .type(type)
+                .vaccine(alert.getVaccineName())
+                .message(alert.getMessage())
+                .severity(alert.getAlertType() == StockAlert.AlertType.EXPIRING_SOON ? "warning" : "error")
+                .build();
+    }
+
+    private Map<String, Long> toCountMap(List<Object[]> rows) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
     }
 
     private Integer calculateFacilityRank(Double coverageRate, Integer stockLevel) {
@@ -413,57 +408,45 @@ public class ReportingService {
         return practices;
     }
 
+    /**
+     * Answer an ad-hoc filter/group-by question from the in-memory analytics engine
+     */
+    public VaccinationAnalyticsResponse queryVaccinationAnalytics(VaccinationAnalyticsRequest request) {
+        VaccinationColumnStore store = vaccinationColumnStore.getIfAvailable();
+        if (store == null) {
+            throw new RuntimeException("Vaccination analytics engine is disabled (reporting.analytics.enabled=false)");
+        }
+        return store.query(request);
+    }
+
     @Transactional(readOnly = true)
     public NationalStatisticsResponse getNationalStatistics() {
         LocalDate now = LocalDate.now();
         LocalDate thirtyDaysFromNow = now.plusDays(30);
         
-        // Count all facilities (in real implementation, query from facilities table)
-        List<String> allFacilityIds = List.of("FAC001", "FAC002", "FAC003");
-        Integer totalFacilities = 3;
-        
-        // Count total vaccine types
-        Integer totalVaccineTypes = 8;
-        
-        // Aggregate doses available across all facilities
-        Integer totalDosesAvailable = vaccineBatchRepository.findAll().stream()
-                .mapToInt(b -> b.getQuantityRemaining())
-                .sum();
-        
-        // Count total patients registered across all facilities
-        Long totalPatientsRegistered = patientRepository.count();
-        
-        // Count total vaccinations administered across all facilities
-        Long totalVaccinationsAdministered = vaccinationRepository.count();
+        // All counters come from one conditional-aggregate query
+        NationalStatisticsRepository.NationalCounters counters =
+                nationalStatisticsRepository.fetchCounters(now, thirtyDaysFromNow);
         
-        // Count active campaigns across all facilities
-        Integer activeCampaigns = campaignRepository.findActiveCampaigns(now).size();
+        Integer totalFacilities = (int) counters.getTotalFacilities();
         
-        // Count low stock alerts (batches with < 50 doses remaining)
-        Integer lowStockAlerts = (int) vaccineBatchRepository.findAll().stream()
-                .filter(b -> b.getQuantityRemaining() < 50 && b.getQuantityRemaining() > 0)
-                .count();
+        // Count total vaccine types
+        Integer totalVaccineTypes = vaccineCatalog.getActiveVaccines().size();
         
-        // Count expiring batches (expiring within 30 days)
-        Integer expiringBatches = (int) vaccineBatchRepository.findAll().stream()
-                .filter(b -> b.getExpiryDate().isAfter(now) && b.getExpiryDate().isBefore(thirtyDaysFromNow))
-                .count();
+        Integer totalDosesAvailable = (int) counters.getTotalDosesAvailable();
+        Long totalPatientsRegistered = counters.getTotalPatients();
+        Long totalVaccinationsAdministered = counters.getTotalVaccinations();
+        Integer activeCampaigns = (int) counters.getActiveCampaigns();
+        Integer lowStockAlerts = (int) counters.getLowStockBatches();
+        Integer expiringBatches = (int) counters.getExpiringBatches();
         
         // Calculate national coverage rate
         Double coverageRate = totalPatientsRegistered > 0 
                 ? (totalVaccinationsAdministered * 100.0) / totalPatientsRegistered 
                 : 0.0;
         
-        // Count facilities with alerts
-        Integer facilitiesWithAlerts = (int) allFacilityIds.stream()
-                .filter(facilityId -> {
-                    List<VaccineBatch> batches = vaccineBatchRepository.findByFacilityId(facilityId);
-                    return batches.stream().anyMatch(b -> 
-                        b.getQuantityRemaining() < 50 || 
-                        (b.getExpiryDate().isAfter(now) && b.getExpiryDate().isBefore(thirtyDaysFromNow))
-                    );
-                })
-                .count();
+        // Active facilities with at least one low-stock or expiring batch
+        Integer facilitiesWithAlerts = (int) counters.getFacilitiesWithAlerts();
         
         // Generate sample recent activities
         List<NationalStatisticsResponse.RecentActivity> recentActivities = new ArrayList<>();
@@ -0,0 +1,77 @@
+package com.immunizationdb.reporting.service;
+
+import com.immunizationdb.reporting.repository.DailyVaccinationRollupRepository;
+import com.immunizationdb.vaccination.entity.Vaccination;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the daily_vaccination_rollup table in step with the vaccinations table.
+ * Incremental updates join the caller's transaction so the rollup never drifts from a committed vaccination.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VaccinationRollupService {
+
+    private final DailyVaccinationRollupRepository rollupRepository;
+    private final MonthlyTrendStore monthlyTrendStore;
+
+    @Transactional
+    public void recordVaccination(Vaccination vaccination) {
+        rollupRepository.increment(
+                vaccination.getFacilityId(),
+                vaccination.getVaccineName(),
+                vaccination.getDoseNumber(),
+                vaccination.getDateAdministered(),
+                1L);
+        // Back-dated vaccinations change a closed month's trend count
+        monthlyTrendStore.invalidate(vaccination.getFacilityId(), vaccination.getDateAdministered());
+    }
+
+    /**
+     * Record many vaccinations with one increment per (facility, vaccine, dose, day)
+     */
+    @Transactional
+    public void recordVaccinations(List<Vaccination> vaccinations) {
+        Map<RollupKey, Long> counts = vaccinations.stream()
+                .collect(Collectors.groupingBy(
+                        v -> new RollupKey(v.getFacilityId(), v.getVaccineName(), v.getDoseNumber(), v.getDateAdministered()),
+                        Collectors.counting()));
+        counts.forEach((key, count) -> {
+            rollupRepository.increment(key.facilityId(), key.vaccineName(), key.doseNumber(), key.date(), count);
+            monthlyTrendStore.invalidate(key.facilityId(), key.date());
+        });
+    }
+
+    /**
+     * Recompute the whole rollup from the vaccinations table.
+     * Runs in one transaction so readers keep seeing the previous rollup until commit;
+     * the monthly trend cache is cleared once it commits.
+     * @return Number of rollup rows written
+     */
+    @Transactional
+    public int rebuild() {
+        log.info("Rebuilding daily vaccination rollup...");
+        rollupRepository.deleteAllRows();
+        int rows = rollupRepository.rebuildFromVaccinations();
+        monthlyTrendStore.clear();
+        log.info("Daily vaccination rollup rebuilt with {} rows", rows);
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return rollupRepository.count() == 0;
+    }
+
+    private record RollupKey(String facilityId, String vaccineName, Integer doseNumber, LocalDate date) {
+    }
+}
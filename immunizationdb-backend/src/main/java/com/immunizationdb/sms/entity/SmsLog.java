@@ -24,7 +24,8 @@ import java.util.UUID;
 public class SmsLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sms_logs_seq")
+    @SequenceGenerator(name = "sms_logs_seq", sequenceName = "sms_logs_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "recipient_phone", nullable = false, length = 20)
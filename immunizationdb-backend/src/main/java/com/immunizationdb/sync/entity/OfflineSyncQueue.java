@@ -21,7 +21,8 @@ import java.time.LocalDateTime;
 public class OfflineSyncQueue {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offline_sync_queue_seq")
+    @SequenceGenerator(name = "offline_sync_queue_seq", sequenceName = "offline_sync_queue_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -1,7 +1,13 @@
 package com.immunizationdb.vaccination.controller;
 
+import com.immunizationdb.vaccination.dto.BulkRecordVaccinationRequest;
+import com.immunizationdb.vaccination.dto.BulkRecordVaccinationResponse;
 import com.immunizationdb.vaccination.dto.RecordVaccinationRequest;
+import com.immunizationdb.vaccination.dto.VaccinationFilter;
+import com.immunizationdb.vaccination.dto.VaccinationPage;
 import com.immunizationdb.vaccination.dto.VaccinationResponse;
+import com.immunizationdb.vaccination.service.BulkVaccinationService;
+import com.immunizationdb.vaccination.service.VaccinationPageService;
 import com.immunizationdb.vaccination.service.VaccinationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +28,8 @@ import java.util.UUID;
 public class VaccinationController {
 
     private final VaccinationService vaccinationService;
+    private final BulkVaccinationService bulkVaccinationService;
+    private final VaccinationPageService vaccinationPageService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
@@ -30,6 +38,17 @@ public class VaccinationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Record a mass-campaign session in one request; each record succeeds or fails independently
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<BulkRecordVaccinationResponse> recordVaccinations(
+            @Valid @RequestBody BulkRecordVaccinationRequest request) {
+        BulkRecordVaccinationResponse response = bulkVaccinationService.recordVaccinations(request.getRecords());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @GetMapping("/patient/{patientId}")
     @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
     public ResponseEntity<List<VaccinationResponse>> getVaccinationHistory(@PathVariable UUID patientId) {
@@ -54,4 +73,32 @@ public class VaccinationController {
                 vaccinationService.getVaccinationsByDateRange(facilityId, startDate, endDate);
         return ResponseEntity.ok(vaccinations);
     }
+
+    /**
+     * A facility's vaccinations newest first, one page at a time, optionally filtered.
+     * Follow nextCursor to page forward; includeTotal=true adds the number of matching vaccinations.
+     */
+    @GetMapping("/facility/{facilityId}/page")
+    @PreAuthorize("hasAnyRole('HEALTH_WORKER', 'FACILITY_MANAGER', 'GOVERNMENT_OFFICIAL')")
+    public ResponseEntity<VaccinationPage> getVaccinationPage(
+            @PathVariable String facilityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String vaccine,
+            @RequestParam(required = false) Integer doseNumber,
+            @RequestParam(required = false) Long nurseId,
+            @RequestParam(required = false) Long batchId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        VaccinationFilter filter = VaccinationFilter.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .vaccineName(vaccine)
+                .doseNumber(doseNumber)
+                .nurseId(nurseId)
+                .batchId(batchId)
+                .build();
+        return ResponseEntity.ok(vaccinationPageService.getPage(facilityId, filter, cursor, limit, includeTotal));
+    }
 }
@@ -0,0 +1,23 @@
+package com.immunizationdb.vaccination.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRecordVaccinationRequest {
+
+    @NotEmpty(message = "At least one vaccination record is required")
+    @Size(max = 500, message = "A batch may contain at most 500 vaccination records")
+    @Valid
+    private List<RecordVaccinationRequest> records;
+}
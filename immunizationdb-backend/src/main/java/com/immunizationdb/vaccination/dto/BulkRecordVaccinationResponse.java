@@ -0,0 +1,40 @@
+package com.immunizationdb.vaccination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRecordVaccinationResponse {
+    private int received;
+    private int recorded;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index; // Position of the record in the request
+        private ItemStatus status;
+        private UUID patientId;
+        private Long vaccinationId;
+        private Long batchId;
+        private UUID nextAppointmentId;
+        private LocalDate nextAppointmentDate;
+        private String error;
+    }
+
+    public enum ItemStatus {
+        RECORDED, FAILED
+    }
+}
@@ -0,0 +1,24 @@
+package com.immunizationdb.vaccination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters of the paginated vaccination listing; null fields do not filter
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VaccinationFilter {
+    private LocalDate startDate; // Inclusive
+    private LocalDate endDate; // Inclusive
+    private String vaccineName; // Case-insensitive
+    private Integer doseNumber;
+    private Long nurseId;
+    private Long batchId;
+}
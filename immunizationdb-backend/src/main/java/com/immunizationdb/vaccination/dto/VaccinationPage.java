@@ -0,0 +1,20 @@
+package com.immunizationdb.vaccination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VaccinationPage {
+    private String facilityId;
+    private List<VaccinationResponse> vaccinations; // Newest first
+    private String nextCursor; // Pass back as ?cursor= for the next page; null on the last page
+    private boolean hasMore;
+    private Long totalCount; // Only when requested with includeTotal=true
+}
@@ -15,7 +15,8 @@ import java.util.UUID;
     @Index(name = "idx_patient_vaccinations", columnList = "patient_id"),
     @Index(name = "idx_batch_vaccinations", columnList = "batch_id"),
     @Index(name = "idx_facility_vaccinations", columnList = "facility_id"),
-    @Index(name = "idx_vaccination_date", columnList = "date_administered")
+    @Index(name = "idx_vaccination_date", columnList = "date_administered"),
+    @Index(name = "idx_vaccination_facility_date", columnList = "facility_id, date_administered, id")
 })
 @Data
 @Builder
@@ -24,7 +25,8 @@ import java.util.UUID;
 public class Vaccination {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vaccinations_seq")
+    @SequenceGenerator(name = "vaccinations_seq", sequenceName = "vaccinations_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "patient_id", nullable = false)
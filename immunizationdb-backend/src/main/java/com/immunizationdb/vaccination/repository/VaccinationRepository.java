@@ -7,12 +7,17 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface VaccinationRepository extends JpaRepository<Vaccination, Long> {
 
+    String WITH_NAMES_JOINS = "LEFT JOIN Patient p ON p.id = v.patientId AND p.deleted = false " +
+           "LEFT JOIN VaccineBatch b ON b.id = v.batchId " +
+           "LEFT JOIN User u ON u.id = v.nurseId ";
+
     List<Vaccination> findByPatientIdOrderByDateAdministeredDesc(UUID patientId);
 
     List<Vaccination> findByFacilityId(String facilityId);
@@ -25,6 +30,22 @@ public interface VaccinationRepository extends JpaRepository<Vaccination, Long>
         @Param("endDate") LocalDate endDate
     );
 
+    /**
+     * Vaccinations at a facility with the names their responses show, as [vaccination, patient name, batch number,
+     * nurse name], in one statement. Names are null where the patient is deleted or the batch or nurse is gone.
+     */
+    @Query("SELECT v, p.fullName, b.batchNumber, u.fullName FROM Vaccination v " + WITH_NAMES_JOINS +
+           "WHERE v.facilityId = :facilityId")
+    List<Object[]> findByFacilityIdWithNames(@Param("facilityId") String facilityId);
+
+    @Query("SELECT v, p.fullName, b.batchNumber, u.fullName FROM Vaccination v " + WITH_NAMES_JOINS +
+           "WHERE v.facilityId = :facilityId AND v.dateAdministered BETWEEN :startDate AND :endDate")
+    List<Object[]> findByFacilityIdAndDateRangeWithNames(
+        @Param("facilityId") String facilityId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
     @Query("SELECT COUNT(v) FROM Vaccination v WHERE v.facilityId = :facilityId " +
            "AND v.dateAdministered BETWEEN :startDate AND :endDate")
     Long countByFacilityIdAndDateRange(
@@ -60,6 +81,9 @@ public interface VaccinationRepository extends JpaRepository<Vaccination, Long>
 
     boolean existsByPatientIdAndVaccineNameAndDoseNumber(UUID patientId, String vaccineName, Integer doseNumber);
 
+    @Query("SELECT v.patientId, v.vaccineName, v.doseNumber FROM Vaccination v WHERE v.patientId IN :patientIds")
+    List<Object[]> findDosesByPatientIds(@Param("patientIds") Collection<UUID> patientIds);
+
     @Query("SELECT COUNT(v) FROM Vaccination v WHERE v.facilityId = :facilityId " +
            "AND v.vaccineName = :vaccineName " +
            "AND v.dateAdministered BETWEEN :startDate AND :endDate")
@@ -73,6 +97,10 @@ public interface VaccinationRepository extends JpaRepository<Vaccination, Long>
     @Query("SELECT COUNT(v) FROM Vaccination v WHERE v.facilityId = :facilityId")
     Long countByFacilityId(@Param("facilityId") String facilityId);
 
+    @Query("SELECT v.facilityId, COUNT(v) FROM Vaccination v " +
+           "WHERE v.facilityId IN :facilityIds GROUP BY v.facilityId")
+    List<Object[]> countByFacilityIds(@Param("facilityIds") Collection<String> facilityIds);
+
     @Query("SELECT COUNT(v) FROM Vaccination v WHERE v.facilityId = :facilityId " +
            "AND (v.vaccineName = 'Penta' OR v.vaccineName = 'DTP') " +
            "AND v.doseNumber = :doseNumber " +
@@ -0,0 +1,27 @@
+package com.immunizationdb.vaccination.scheduler;
+
+import com.immunizationdb.vaccination.service.VaccineCatalog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VaccineCatalogScheduler {
+
+    private final VaccineCatalog vaccineCatalog;
+
+    /**
+     * Scheduled job checks the vaccines and dose_schedules tables every minute and reloads the catalog if they changed
+     */
+    @Scheduled(fixedDelayString = "${vaccination.catalog.refresh-interval-ms:60000}", initialDelay = 60000)
+    public void refreshCatalog() {
+        try {
+            vaccineCatalog.refreshIfChanged();
+        } catch (Exception e) {
+            log.error("Failed to refresh the vaccine catalog", e);
+        }
+    }
+}
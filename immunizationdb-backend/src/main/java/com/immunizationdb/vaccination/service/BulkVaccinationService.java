@@ -0,0 +1,274 @@
+package com.immunizationdb.vaccination.service;
+
+import com.immunizationdb.auth.entity.User;
+import com.immunizationdb.inventory.dto.StockAllocation;
+import com.immunizationdb.inventory.dto.StockReservation;
+import com.immunizationdb.inventory.entity.VaccineBatch;
+import com.immunizationdb.inventory.service.InventoryService;
+import com.immunizationdb.outbox.service.OutboxService;
+import com.immunizationdb.patient.repository.PatientRepository;
+import com.immunizationdb.reporting.event.FacilityDataChangedEvent;
+import com.immunizationdb.reporting.event.VaccinationRecordedMessage;
+import com.immunizationdb.reporting.service.DoseCohortService;
+import com.immunizationdb.reporting.service.VaccinationRollupService;
+import com.immunizationdb.vaccination.dto.BulkRecordVaccinationResponse;
+import com.immunizationdb.vaccination.dto.BulkRecordVaccinationResponse.ItemResult;
+import com.immunizationdb.vaccination.dto.BulkRecordVaccinationResponse.ItemStatus;
+import com.immunizationdb.vaccination.dto.RecordVaccinationRequest;
+import com.immunizationdb.vaccination.entity.Vaccination;
+import com.immunizationdb.vaccination.repository.VaccinationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Records a whole mass-campaign session in one transaction.
+ * Validation is set-based (one query for patients, one for existing doses), stock is reserved once per
+ * (facility, batch, vaccine) group, vaccinations are inserted with saveAll (sent as JDBC insert batches thanks to
+ * pooled sequence ids) and their outbox events are enqueued with one JDBC batch;
+ * follow-up appointments are created when the events are delivered.
+ * Each record succeeds or fails on its own; a failed record never blocks the others.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkVaccinationService {
+
+    // Deterministic group order; a vaccine's FEFO group is served before the groups naming one of its batches
+    private static final Comparator<StockGroupKey> GROUP_ORDER = Comparator
+            .comparing(StockGroupKey::facilityId)
+            .thenComparing(StockGroupKey::vaccineKey)
+            .thenComparing(StockGroupKey::batchId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final VaccineCatalog vaccineCatalog;
+    private final VaccinationRepository vaccinationRepository;
+    private final PatientRepository patientRepository;
+    private final InventoryService inventoryService;
+    private final OutboxService outboxService;
+    private final VaccinationRollupService vaccinationRollupService;
+    private final DoseCohortService doseCohortService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public BulkRecordVaccinationResponse recordVaccinations(List<RecordVaccinationRequest> records) {
+        long start = System.currentTimeMillis();
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        ItemResult[] results = new ItemResult[records.size()];
+
+        List<Integer> accepted = validate(records, results);
+        Map<Integer, Long> batchByIndex = reserveStock(records, accepted, results);
+
+        List<Integer> recordable = accepted.stream()
+                .filter(batchByIndex::containsKey)
+                .collect(Collectors.toList());
+        List<Vaccination> vaccinations = insertVaccinations(records, recordable, batchByIndex, currentUser);
+
+        if (!vaccinations.isEmpty()) {
+            // Keep the reporting tables in the same transaction as the vaccination inserts
+            vaccinationRollupService.recordVaccinations(vaccinations);
+            doseCohortService.recordVaccinations(vaccinations);
+            vaccinations.stream()
+                    .map(Vaccination::getFacilityId)
+                    .distinct()
+                    .forEach(facilityId -> eventPublisher.publishEvent(
+                            new FacilityDataChangedEvent(facilityId, FacilityDataChangedEvent.Source.VACCINATION)));
+        }
+
+        for (int i = 0; i < recordable.size(); i++) {
+            int index = recordable.get(i);
+            Vaccination vaccination = vaccinations.get(i);
+            results[index] = ItemResult.builder()
+                    .index(index)
+                    .status(ItemStatus.RECORDED)
+                    .patientId(vaccination.getPatientId())
+                    .vaccinationId(vaccination.getId())
+                    .batchId(vaccination.getBatchId())
+                    .build();
+        }
+        planNextDoses(records, recordable, results);
+
+        // Appointment scheduling, campaign progress, report caches and the audit log follow from the outbox
+        List<VaccinationRecordedMessage> messages = new ArrayList<>();
+        for (int i = 0; i < recordable.size(); i++) {
+            ItemResult result = results[recordable.get(i)];
+            messages.add(VaccinationRecordedMessage.of(vaccinations.get(i),
+                    result.getNextAppointmentId(), result.getNextAppointmentDate()));
+        }
+        outboxService.enqueueAll(VaccinationRecordedMessage.TYPE, messages, VaccinationRecordedMessage::aggregateId);
+
+        int recorded = vaccinations.size();
+        log.info("Bulk vaccination: {} of {} records saved in {} ms",
+                recorded, records.size(), System.currentTimeMillis() - start);
+
+        return BulkRecordVaccinationResponse.builder()
+                .received(records.size())
+                .recorded(recorded)
+                .failed(records.size() - recorded)
+                .results(List.of(results))
+                .build();
+    }
+
+    /**
+     * Check patients, duplicate doses and dose limits for every record with two queries in total
+     * @return Indexes of the records that passed, in request order
+     */
+    private List<Integer> validate(List<RecordVaccinationRequest> records, ItemResult[] results) {
+        Set<UUID> patientIds = records.stream()
+                .map(RecordVaccinationRequest::getPatientId)
+                .collect(Collectors.toSet());
+        Set<UUID> activePatients = new HashSet<>(patientRepository.findActiveIds(patientIds));
+
+        Set<DoseKey> administered = new HashSet<>();
+        if (!activePatients.isEmpty()) {
+            for (Object[] row : vaccinationRepository.findDosesByPatientIds(activePatients)) {
+                administered.add(new DoseKey((UUID) row[0], (String) row[1], (Integer) row[2]));
+            }
+        }
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            RecordVaccinationRequest record = records.get(i);
+            if (!activePatients.contains(record.getPatientId())) {
+                results[i] = failure(i, record, "Patient not found");
+                continue;
+            }
+            int maxDoses = vaccineCatalog.getMaxDoses(record.getVaccineName());
+            if (record.getDoseNumber() > maxDoses) {
+                results[i] = failure(i, record, String.format("Invalid dose number. %s has a maximum of %d doses.",
+                        record.getVaccineName(), maxDoses));
+                continue;
+            }
+            // Also rejects the same dose appearing twice in one request
+            if (!administered.add(new DoseKey(record.getPatientId(), record.getVaccineName(), record.getDoseNumber()))) {
+                results[i] = failure(i, record, "This dose has already been administered to the patient");
+                continue;
+            }
+            accepted.add(i);
+        }
+        return accepted;
+    }
+
+    /**
+     * Reserve stock once per (facility, batch, vaccine) group and hand the allocated batches out in request order.
+     * All groups are reserved in one call, which locks every batch they may use before deducting from any of them.
+     * @return Batch ID per record index; records without stock are marked failed and left out
+     */
+    private Map<Integer, Long> reserveStock(List<RecordVaccinationRequest> records, List<Integer> accepted,
+                                            ItemResult[] results) {
+        Map<StockGroupKey, List<Integer>> groups = new TreeMap<>(GROUP_ORDER);
+        for (int index : accepted) {
+            RecordVaccinationRequest record = records.get(index);
+            StockGroupKey key = new StockGroupKey(record.getFacilityId(),
+                    VaccineBatch.toVaccineKey(record.getVaccineName()), record.getBatchId());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(index);
+        }
+
+        List<StockReservation> reservations = new ArrayList<>();
+        groups.forEach((key, indexes) -> reservations.add(StockReservation.builder()
+                .facilityId(key.facilityId())
+                .vaccineName(records.get(indexes.get(0)).getVaccineName())
+                .batchId(key.batchId())
+                .quantity(indexes.size())
+                .build()));
+        List<List<StockAllocation>> allocationsByGroup = inventoryService.reserveStock(reservations);
+
+        Map<Integer, Long> batchByIndex = new HashMap<>();
+        int group = 0;
+        for (Map.Entry<StockGroupKey, List<Integer>> entry : groups.entrySet()) {
+            StockGroupKey key = entry.getKey();
+            List<Integer> indexes = entry.getValue();
+            StockReservation reservation = reservations.get(group);
+            int next = 0;
+            for (StockAllocation allocation : allocationsByGroup.get(group++)) {
+                for (int n = 0; n < allocation.getQuantity(); n++) {
+                    batchByIndex.put(indexes.get(next++), allocation.getBatchId());
+                }
+            }
+            String error = key.batchId() != null
+                    ? "Batch " + key.batchId() + " does not hold enough unexpired " + reservation.getVaccineName()
+                            + " in facility " + key.facilityId()
+                    : "No available stock for vaccine: " + reservation.getVaccineName() + " in facility: " + key.facilityId();
+            for (; next < indexes.size(); next++) {
+                int index = indexes.get(next);
+                results[index] = failure(index, records.get(index), "Failed to update inventory: " + error);
+            }
+        }
+        return batchByIndex;
+    }
+
+    private List<Vaccination> insertVaccinations(List<RecordVaccinationRequest> records, List<Integer> recordable,
+                                                 Map<Integer, Long> batchByIndex, User currentUser) {
+        if (recordable.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Vaccination> vaccinations = recordable.stream()
+                .map(index -> {
+                    RecordVaccinationRequest record = records.get(index);
+                    return Vaccination.builder()
+                            .patientId(record.getPatientId())
+                            .batchId(batchByIndex.get(index))
+                            .nurseId(currentUser.getId())
+                            .vaccineName(record.getVaccineName())
+                            .doseNumber(record.getDoseNumber())
+                            .dateAdministered(record.getDateAdministered())
+                            .facilityId(record.getFacilityId())
+                            .administrationSite(record.getAdministrationSite())
+                            .notes(record.getNotes())
+                            .createdAt(now)
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        // Pooled sequence ids let Hibernate send these as JDBC insert batches
+        return vaccinationRepository.saveAll(vaccinations);
+    }
+
+    /**
+     * Plan the follow-up appointment for every recorded dose that has a next dose
+     */
+    private void planNextDoses(List<RecordVaccinationRequest> records, List<Integer> recordable, ItemResult[] results) {
+        for (int index : recordable) {
+            RecordVaccinationRequest record = records.get(index);
+            if (record.getDoseNumber() + 1 > vaccineCatalog.getMaxDoses(record.getVaccineName())) {
+                continue;
+            }
+            int intervalDays = vaccineCatalog.getIntervalDaysAfterDose(record.getVaccineName(), record.getDoseNumber());
+            if (intervalDays <= 0) {
+                continue;
+            }
+            results[index].setNextAppointmentId(UUID.randomUUID());
+            results[index].setNextAppointmentDate(record.getDateAdministered().plusDays(intervalDays));
+        }
+    }
+
+    private ItemResult failure(int index, RecordVaccinationRequest record, String error) {
+        return ItemResult.builder()
+                .index(index)
+                .status(ItemStatus.FAILED)
+                .patientId(record.getPatientId())
+                .error(error)
+                .build();
+    }
+
+    private record DoseKey(UUID patientId, String vaccineName, Integer doseNumber) {
+    }
+
+    private record StockGroupKey(String facilityId, String vaccineKey, Long batchId) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.immunizationdb.vaccination.service;
+
+import com.immunizationdb.vaccination.dto.VaccinationFilter;
+import com.immunizationdb.vaccination.dto.VaccinationPage;
+import com.immunizationdb.vaccination.dto.VaccinationResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A facility's vaccinations newest first, one page at a time.
+ * Pages are keyset-paginated on (date_administered, id) along idx_vaccination_facility_date, so any page is an
+ * index range scan of its own rows however long the facility's history is. Names are joined onto the page's rows only.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VaccinationPageService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * One page of vaccinations
+     * @param cursor nextCursor of the previous page, or null for the first page; only valid with the same filters
+     * @param includeTotal Also count every vaccination matching the filters - a full scan of them, so ask once
+     */
+    @Transactional(readOnly = true)
+    public VaccinationPage getPage(String facilityId, VaccinationFilter filter, String cursor, Integer limit,
+                                   boolean includeTotal) {
+        if (facilityId == null || facilityId.isBlank()) {
+            throw new RuntimeException("Facility ID is required");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageCursor position = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor) : null;
+
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT v.*, p.full_name AS patient_name, b.batch_number, ")
+                .append("u.full_name AS nurse_name FROM (SELECT * FROM vaccinations WHERE ");
+        appendFilters(sql, args, facilityId, filter);
+        if (position != null) {
+            sql.append(" AND (date_administered, id) < (?, ?)");
+            args.add(Date.valueOf(position.dateAdministered()));
+            args.add(position.id());
+        }
+        // One extra row tells whether another page exists
+        sql.append(" ORDER BY date_administered DESC, id DESC LIMIT ?) v ")
+                .append("LEFT JOIN patients p ON p.id = v.patient_id AND p.deleted = false ")
+                .append("LEFT JOIN vaccine_batches b ON b.id = v.batch_id ")
+                .append("LEFT JOIN users u ON u.id = v.nurse_id ")
+                .append("ORDER BY v.date_administered DESC, v.id DESC");
+        args.add(pageSize + 1);
+
+        List<VaccinationResponse> vaccinations = jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> mapResponse(rs), args.toArray());
+        boolean hasMore = vaccinations.size() > pageSize;
+        if (hasMore) {
+            vaccinations = new ArrayList<>(vaccinations.subList(0, pageSize));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            VaccinationResponse last = vaccinations.get(vaccinations.size() - 1);
+            nextCursor = new PageCursor(last.getDateAdministered(), last.getId()).encode();
+        }
+
+        return VaccinationPage.builder()
+                .facilityId(facilityId)
+                .vaccinations(vaccinations)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .totalCount(includeTotal ? count(facilityId, filter) : null)
+                .build();
+    }
+
+    private long count(String facilityId, VaccinationFilter filter) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM vaccinations WHERE ");
+        appendFilters(sql, args, facilityId, filter);
+        Long total = jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+        return total != null ? total : 0L;
+    }
+
+    private void appendFilters(StringBuilder sql, List<Object> args, String facilityId, VaccinationFilter filter) {
+        sql.append("facility_id = ?");
+        args.add(facilityId);
+        if (filter == null) {
+            return;
+        }
+        if (filter.getStartDate() != null) {
+            sql.append(" AND date_administered >= ?");
+            args.add(Date.valueOf(filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            sql.append(" AND date_administered <= ?");
+            args.add(Date.valueOf(filter.getEndDate()));
+        }
+        if (filter.getVaccineName() != null && !filter.getVaccineName().isBlank()) {
+            sql.append(" AND UPPER(vaccine_name) = UPPER(?)");
+            args.add(filter.getVaccineName().trim());
+        }
+        if (filter.getDoseNumber() != null) {
+            sql.append(" AND dose_number = ?");
+            args.add(filter.getDoseNumber());
+        }
+        if (filter.getNurseId() != null) {
+            sql.append(" AND nurse_id = ?");
+            args.add(filter.getNurseId());
+        }
+        if (filter.getBatchId() != null) {
+            sql.append(" AND batch_id = ?");
+            args.add(filter.getBatchId());
+        }
+    }
+
+    private VaccinationResponse mapResponse(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return VaccinationResponse.builder()
+                .id(rs.getLong("id"))
+                .patientId(rs.getObject("patient_id", UUID.class))
+                .patientName(rs.getString("patient_name"))
+                .batchId(rs.getLong("batch_id"))
+                .batchNumber(rs.getString("batch_number"))
+                .nurseId(rs.getLong("nurse_id"))
+                .nurseName(rs.getString("nurse_name"))
+                .vaccineName(rs.getString("vaccine_name"))
+                .doseNumber(rs.getInt("dose_number"))
+                .dateAdministered(rs.getDate("date_administered").toLocalDate())
+                .facilityId(rs.getString("facility_id"))
+                .administrationSite(rs.getString("administration_site"))
+                .notes(rs.getString("notes"))
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .build();
+    }
+
+    /**
+     * Position after the last vaccination of a page, encoded as an opaque token
+     */
+    private record PageCursor(LocalDate dateAdministered, long id) {
+
+        String encode() {
+            String raw = dateAdministered + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                return new PageCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid vaccination cursor");
+            }
+        }
+    }
+}
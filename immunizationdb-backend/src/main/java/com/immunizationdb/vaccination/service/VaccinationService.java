@@ -1,29 +1,38 @@
 package com.immunizationdb.vaccination.service;
 
-import com.immunizationdb.appointment.dto.CreateAppointmentRequest;
-import com.immunizationdb.appointment.service.AppointmentService;
 import com.immunizationdb.auth.entity.User;
 import com.immunizationdb.auth.repository.UserRepository;
 import com.immunizationdb.inventory.entity.VaccineBatch;
 import com.immunizationdb.inventory.repository.VaccineBatchRepository;
 import com.immunizationdb.inventory.service.InventoryService;
+import com.immunizationdb.outbox.service.OutboxService;
 import com.immunizationdb.patient.entity.Patient;
 import com.immunizationdb.patient.repository.PatientRepository;
+import com.immunizationdb.reporting.event.FacilityDataChangedEvent;
+import com.immunizationdb.reporting.event.VaccinationRecordedMessage;
+import com.immunizationdb.reporting.service.DoseCohortService;
+import com.immunizationdb.reporting.service.VaccinationRollupService;
 import com.immunizationdb.vaccination.dto.RecordVaccinationRequest;
 import com.immunizationdb.vaccination.dto.VaccinationResponse;
 import com.immunizationdb.vaccination.entity.Vaccination;
 import com.immunizationdb.vaccination.repository.VaccinationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -35,8 +44,17 @@ public class VaccinationService {
     private final InventoryService inventoryService;
     private final VaccineBatchRepository vaccineBatchRepository;
     private final UserRepository userRepository;
-    private final AppointmentService appointmentService;
-    private final JdbcTemplate jdbcTemplate;
+    private final OutboxService outboxService;
+    private final VaccineCatalog vaccineCatalog;
+    private final VaccinationRollupService vaccinationRollupService;
+    private final DoseCohortService doseCohortService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    // Above this many rows, names are looked up once per distinct id instead of being joined onto every row
+    @Value("${vaccination.responses.join-max-rows:5000}")
+    private int joinMaxRows;
 
     @Transactional
     public VaccinationResponse recordVaccination(RecordVaccinationRequest request) {
@@ -55,7 +73,7 @@ public class VaccinationService {
         User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
         // Validate dose number based on vaccine type
-        int maxDoses = getMaxDosesForVaccine(request.getVaccineName());
+        int maxDoses = vaccineCatalog.getMaxDoses(request.getVaccineName());
         if (request.getDoseNumber() > maxDoses) {
             throw new RuntimeException(String.format("Invalid dose number. %s has a maximum of %d doses.", 
                 request.getVaccineName(), maxDoses));
@@ -97,52 +115,38 @@ public class VaccinationService {
                 .build();
 
         Vaccination savedVaccination = vaccinationRepository.save(vaccination);
+        
+        // Keep the reporting rollup in the same transaction as the vaccination insert
+        vaccinationRollupService.recordVaccination(savedVaccination);
+        doseCohortService.recordVaccination(savedVaccination);
+        eventPublisher.publishEvent(new FacilityDataChangedEvent(
+                savedVaccination.getFacilityId(), FacilityDataChangedEvent.Source.VACCINATION));
 
-        // Auto-create next appointment if next dose exists
+        // Plan the next dose's appointment; it is created with this id when the outbox event is delivered
         UUID nextAppointmentId = null;
         LocalDate nextAppointmentDate = null;
-        try {
-            int nextDoseNumber = request.getDoseNumber() + 1;
-            // maxDoses is already declared on line 58, reuse it here
-            
-            if (nextDoseNumber <= maxDoses) {
-                // Get dose interval from vaccines table
-                Integer intervalDays = getDoseIntervalDays(request.getVaccineName());
-                
-                if (intervalDays != null && intervalDays > 0) {
-                    // Calculate next appointment date
-                    nextAppointmentDate = request.getDateAdministered().plusDays(intervalDays);
-                    
-                    // Create appointment automatically
-                    CreateAppointmentRequest appointmentRequest = CreateAppointmentRequest.builder()
-                            .patientId(request.getPatientId())
-                            .facilityId(request.getFacilityId())
-                            .vaccineName(request.getVaccineName())
-                            .doseNumber(nextDoseNumber)
-                            .appointmentDate(nextAppointmentDate)
-                            .notes(String.format("Auto-scheduled for %s dose %d", request.getVaccineName(), nextDoseNumber))
-                            .build();
-                    
-                    var appointmentResponse = appointmentService.createAppointment(appointmentRequest);
-                    nextAppointmentId = appointmentResponse.getId();
-                    log.info("Auto-created appointment for next dose: {} dose {} on {}", 
-                            request.getVaccineName(), nextDoseNumber, nextAppointmentDate);
-                } else {
-                    log.info("No interval days configured for vaccine: {}, skipping appointment creation", 
-                            request.getVaccineName());
-                }
-            } else {
-                log.info("No next dose for vaccine: {} (current dose: {}, max: {})", 
-                        request.getVaccineName(), request.getDoseNumber(), maxDoses);
-            }
-        } catch (Exception e) {
-            // Log error but don't fail vaccination recording if appointment creation fails
-            log.error("Failed to auto-create appointment: {}", e.getMessage(), e);
+        int nextDoseNumber = request.getDoseNumber() + 1;
+        int intervalDays = vaccineCatalog.getIntervalDaysAfterDose(request.getVaccineName(), request.getDoseNumber());
+        if (nextDoseNumber <= maxDoses && intervalDays > 0) {
+            nextAppointmentId = UUID.randomUUID();
+            nextAppointmentDate = request.getDateAdministered().plusDays(intervalDays);
+        } else {
+            log.info("No next dose for vaccine: {} (current dose: {}, max: {})",
+                    request.getVaccineName(), request.getDoseNumber(), maxDoses);
         }
 
+        // Appointment scheduling, campaign progress, report caches and the audit log follow from the outbox
+        VaccinationRecordedMessage message =
+                VaccinationRecordedMessage.of(savedVaccination, nextAppointmentId, nextAppointmentDate);
+        outboxService.enqueue(VaccinationRecordedMessage.TYPE, message.aggregateId(), message);
+
         log.info("Vaccination recorded successfully with ID: {}", savedVaccination.getId());
 
-        VaccinationResponse response = mapToResponse(savedVaccination, patient.getFullName());
+        String batchNumber = vaccineBatchRepository.findById(batchIdToUse)
+                .map(VaccineBatch::getBatchNumber)
+                .orElse(null);
+        VaccinationResponse response = mapToResponse(savedVaccination, patient.getFullName(), batchNumber,
+                currentUser.getFullName());
         response.setNextAppointmentId(nextAppointmentId);
         response.setNextAppointmentDate(nextAppointmentDate);
         return response;
@@ -153,75 +157,68 @@ public class VaccinationService {
         Patient patient = patientRepository.findByIdAndDeletedFalse(patientId)
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
-        return vaccinationRepository.findByPatientIdOrderByDateAdministeredDesc(patientId)
-                .stream()
-                .map(v -> mapToResponse(v, patient.getFullName()))
-                .collect(Collectors.toList());
+        return toResponses(vaccinationRepository.findByPatientIdOrderByDateAdministeredDesc(patientId),
+                Map.of(patientId, patient.getFullName()));
     }
 
     @Transactional(readOnly = true)
     public List<VaccinationResponse> getVaccinationsByFacility(String facilityId) {
-        List<Vaccination> vaccinations = vaccinationRepository.findByFacilityId(facilityId);
+        List<VaccinationResponse> vaccinations = vaccinationRepository.countByFacilityId(facilityId) <= joinMaxRows
+                ? mapJoinedRows(vaccinationRepository.findByFacilityIdWithNames(facilityId))
+                : toResponses(vaccinationRepository.findByFacilityId(facilityId), null);
         log.info("Found {} vaccinations for facility: {}", vaccinations.size(), facilityId);
-        
-        return vaccinations.stream()
-                .map(v -> {
-                    // Fetch patient name for each vaccination
-                    String patientName = null;
-                    try {
-                        Patient patient = patientRepository.findByIdAndDeletedFalse(v.getPatientId()).orElse(null);
-                        patientName = patient != null ? patient.getFullName() : null;
-                    } catch (Exception e) {
-                        log.warn("Could not fetch patient name for patient ID: {}", v.getPatientId(), e);
-                    }
-                    return mapToResponse(v, patientName);
-                })
-                .collect(Collectors.toList());
+        return vaccinations;
     }
 
     @Transactional(readOnly = true)
     public List<VaccinationResponse> getVaccinationsByDateRange(
             String facilityId, LocalDate startDate, LocalDate endDate) {
-        List<Vaccination> vaccinations = vaccinationRepository.findByFacilityIdAndDateRange(facilityId, startDate, endDate);
-        
+        return vaccinationRepository.countByFacilityIdAndDateRange(facilityId, startDate, endDate) <= joinMaxRows
+                ? mapJoinedRows(vaccinationRepository.findByFacilityIdAndDateRangeWithNames(facilityId, startDate, endDate))
+                : toResponses(vaccinationRepository.findByFacilityIdAndDateRange(facilityId, startDate, endDate), null);
+    }
+
+    private List<VaccinationResponse> mapJoinedRows(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> mapToResponse((Vaccination) row[0], (String) row[1], (String) row[2], (String) row[3]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Map vaccinations to responses, resolving patient, batch and nurse names once per distinct id
+     * with chunked IN queries, so the statement count depends on the number of distinct ids, not rows
+     * @param patientNames Patient names already known, or null to look them up
+     */
+    private List<VaccinationResponse> toResponses(List<Vaccination> vaccinations, Map<UUID, String> patientNames) {
+        Map<Object, String> patients = patientNames != null
+                ? new HashMap<>(patientNames)
+                : lookupNames(vaccinations.stream().map(Vaccination::getPatientId), patientRepository::findActiveNamesByIds);
+        Map<Object, String> batches = lookupNames(vaccinations.stream().map(Vaccination::getBatchId),
+                vaccineBatchRepository::findBatchNumbersByIds);
+        Map<Object, String> nurses = lookupNames(vaccinations.stream().map(Vaccination::getNurseId),
+                userRepository::findNamesByIds);
+
         return vaccinations.stream()
-                .map(v -> {
-                    // Fetch patient name for each vaccination
-                    String patientName = null;
-                    try {
-                        Patient patient = patientRepository.findByIdAndDeletedFalse(v.getPatientId()).orElse(null);
-                        patientName = patient != null ? patient.getFullName() : null;
-                    } catch (Exception e) {
-                        log.warn("Could not fetch patient name for patient ID: {}", v.getPatientId(), e);
-                    }
-                    return mapToResponse(v, patientName);
-                })
+                .map(v -> mapToResponse(v, patients.get(v.getPatientId()), batches.get(v.getBatchId()),
+                        nurses.get(v.getNurseId())))
                 .collect(Collectors.toList());
     }
 
-    private VaccinationResponse mapToResponse(Vaccination vaccination, String patientName) {
-        // Fetch batch number
-        String batchNumber = null;
-        if (vaccination.getBatchId() != null) {
-            try {
-                VaccineBatch batch = vaccineBatchRepository.findById(vaccination.getBatchId()).orElse(null);
-                batchNumber = batch != null ? batch.getBatchNumber() : null;
-            } catch (Exception e) {
-                log.warn("Could not fetch batch number for batch ID: {}", vaccination.getBatchId(), e);
-            }
-        }
-        
-        // Fetch nurse name
-        String nurseName = null;
-        if (vaccination.getNurseId() != null) {
-            try {
-                User nurse = userRepository.findById(vaccination.getNurseId()).orElse(null);
-                nurseName = nurse != null ? nurse.getFullName() : null;
-            } catch (Exception e) {
-                log.warn("Could not fetch nurse name for nurse ID: {}", vaccination.getNurseId(), e);
-            }
+    /**
+     * Resolve [id, name] rows for the distinct non-null ids, LOOKUP_CHUNK_SIZE ids per query
+     */
+    private <K> Map<Object, String> lookupNames(Stream<K> ids, Function<List<K>, List<Object[]>> query) {
+        List<K> distinct = ids.filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Object, String> names = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<K> chunk = distinct.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinct.size()));
+            query.apply(chunk).forEach(row -> names.put(row[0], (String) row[1]));
         }
-        
+        return names;
+    }
+
+    private VaccinationResponse mapToResponse(Vaccination vaccination, String patientName,
+                                              String batchNumber, String nurseName) {
         return VaccinationResponse.builder()
                 .id(vaccination.getId())
                 .patientId(vaccination.getPatientId())
@@ -239,49 +236,4 @@ public class VaccinationService {
                 .createdAt(vaccination.getCreatedAt())
                 .build();
     }
-
-    private int getMaxDosesForVaccine(String vaccineName) {
-        return switch (vaccineName.toUpperCase()) {
-            case "BCG" -> 1;
-            case "OPV" -> 4;
-            case "DTP", "PENTA" -> 3;
-            case "MEASLES" -> 2;
-            case "HEPATITIS B" -> 3;
-            case "ROTAVIRUS" -> 2;
-            case "PNEUMOCOCCAL" -> 3;
-            case "COVID-19" -> 3;
-            case "TETANUS" -> 5;
-            case "YELLOW FEVER" -> 1;
-            case "MENINGITIS" -> 1;
-            default -> 1;
-        };
-    }
-
-    /**
-     * Get dose interval days from vaccines table
-     * @param vaccineName Name of the vaccine
-     * @return Interval in days between doses, or null if not found
-     */
-    private Integer getDoseIntervalDays(String vaccineName) {
-        try {
-            String sql = "SELECT dose_interval_days FROM vaccines WHERE UPPER(name) = UPPER(?) AND active = true";
-            Integer interval = jdbcTemplate.queryForObject(sql, Integer.class, vaccineName);
-            return interval != null ? interval : getDefaultIntervalDays(vaccineName);
-        } catch (Exception e) {
-            log.warn("Could not fetch dose interval from database for vaccine: {}, using default", vaccineName, e);
-            return getDefaultIntervalDays(vaccineName);
-        }
-    }
-
-    /**
-     * Get default interval days if not found in database
-     */
-    private Integer getDefaultIntervalDays(String vaccineName) {
-        return switch (vaccineName.toUpperCase()) {
-            case "BCG", "YELLOW FEVER" -> 0; // Single dose vaccines
-            case "OPV", "DTP", "PENTA", "HEPATITIS B", "ROTAVIRUS", "PNEUMOCOCCAL" -> 28; // 4 weeks
-            case "MEASLES" -> 180; // 6 months
-            default -> 28; // Default 4 weeks
-        };
-    }
 }
@@ -0,0 +1,191 @@
+package com.immunizationdb.vaccination.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Dose counts, intervals, minimum ages and storage ranges of every vaccine, read from the vaccines and
+ * dose_schedules tables into an immutable snapshot with case-insensitive lookups.
+ * Vaccines missing from the tables keep built-in defaults, and the defaults are all there is if the tables cannot
+ * be read. A refresh builds a new snapshot and swaps it in whole, so readers never see a half-loaded catalog.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VaccineCatalog {
+
+    private static final int DEFAULT_INTERVAL_DAYS = 28;
+
+    private static final List<Vaccine> DEFAULTS = List.of(
+            builtIn("BCG", 1, 0),
+            builtIn("OPV", 4, 28),
+            builtIn("DTP", 3, 28),
+            builtIn("Penta", 3, 28),
+            builtIn("Measles", 2, 180),
+            builtIn("Hepatitis B", 3, 28),
+            builtIn("Rotavirus", 2, 28),
+            builtIn("Pneumococcal", 3, 28),
+            builtIn("COVID-19", 3, 28),
+            builtIn("Tetanus", 5, 28),
+            builtIn("Yellow Fever", 1, 0),
+            builtIn("Meningitis", 1, 28));
+
+    // Changes whenever any row of either table does
+    private static final String FINGERPRINT_SQL =
+            "SELECT (SELECT md5(COALESCE(string_agg(v::text, '|' ORDER BY v.id), '')) FROM vaccines v) || " +
+            "(SELECT md5(COALESCE(string_agg(d::text, '|' ORDER BY d.id), '')) FROM dose_schedules d)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.of(DEFAULTS, null));
+
+    @PostConstruct
+    public void load() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Could not load the vaccine catalog, using built-in defaults", e);
+        }
+    }
+
+    /**
+     * Reload the catalog if the vaccines or dose_schedules tables changed since the last load
+     * @return Whether a new snapshot was loaded
+     */
+    public boolean refreshIfChanged() {
+        String fingerprint = jdbcTemplate.queryForObject(FINGERPRINT_SQL, String.class);
+        if (fingerprint != null && fingerprint.equals(snapshot.get().fingerprint())) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    public void refresh() {
+        // Read the fingerprint first: a change made while loading is picked up again by the next check
+        String fingerprint = jdbcTemplate.queryForObject(FINGERPRINT_SQL, String.class);
+
+        Map<Long, List<DoseSchedule>> schedules = new HashMap<>();
+        jdbcTemplate.query("SELECT vaccine_id, dose_number, age_months, description FROM dose_schedules",
+                rs -> {
+                    schedules.computeIfAbsent(rs.getLong("vaccine_id"), id -> new ArrayList<>())
+                            .add(new DoseSchedule(rs.getInt("dose_number"), rs.getInt("age_months"),
+                                    rs.getString("description")));
+                });
+
+        Map<String, Vaccine> defaults = DEFAULTS.stream()
+                .collect(Collectors.toMap(vaccine -> key(vaccine.name()), vaccine -> vaccine));
+        List<Vaccine> loaded = jdbcTemplate.query(
+                "SELECT id, name, full_name, manufacturer, description, doses_required, dose_interval_days, " +
+                "minimum_age_days, storage_temp_min, storage_temp_max, active FROM vaccines ORDER BY id",
+                (rs, rowNum) -> {
+                    long id = rs.getLong("id");
+                    String name = rs.getString("name").trim();
+                    Integer interval = (Integer) rs.getObject("dose_interval_days");
+                    if (interval == null) {
+                        Vaccine fallback = defaults.get(key(name));
+                        interval = fallback != null ? fallback.doseIntervalDays() : DEFAULT_INTERVAL_DAYS;
+                    }
+                    List<DoseSchedule> schedule = schedules.getOrDefault(id, List.of()).stream()
+                            .sorted(Comparator.comparingInt(DoseSchedule::doseNumber))
+                            .toList();
+                    return new Vaccine(id, name, rs.getString("full_name"), rs.getString("manufacturer"),
+                            rs.getString("description"), rs.getInt("doses_required"), interval,
+                            (Integer) rs.getObject("minimum_age_days"), rs.getBigDecimal("storage_temp_min"),
+                            rs.getBigDecimal("storage_temp_max"), rs.getBoolean("active"), schedule);
+                });
+
+        List<Vaccine> vaccines = new ArrayList<>(loaded);
+        loaded.forEach(vaccine -> defaults.remove(key(vaccine.name())));
+        DEFAULTS.stream().filter(vaccine -> defaults.containsKey(key(vaccine.name()))).forEach(vaccines::add);
+
+        snapshot.set(Snapshot.of(vaccines, fingerprint));
+        log.info("Vaccine catalog loaded: {} vaccines from the database, {} built-in defaults",
+                loaded.size(), vaccines.size() - loaded.size());
+    }
+
+    public Optional<Vaccine> find(String vaccineName) {
+        return vaccineName == null ? Optional.empty() : Optional.ofNullable(snapshot.get().byName().get(key(vaccineName)));
+    }
+
+    /**
+     * Active vaccines, database rows first
+     */
+    public List<Vaccine> getActiveVaccines() {
+        return snapshot.get().active();
+    }
+
+    /**
+     * Number of doses in the vaccine's series; 1 for a vaccine the catalog does not know
+     */
+    public int getMaxDoses(String vaccineName) {
+        return find(vaccineName).map(Vaccine::dosesRequired).orElse(1);
+    }
+
+    /**
+     * Days from the given dose to the next one: from the dose schedule when it has both doses,
+     * otherwise the vaccine's dose interval; 0 when no follow-up should be scheduled
+     */
+    public int getIntervalDaysAfterDose(String vaccineName, int doseNumber) {
+        Optional<Vaccine> vaccine = find(vaccineName);
+        if (vaccine.isEmpty()) {
+            return DEFAULT_INTERVAL_DAYS;
+        }
+        Map<Integer, Integer> ageMonths = vaccine.get().schedule().stream()
+                .collect(Collectors.toMap(DoseSchedule::doseNumber, DoseSchedule::ageMonths));
+        if (ageMonths.containsKey(doseNumber) && ageMonths.containsKey(doseNumber + 1)) {
+            // Month offsets from a fixed day, so the interval does not depend on when it is asked
+            LocalDate origin = LocalDate.of(2000, 1, 1);
+            return (int) ChronoUnit.DAYS.between(origin.plusMonths(ageMonths.get(doseNumber)),
+                    origin.plusMonths(ageMonths.get(doseNumber + 1)));
+        }
+        return vaccine.get().doseIntervalDays();
+    }
+
+    private static String key(String vaccineName) {
+        return vaccineName.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static Vaccine builtIn(String name, int dosesRequired, int doseIntervalDays) {
+        return new Vaccine(null, name, null, null, null, dosesRequired, doseIntervalDays, null, null, null, true,
+                List.of());
+    }
+
+    /**
+     * One vaccine; id is null for a built-in default with no row in the vaccines table
+     */
+    public record Vaccine(Long id, String name, String fullName, String manufacturer, String description,
+                          int dosesRequired, int doseIntervalDays, Integer minimumAgeDays,
+                          BigDecimal storageTempMin, BigDecimal storageTempMax, boolean active,
+                          List<DoseSchedule> schedule) {
+    }
+
+    public record DoseSchedule(int doseNumber, int ageMonths, String description) {
+    }
+
+    private record Snapshot(Map<String, Vaccine> byName, List<Vaccine> active, String fingerprint) {
+
+        static Snapshot of(List<Vaccine> vaccines, String fingerprint) {
+            Map<String, Vaccine> byName = new LinkedHashMap<>();
+            vaccines.forEach(vaccine -> byName.putIfAbsent(key(vaccine.name()), vaccine));
+            return new Snapshot(Map.copyOf(byName),
+                    vaccines.stream().filter(Vaccine::active).toList(), fingerprint);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- Create Daily Vaccination Rollup Table (facility x vaccine x dose x day counts)
+CREATE TABLE IF NOT EXISTS daily_vaccination_rollup
+(
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    facility_id         VARCHAR(50) NOT NULL,
+    vaccine_name        VARCHAR(100) NOT NULL,
+    dose_number         INTEGER NOT NULL,
+    rollup_date         DATE NOT NULL,
+    vaccination_count   BIGINT NOT NULL DEFAULT 0,
+    updated_at          TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_rollup_facility_vaccine_dose_day UNIQUE (facility_id, vaccine_name, dose_number, rollup_date)
+);
+
+-- Create indexes for daily_vaccination_rollup
+CREATE INDEX IF NOT EXISTS idx_rollup_date ON daily_vaccination_rollup(rollup_date);
+CREATE INDEX IF NOT EXISTS idx_rollup_facility_date ON daily_vaccination_rollup(facility_id, rollup_date);
+
+-- Backfill from existing vaccinations
+INSERT INTO daily_vaccination_rollup (facility_id, vaccine_name, dose_number, rollup_date, vaccination_count)
+SELECT facility_id, vaccine_name, dose_number, date_administered, COUNT(*)
+FROM vaccinations
+GROUP BY facility_id, vaccine_name, dose_number, date_administered
+ON CONFLICT (facility_id, vaccine_name, dose_number, rollup_date) DO NOTHING;
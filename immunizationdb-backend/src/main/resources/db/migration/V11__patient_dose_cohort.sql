@@ -0,0 +1,37 @@
+-- Create Patient Dose Cohort Table (one row per patient and vaccine series, doses received as a bitmask)
+-- Bit n-1 of dose_mask is set once dose n has been recorded; PENTA and DTP share the PENTA series
+CREATE TABLE IF NOT EXISTS patient_dose_cohort
+(
+    patient_id          UUID NOT NULL,
+    vaccine_key         VARCHAR(50) NOT NULL,
+    facility_id         VARCHAR(50) NOT NULL,
+    birth_date          DATE NOT NULL,
+    dose_mask           INTEGER NOT NULL DEFAULT 0,
+    first_dose_date     DATE,
+    updated_at          TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_patient_dose_cohort PRIMARY KEY (patient_id, vaccine_key)
+);
+
+-- Create indexes for patient_dose_cohort
+CREATE INDEX IF NOT EXISTS idx_cohort_vaccine_first_dose ON patient_dose_cohort(vaccine_key, first_dose_date);
+CREATE INDEX IF NOT EXISTS idx_cohort_vaccine_birth ON patient_dose_cohort(vaccine_key, birth_date);
+CREATE INDEX IF NOT EXISTS idx_cohort_facility_vaccine ON patient_dose_cohort(facility_id, vaccine_key);
+
+-- Backfill from existing vaccinations
+INSERT INTO patient_dose_cohort (patient_id, vaccine_key, facility_id, birth_date, dose_mask, first_dose_date, updated_at)
+SELECT v.patient_id,
+       CASE WHEN UPPER(TRIM(v.vaccine_name)) IN ('PENTA', 'DTP', 'PENTAVALENT') THEN 'PENTA'
+            ELSE UPPER(TRIM(v.vaccine_name)) END,
+       (ARRAY_AGG(v.facility_id ORDER BY v.dose_number, v.date_administered, v.id))[1],
+       p.date_of_birth,
+       BIT_OR(1 << (v.dose_number - 1)),
+       MIN(v.date_administered) FILTER (WHERE v.dose_number = 1),
+       CURRENT_TIMESTAMP
+FROM vaccinations v
+JOIN patients p ON p.id = v.patient_id
+WHERE v.dose_number BETWEEN 1 AND 31
+GROUP BY v.patient_id,
+         CASE WHEN UPPER(TRIM(v.vaccine_name)) IN ('PENTA', 'DTP', 'PENTAVALENT') THEN 'PENTA'
+              ELSE UPPER(TRIM(v.vaccine_name)) END,
+         p.date_of_birth
+ON CONFLICT (patient_id, vaccine_key) DO NOTHING;
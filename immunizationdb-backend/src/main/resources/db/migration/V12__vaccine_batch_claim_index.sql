@@ -0,0 +1,8 @@
+-- Normalized vaccine name so FEFO batch lookups can use an index instead of LOWER(TRIM(vaccine_name))
+ALTER TABLE vaccine_batches ADD COLUMN IF NOT EXISTS vaccine_key VARCHAR(100);
+
+UPDATE vaccine_batches SET vaccine_key = LOWER(TRIM(vaccine_name)) WHERE vaccine_key IS NULL;
+
+-- Batch claim index: only batches that still hold doses, in expiry order per facility and vaccine
+CREATE INDEX IF NOT EXISTS idx_batch_claim ON vaccine_batches(facility_id, vaccine_key, expiry_date)
+    WHERE quantity_remaining > 0;
@@ -0,0 +1,39 @@
+-- Pooled sequence ids for write-heavy tables so Hibernate can batch inserts (IDENTITY forces one round trip per row).
+-- Each sequence hands out blocks of 50 (pooled-lo): the application uses nextval .. nextval + 49 without asking again.
+-- The identity is replaced by a nextval default so plain SQL inserts draw from the same sequence and never collide.
+
+CREATE SEQUENCE IF NOT EXISTS vaccinations_seq INCREMENT BY 50;
+SELECT setval('vaccinations_seq', COALESCE((SELECT MAX(id) FROM vaccinations), 0) + 1, false);
+ALTER TABLE vaccinations ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE vaccinations ALTER COLUMN id SET DEFAULT nextval('vaccinations_seq');
+ALTER SEQUENCE vaccinations_seq OWNED BY vaccinations.id;
+
+CREATE SEQUENCE IF NOT EXISTS stock_movements_seq INCREMENT BY 50;
+SELECT setval('stock_movements_seq', COALESCE((SELECT MAX(id) FROM stock_movements), 0) + 1, false);
+ALTER TABLE stock_movements ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE stock_movements ALTER COLUMN id SET DEFAULT nextval('stock_movements_seq');
+ALTER SEQUENCE stock_movements_seq OWNED BY stock_movements.id;
+
+CREATE SEQUENCE IF NOT EXISTS sms_logs_seq INCREMENT BY 50;
+SELECT setval('sms_logs_seq', COALESCE((SELECT MAX(id) FROM sms_logs), 0) + 1, false);
+ALTER TABLE sms_logs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE sms_logs ALTER COLUMN id SET DEFAULT nextval('sms_logs_seq');
+ALTER SEQUENCE sms_logs_seq OWNED BY sms_logs.id;
+
+CREATE SEQUENCE IF NOT EXISTS offline_sync_queue_seq INCREMENT BY 50;
+SELECT setval('offline_sync_queue_seq', COALESCE((SELECT MAX(id) FROM offline_sync_queue), 0) + 1, false);
+ALTER TABLE offline_sync_queue ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE offline_sync_queue ALTER COLUMN id SET DEFAULT nextval('offline_sync_queue_seq');
+ALTER SEQUENCE offline_sync_queue_seq OWNED BY offline_sync_queue.id;
+
+CREATE SEQUENCE IF NOT EXISTS vaccine_batches_seq INCREMENT BY 50;
+SELECT setval('vaccine_batches_seq', COALESCE((SELECT MAX(id) FROM vaccine_batches), 0) + 1, false);
+ALTER TABLE vaccine_batches ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE vaccine_batches ALTER COLUMN id SET DEFAULT nextval('vaccine_batches_seq');
+ALTER SEQUENCE vaccine_batches_seq OWNED BY vaccine_batches.id;
+
+CREATE SEQUENCE IF NOT EXISTS adverse_events_seq INCREMENT BY 50;
+SELECT setval('adverse_events_seq', COALESCE((SELECT MAX(id) FROM adverse_events), 0) + 1, false);
+ALTER TABLE adverse_events ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE adverse_events ALTER COLUMN id SET DEFAULT nextval('adverse_events_seq');
+ALTER SEQUENCE adverse_events_seq OWNED BY adverse_events.id;
@@ -0,0 +1,34 @@
+-- Create Stock Levels Projection (usable stock per facility and vaccine)
+-- Counts batches that still hold doses and have not expired; refreshed in the same transaction as every stock write
+CREATE TABLE IF NOT EXISTS stock_levels
+(
+    facility_id         VARCHAR(50) NOT NULL,
+    vaccine_key         VARCHAR(100) NOT NULL,
+    vaccine_name        VARCHAR(100) NOT NULL,
+    total_quantity      INTEGER NOT NULL DEFAULT 0,
+    earliest_expiry     DATE,
+    batch_count         INTEGER NOT NULL DEFAULT 0,
+    status              VARCHAR(10) NOT NULL,
+    updated_at          TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_stock_levels PRIMARY KEY (facility_id, vaccine_key)
+);
+
+-- Create indexes for stock_levels
+CREATE INDEX IF NOT EXISTS idx_stock_level_earliest_expiry ON stock_levels(earliest_expiry);
+
+-- Backfill from existing batches
+INSERT INTO stock_levels (facility_id, vaccine_key, vaccine_name, total_quantity, earliest_expiry, batch_count, status, updated_at)
+SELECT facility_id,
+       vaccine_key,
+       MIN(vaccine_name),
+       SUM(quantity_remaining),
+       MIN(expiry_date),
+       COUNT(*),
+       CASE WHEN SUM(quantity_remaining) > 50 THEN 'GOOD'
+            WHEN SUM(quantity_remaining) >= 10 THEN 'LOW'
+            ELSE 'CRITICAL' END,
+       CURRENT_TIMESTAMP
+FROM vaccine_batches
+WHERE quantity_remaining > 0 AND expiry_date >= CURRENT_DATE AND vaccine_key IS NOT NULL
+GROUP BY facility_id, vaccine_key
+ON CONFLICT (facility_id, vaccine_key) DO NOTHING;
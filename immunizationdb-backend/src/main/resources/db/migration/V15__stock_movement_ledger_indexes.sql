@@ -0,0 +1,7 @@
+-- Ledger indexes: equality on the scope, then (created_at, id) so keyset pages start with an index seek
+-- Vaccine names on movements are free text, so the vaccine ledger matches on the normalized name
+CREATE INDEX IF NOT EXISTS idx_stock_movement_ledger_vaccine
+    ON stock_movements(facility_id, (LOWER(TRIM(vaccine_id))), created_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_stock_movement_ledger_batch
+    ON stock_movements(facility_id, batch_number, created_at, id);
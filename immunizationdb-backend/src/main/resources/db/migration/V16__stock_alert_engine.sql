@@ -0,0 +1,10 @@
+-- Stock alerts are raised and resolved by StockAlertService
+ALTER TABLE stock_alerts ADD COLUMN IF NOT EXISTS vaccine_name VARCHAR(100);
+
+-- At most one open alert per batch, type and severity; inserts use ON CONFLICT DO NOTHING against it
+CREATE UNIQUE INDEX IF NOT EXISTS uq_stock_alert_open
+    ON stock_alerts(batch_id, alert_type, severity) WHERE is_resolved = false;
+
+-- Dashboards read the open alerts of one facility
+CREATE INDEX IF NOT EXISTS idx_stock_alert_open_facility
+    ON stock_alerts(facility_id, created_at) WHERE is_resolved = false;
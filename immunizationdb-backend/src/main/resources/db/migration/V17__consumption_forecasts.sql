@@ -0,0 +1,24 @@
+-- Create Consumption Forecasts Table (smoothed daily usage per facility and vaccine)
+-- daily_rate is the exponentially weighted average of completed days before current_day;
+-- current_day_doses accumulates current_day until a later day folds it into the rate.
+-- Rows are backfilled from stock_movements by ConsumptionForecastScheduler on first startup.
+CREATE TABLE IF NOT EXISTS consumption_forecasts
+(
+    facility_id             VARCHAR(50) NOT NULL,
+    vaccine_key             VARCHAR(100) NOT NULL,
+    vaccine_name            VARCHAR(100) NOT NULL,
+    daily_rate              DOUBLE PRECISION NOT NULL DEFAULT 0,
+    current_day             DATE NOT NULL,
+    current_day_doses       INTEGER NOT NULL DEFAULT 0,
+    last_received_date      DATE,
+    resupply_interval_days  DOUBLE PRECISION,
+    projected_stockout_date DATE,
+    expected_delivery_date  DATE,
+    at_risk                 BOOLEAN NOT NULL DEFAULT false,
+    evaluated_at            TIMESTAMP WITHOUT TIME ZONE,
+    updated_at              TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_consumption_forecasts PRIMARY KEY (facility_id, vaccine_key)
+);
+
+-- Create indexes for consumption_forecasts
+CREATE INDEX IF NOT EXISTS idx_consumption_forecast_at_risk ON consumption_forecasts(at_risk);
@@ -0,0 +1,3 @@
+-- Inter-facility transfers write a TRANSFER_OUT movement at the source and a TRANSFER_IN movement at the
+-- destination; both carry the id of the transfer they belong to
+ALTER TABLE stock_movements ADD COLUMN IF NOT EXISTS transfer_id VARCHAR(36);
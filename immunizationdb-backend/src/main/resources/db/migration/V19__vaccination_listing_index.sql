@@ -0,0 +1,2 @@
+-- Keyset pagination of a facility's vaccinations, newest first, on (date_administered, id)
+CREATE INDEX IF NOT EXISTS idx_vaccination_facility_date ON vaccinations(facility_id, date_administered, id);
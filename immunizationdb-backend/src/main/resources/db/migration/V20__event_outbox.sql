@@ -0,0 +1,28 @@
+-- Create Outbox Events Table (side effects of a write, stored in the writer's transaction)
+-- OutboxDispatcher claims due rows by pushing next_attempt_at out by a lease, runs every handler for the
+-- event type, and sets processed_at once all of them have succeeded.
+CREATE TABLE IF NOT EXISTS outbox_events
+(
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type      VARCHAR(50) NOT NULL,
+    aggregate_id    VARCHAR(100) NOT NULL,
+    payload         TEXT NOT NULL,
+    attempts        INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at    TIMESTAMP WITHOUT TIME ZONE
+);
+
+-- One row per handler that has applied an event; written in the handler's transaction so a redelivered
+-- event is applied at most once per handler
+CREATE TABLE IF NOT EXISTS outbox_deliveries
+(
+    event_id     BIGINT NOT NULL,
+    handler      VARCHAR(50) NOT NULL,
+    delivered_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_outbox_deliveries PRIMARY KEY (event_id, handler)
+);
+
+-- Create indexes for outbox_events
+CREATE INDEX IF NOT EXISTS idx_outbox_event_due ON outbox_events(processed_at, next_attempt_at);
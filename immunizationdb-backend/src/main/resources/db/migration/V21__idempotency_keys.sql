@@ -0,0 +1,18 @@
+-- Create Idempotency Keys Table (responses of retried POSTs, per user and Idempotency-Key header)
+-- status_code is NULL while the first request with the key is still running; only successful responses are
+-- kept, so a failed request can be retried with the same key. Rows are deleted once expires_at has passed.
+CREATE TABLE IF NOT EXISTS idempotency_keys
+(
+    user_id             BIGINT NOT NULL,
+    idempotency_key     VARCHAR(100) NOT NULL,
+    request_fingerprint VARCHAR(64) NOT NULL,
+    status_code         INTEGER,
+    content_type        VARCHAR(100),
+    response_body       TEXT,
+    created_at          TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    expires_at          TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (user_id, idempotency_key)
+);
+
+-- Create indexes for idempotency_keys
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_expires ON idempotency_keys(expires_at);
@@ -0,0 +1,6 @@
+-- Park outbox events that used up outbox.max-attempts: failed_at is set instead of scheduling another attempt,
+-- and the dispatcher no longer claims the event. last_error keeps the final failure for inspection.
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS failed_at TIMESTAMP WITHOUT TIME ZONE;
+
+-- Create indexes for outbox_events
+CREATE INDEX IF NOT EXISTS idx_outbox_event_failed ON outbox_events(failed_at) WHERE failed_at IS NOT NULL;
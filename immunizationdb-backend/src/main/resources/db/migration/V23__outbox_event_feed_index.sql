@@ -0,0 +1,2 @@
+-- Every instance reads recent events of one type to update its in-memory report caches (ReportCacheFeed)
+CREATE INDEX IF NOT EXISTS idx_outbox_event_type_created ON outbox_events(event_type, created_at);
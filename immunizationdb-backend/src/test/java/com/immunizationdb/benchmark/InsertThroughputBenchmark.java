@@ -0,0 +1,175 @@
+package com.immunizationdb.benchmark;
+
+import com.immunizationdb.auth.entity.User;
+import com.immunizationdb.auth.repository.UserRepository;
+import com.immunizationdb.campaign.repository.CampaignRepository;
+import com.immunizationdb.config.DatabaseSeeder;
+import com.immunizationdb.inventory.entity.VaccineBatch;
+import com.immunizationdb.inventory.repository.VaccineBatchRepository;
+import com.immunizationdb.patient.entity.Patient;
+import com.immunizationdb.patient.repository.PatientRepository;
+import com.immunizationdb.vaccination.dto.RecordVaccinationRequest;
+import com.immunizationdb.vaccination.repository.VaccinationRepository;
+import com.immunizationdb.vaccination.service.BulkVaccinationService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput of the two write-heavy paths: the DatabaseSeeder data set and a full
+ * POST /vaccinations/batch session through BulkVaccinationService.
+ * Every run is rolled back, so it can be pointed at a development database.
+ * Opt-in: mvn test -Dtest=InsertThroughputBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class InsertThroughputBenchmark {
+
+	// Largest session the bulk endpoint accepts
+	private static final int BULK_RECORDS = 500;
+	private static final int RUNS = 5;
+	private static final String FACILITY = "BENCH";
+
+	@Autowired
+	private DatabaseSeeder databaseSeeder;
+
+	@Autowired
+	private BulkVaccinationService bulkVaccinationService;
+
+	@Autowired
+	private VaccinationRepository vaccinationRepository;
+
+	@Autowired
+	private VaccineBatchRepository vaccineBatchRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private CampaignRepository campaignRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void insertThroughput() {
+		User nurse = userRepository.findAll().stream().findFirst().orElseThrow();
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(nurse, null, nurse.getAuthorities()));
+
+		measure("database seeder", () -> () -> databaseSeeder.seedRecords(
+				patientRepository, vaccineBatchRepository, vaccinationRepository, campaignRepository));
+
+		measure("bulk vaccination session", () -> {
+			List<RecordVaccinationRequest> records = bulkSession(nurse);
+			return () -> {
+				int recorded = bulkVaccinationService.recordVaccinations(records).getRecorded();
+				if (recorded != BULK_RECORDS) {
+					throw new IllegalStateException("Only " + recorded + " of " + BULK_RECORDS + " records were saved");
+				}
+				return recorded;
+			};
+		});
+	}
+
+	/**
+	 * One dose for each of BULK_RECORDS new patients, drawn from a batch that holds exactly enough
+	 */
+	private List<RecordVaccinationRequest> bulkSession(User nurse) {
+		vaccineBatchRepository.save(VaccineBatch.builder()
+				.batchNumber("BENCH-" + System.nanoTime())
+				.vaccineName("BCG")
+				.manufacturer("Benchmark")
+				.quantityReceived(BULK_RECORDS)
+				.quantityRemaining(BULK_RECORDS)
+				.expiryDate(LocalDate.now().plusYears(1))
+				.receiptDate(LocalDate.now())
+				.facilityId(FACILITY)
+				.createdBy(nurse.getId())
+				.build());
+
+		List<Patient> patients = new ArrayList<>();
+		for (int i = 0; i < BULK_RECORDS; i++) {
+			patients.add(Patient.builder()
+					.fullName("Bench Patient " + i)
+					.dateOfBirth(LocalDate.now().minusMonths(2))
+					.gender("Female")
+					.facilityId(FACILITY)
+					.deleted(false)
+					.build());
+		}
+
+		List<RecordVaccinationRequest> records = new ArrayList<>();
+		for (Patient patient : patientRepository.saveAll(patients)) {
+			records.add(RecordVaccinationRequest.builder()
+					.patientId(patient.getId())
+					.vaccineName("BCG")
+					.doseNumber(1)
+					.dateAdministered(LocalDate.now())
+					.facilityId(FACILITY)
+					.administrationSite("LEFT_ARM")
+					.build());
+		}
+		return records;
+	}
+
+	/**
+	 * Time the insert returned by prepare, excluding prepare itself, best of RUNS rolled-back transactions
+	 */
+	private void measure(String path, Supplier<Supplier<Integer>> prepare) {
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+		long bestNanos = Long.MAX_VALUE;
+		long statements = 0;
+		int rows = 0;
+		for (int run = 0; run < RUNS; run++) {
+			long[] elapsed = new long[1];
+			int[] inserted = new int[1];
+			transaction.executeWithoutResult(status -> {
+				Supplier<Integer> insert = prepare.get();
+				entityManager.flush();
+				statistics.clear();
+				long start = System.nanoTime();
+				inserted[0] = insert.get();
+				entityManager.flush();
+				elapsed[0] = System.nanoTime() - start;
+				status.setRollbackOnly();
+			});
+			bestNanos = Math.min(bestNanos, elapsed[0]);
+			statements = statistics.getPrepareStatementCount();
+			rows = inserted[0];
+		}
+
+		log.info("BENCHMARK {} {} rows: best {} ms, {} rows/s, {} prepared statements",
+				path, rows, bestNanos / 1_000_000, Math.round(rows / (bestNanos / 1e9)), statements);
+	}
+}
@@ -0,0 +1,140 @@
+package com.immunizationdb.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routing between two in-process stand-in DataSources, with the lag the monitor reads stubbed.
+ * Runs without a database: each test only checks which DataSource hands out the connection.
+ */
+class ReplicaRoutingDataSourceTest {
+
+	private static final double MAX_LAG_SECONDS = 30;
+
+	private final DataSource primary = mock(DataSource.class);
+	private final DataSource replica = mock(DataSource.class);
+	private final JdbcTemplate lagQuery = mock(JdbcTemplate.class);
+
+	private ReplicaLagMonitor monitor;
+	private DataSource routing;
+	private DataSourceTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		when(primary.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+		when(replica.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		monitor = new ReplicaLagMonitor(meterRegistry, replica, lagQuery, MAX_LAG_SECONDS);
+		routing = new ReadReplicaDataSourceConfig.RoutingDataSourceProxy(
+				new ReplicaRoutingDataSource(primary, monitor, meterRegistry));
+		transactionManager = new DataSourceTransactionManager(routing);
+		// The proxy reads the default connection settings once on creation
+		clearInvocations(primary, replica);
+	}
+
+	@Test
+	void readOnlyTransactionReadsReplica() throws SQLException {
+		reportLag(0.5);
+
+		runInTransaction(true);
+
+		verify(replica).getConnection();
+		verify(primary, never()).getConnection();
+	}
+
+	@Test
+	void writeTransactionUsesPrimary() throws SQLException {
+		reportLag(0.5);
+
+		runInTransaction(false);
+
+		verify(primary).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	@Test
+	void lagAboveLimitFallsBackToPrimary() throws SQLException {
+		reportLag(MAX_LAG_SECONDS + 1);
+		assertThat(monitor.unavailableReason()).isEqualTo("lag");
+
+		runInTransaction(true);
+
+		verify(primary).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	@Test
+	void unknownLagFallsBackToPrimary() throws SQLException {
+		reportLag(-1);
+
+		runInTransaction(true);
+
+		verify(primary).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	@Test
+	void failedLagCheckFallsBackToPrimary() throws SQLException {
+		when(lagQuery.queryForObject(anyString(), eq(Double.class))).thenThrow(new RuntimeException("connection refused"));
+		monitor.checkLag();
+		assertThat(monitor.unavailableReason()).isEqualTo("unreachable");
+
+		runInTransaction(true);
+
+		verify(primary).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	@Test
+	void cacheLoadInReadOnlyTransactionReadsPrimary() throws SQLException {
+		reportLag(0.5);
+		PrimaryReads primaryReads = new PrimaryReads(transactionManager, true);
+
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		readOnly.executeWithoutResult(status -> primaryReads.load(this::useConnection));
+
+		verify(primary).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	private void reportLag(double lagSeconds) {
+		when(lagQuery.queryForObject(anyString(), eq(Double.class))).thenReturn(lagSeconds);
+		monitor.checkLag();
+	}
+
+	private void runInTransaction(boolean readOnly) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(readOnly);
+		transaction.executeWithoutResult(status -> useConnection());
+	}
+
+	// The routing decision is deferred to the first real use of the connection
+	private Void useConnection() {
+		try {
+			DataSourceUtils.getConnection(routing).createStatement();
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+		return null;
+	}
+}
@@ -0,0 +1,127 @@
+package com.immunizationdb.inventory.service;
+
+import com.immunizationdb.auth.entity.User;
+import com.immunizationdb.auth.repository.UserRepository;
+import com.immunizationdb.inventory.entity.StockMovement;
+import com.immunizationdb.inventory.entity.VaccineBatch;
+import com.immunizationdb.inventory.repository.StockMovementRepository;
+import com.immunizationdb.inventory.repository.VaccineBatchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 200 nurses record a vaccination at the same facility at the same moment.
+ * Stock must end exactly at zero with one USED movement per successful deduction.
+ */
+@SpringBootTest
+class InventoryServiceConcurrencyTest {
+
+	private static final int PARALLEL_RECORDINGS = 200;
+	private static final String VACCINE = "BCG";
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private VaccineBatchRepository vaccineBatchRepository;
+
+	@Autowired
+	private StockMovementRepository stockMovementRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private String facilityId;
+	private User nurse;
+	private final List<VaccineBatch> batches = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		facilityId = "STRESS-" + UUID.randomUUID().toString().substring(0, 8);
+		nurse = userRepository.findAll().stream().findFirst().orElseThrow();
+
+		// 150 doses across two batches for 200 recordings: the first batch expires first and must drain first
+		batches.add(vaccineBatchRepository.save(batch("STRESS-A", 80, LocalDate.now().plusMonths(2))));
+		batches.add(vaccineBatchRepository.save(batch("STRESS-B", 70, LocalDate.now().plusMonths(6))));
+	}
+
+	@AfterEach
+	void tearDown() {
+		stockMovementRepository.deleteAll(stockMovementRepository.findByFacilityId(facilityId));
+		vaccineBatchRepository.deleteAll(batches);
+	}
+
+	@Test
+	void concurrentDeductionsNeverLoseOrOversellStock() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_RECORDINGS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>();
+
+		for (int i = 0; i < PARALLEL_RECORDINGS; i++) {
+			results.add(executor.submit(() -> {
+				SecurityContextHolder.getContext().setAuthentication(
+						new UsernamePasswordAuthenticationToken(nurse, null, nurse.getAuthorities()));
+				try {
+					start.await();
+					inventoryService.deductStockForVaccine(facilityId, VACCINE, 1);
+					return true;
+				} catch (RuntimeException e) {
+					return false;
+				} finally {
+					SecurityContextHolder.clearContext();
+				}
+			}));
+		}
+
+		start.countDown();
+		int succeeded = 0;
+		for (Future<Boolean> result : results) {
+			if (result.get(2, TimeUnit.MINUTES)) {
+				succeeded++;
+			}
+		}
+		executor.shutdown();
+
+		assertThat(succeeded).isEqualTo(150);
+		for (VaccineBatch batch : batches) {
+			assertThat(vaccineBatchRepository.findQuantityRemaining(batch.getId())).isZero();
+		}
+
+		List<StockMovement> movements = stockMovementRepository.findByFacilityId(facilityId);
+		assertThat(movements).hasSize(150);
+		assertThat(movements).allMatch(m -> m.getMovementType() == StockMovement.MovementType.USED && m.getQuantity() == 1);
+		assertThat(movements.stream().filter(m -> m.getBatchNumber().equals("STRESS-A"))).hasSize(80);
+		assertThat(movements.stream().filter(m -> m.getBatchNumber().equals("STRESS-B"))).hasSize(70);
+	}
+
+	private VaccineBatch batch(String batchNumber, int quantity, LocalDate expiryDate) {
+		return VaccineBatch.builder()
+				.batchNumber(batchNumber)
+				.vaccineName(VACCINE)
+				.manufacturer("Stress Test")
+				.quantityReceived(quantity)
+				.quantityRemaining(quantity)
+				.expiryDate(expiryDate)
+				.receiptDate(LocalDate.now())
+				.facilityId(facilityId)
+				.createdBy(nurse.getId())
+				.build();
+	}
+}
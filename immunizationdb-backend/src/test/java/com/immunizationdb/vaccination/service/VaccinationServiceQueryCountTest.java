@@ -0,0 +1,150 @@
+package com.immunizationdb.vaccination.service;
+
+import com.immunizationdb.auth.entity.User;
+import com.immunizationdb.auth.repository.UserRepository;
+import com.immunizationdb.inventory.entity.VaccineBatch;
+import com.immunizationdb.inventory.repository.VaccineBatchRepository;
+import com.immunizationdb.patient.entity.Patient;
+import com.immunizationdb.patient.repository.PatientRepository;
+import com.immunizationdb.vaccination.dto.VaccinationResponse;
+import com.immunizationdb.vaccination.entity.Vaccination;
+import com.immunizationdb.vaccination.repository.VaccinationRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listing vaccinations must cost the same number of statements however many rows are returned,
+ * on both the joined path and the per-distinct-id lookup path used above join-max-rows.
+ */
+@SpringBootTest(properties = "vaccination.responses.join-max-rows=20")
+class VaccinationServiceQueryCountTest {
+
+	@Autowired
+	private VaccinationService vaccinationService;
+
+	@Autowired
+	private VaccinationRepository vaccinationRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private VaccineBatchRepository vaccineBatchRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private User nurse;
+	private VaccineBatch batch;
+	private final List<Patient> patients = new ArrayList<>();
+	private final List<Vaccination> vaccinations = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		nurse = userRepository.findAll().stream().findFirst().orElseThrow();
+		batch = vaccineBatchRepository.save(VaccineBatch.builder()
+				.batchNumber("QC-" + UUID.randomUUID().toString().substring(0, 8))
+				.vaccineName("BCG")
+				.manufacturer("Test")
+				.quantityReceived(100)
+				.quantityRemaining(100)
+				.expiryDate(LocalDate.now().plusYears(1))
+				.receiptDate(LocalDate.now())
+				.facilityId("QC")
+				.createdBy(nurse.getId())
+				.build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		vaccinationRepository.deleteAll(vaccinations);
+		patientRepository.deleteAll(patients);
+		vaccineBatchRepository.delete(batch);
+	}
+
+	@Test
+	void joinedListingIsConstantInRowCount() {
+		String small = facilityWithVaccinations(3);
+		String large = facilityWithVaccinations(15);
+
+		assertConstant(() -> vaccinationService.getVaccinationsByFacility(small), 3,
+				() -> vaccinationService.getVaccinationsByFacility(large), 15);
+		assertConstant(() -> vaccinationService.getVaccinationsByDateRange(small, LocalDate.now(), LocalDate.now()), 3,
+				() -> vaccinationService.getVaccinationsByDateRange(large, LocalDate.now(), LocalDate.now()), 15);
+	}
+
+	@Test
+	void chunkedLookupListingIsConstantInRowCount() {
+		String small = facilityWithVaccinations(25);
+		String large = facilityWithVaccinations(60);
+
+		assertConstant(() -> vaccinationService.getVaccinationsByFacility(small), 25,
+				() -> vaccinationService.getVaccinationsByFacility(large), 60);
+	}
+
+	private void assertConstant(Supplier<List<VaccinationResponse>> small, int smallRows,
+								Supplier<List<VaccinationResponse>> large, int largeRows) {
+		long smallStatements = countStatements(small, smallRows);
+		long largeStatements = countStatements(large, largeRows);
+		assertThat(largeStatements).isEqualTo(smallStatements);
+	}
+
+	private long countStatements(Supplier<List<VaccinationResponse>> listing, int expectedRows) {
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+
+		List<VaccinationResponse> responses = listing.get();
+		long statements = statistics.getPrepareStatementCount();
+
+		assertThat(responses).hasSize(expectedRows);
+		assertThat(responses).allSatisfy(response -> {
+			assertThat(response.getPatientName()).startsWith("QC Patient");
+			assertThat(response.getBatchNumber()).isEqualTo(batch.getBatchNumber());
+			assertThat(response.getNurseName()).isEqualTo(nurse.getFullName());
+		});
+		return statements;
+	}
+
+	// One patient per vaccination so per-row lookups would show up as extra statements
+	private String facilityWithVaccinations(int count) {
+		String facilityId = "QC-" + UUID.randomUUID().toString().substring(0, 8);
+		for (int i = 0; i < count; i++) {
+			Patient patient = patientRepository.save(Patient.builder()
+					.fullName("QC Patient " + i)
+					.dateOfBirth(LocalDate.now().minusYears(1))
+					.gender("FEMALE")
+					.facilityId(facilityId)
+					.build());
+			patients.add(patient);
+			vaccinations.add(vaccinationRepository.save(Vaccination.builder()
+					.patientId(patient.getId())
+					.batchId(batch.getId())
+					.nurseId(nurse.getId())
+					.vaccineName("BCG")
+					.doseNumber(1)
+					.dateAdministered(LocalDate.now())
+					.facilityId(facilityId)
+					.administrationSite("LEFT_ARM")
+					.build()));
+		}
+		return facilityId;
+	}
+}